@@ -57,6 +57,9 @@ public class MyApp extends Application {
                 getApplicationContext(),
                 Logging.get()
         );
+        if (BuildConfig.DEBUG) {
+            AppRepository.INSTANCE.verifyQueryPlans();
+        }
     }
 
     private static long getMilliseconds(String timeZoneId, int year, int month, int day) {
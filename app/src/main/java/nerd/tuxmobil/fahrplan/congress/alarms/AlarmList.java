@@ -25,7 +25,7 @@ import org.ligi.tracedroid.logging.Log;
 
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.AlarmsTable;
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.AlarmsTable.Columns;
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.AlarmsDBOpenHelper;
+import info.metadude.android.eventfahrplan.database.sqliteopenhelper.FahrplanDBOpenHelper;
 import nerd.tuxmobil.fahrplan.congress.MyApp;
 import nerd.tuxmobil.fahrplan.congress.R;
 import nerd.tuxmobil.fahrplan.congress.base.ActionBarListActivity;
@@ -64,9 +64,9 @@ public class AlarmList extends ActionBarListActivity {
 
         appRepository = AppRepository.INSTANCE;
 
-        AlarmsDBOpenHelper alarmsDB = new AlarmsDBOpenHelper(this);
+        FahrplanDBOpenHelper databaseOpenHelper = FahrplanDBOpenHelper.getInstance(this);
 
-        db = alarmsDB.getReadableDatabase();
+        db = databaseOpenHelper.getReadableDatabase();
         Cursor cursor;
 
         try {
@@ -122,13 +122,13 @@ public class AlarmList extends ActionBarListActivity {
         new AlarmServices(alarmManager).discardSessionAlarm(this, alarm);
 
         int alarmId = cursor.getInt(cursor.getColumnIndex(Columns.ID));
-        db.delete(AlarmsTable.NAME, Columns.ID + " = ?", new String[]{String.valueOf(alarmId)});
+        appRepository.deleteAlarmForAlarmId(alarmId);
         cursor.requery();
         mAdapter.notifyDataSetChanged();
     }
 
     public void deleteAllAlarms() {
-        db.delete(AlarmsTable.NAME, null, null);
+        appRepository.deleteAllAlarms();
         setListAdapter(null);
     }
 
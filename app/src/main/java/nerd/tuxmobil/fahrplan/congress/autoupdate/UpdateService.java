@@ -10,13 +10,10 @@ import androidx.annotation.NonNull;
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.SafeJobIntentService;
 
-import java.util.List;
-
 import kotlin.Unit;
 import nerd.tuxmobil.fahrplan.congress.MyApp;
 import nerd.tuxmobil.fahrplan.congress.MyApp.TASKS;
 import nerd.tuxmobil.fahrplan.congress.R;
-import nerd.tuxmobil.fahrplan.congress.models.Session;
 import nerd.tuxmobil.fahrplan.congress.net.ConnectivityObserver;
 import nerd.tuxmobil.fahrplan.congress.net.CustomHttpClient;
 import nerd.tuxmobil.fahrplan.congress.net.FetchScheduleResult;
@@ -41,12 +38,14 @@ public class UpdateService extends SafeJobIntentService {
     private final AppRepository appRepository = AppRepository.INSTANCE;
 
     public void onParseDone(@NonNull ParseResult result) {
-        int numDays = appRepository.readMeta().getNumDays();
-        MyApp.LogDebug(LOG_TAG, "parseDone: " + result.isSuccess() + " , numDays=" + numDays);
+        MyApp.LogDebug(LOG_TAG, "parseDone: " + result.isSuccess());
         MyApp.task_running = TASKS.NONE;
-        List<Session> changesList = appRepository.loadChangedSessions();
-        if (!changesList.isEmpty() && result instanceof ParseScheduleResult) {
-            showScheduleUpdateNotification(((ParseScheduleResult) result).getVersion(), changesList.size());
+        if (result instanceof ParseScheduleResult) {
+            ParseScheduleResult parseScheduleResult = (ParseScheduleResult) result;
+            int changedSessionsCount = parseScheduleResult.getChangedSessionsCount();
+            if (changedSessionsCount > 0) {
+                showScheduleUpdateNotification(parseScheduleResult.getVersion(), changedSessionsCount);
+            }
         }
         MyApp.LogDebug(LOG_TAG, "background update complete");
         stopSelf();
@@ -82,7 +81,7 @@ public class UpdateService extends SafeJobIntentService {
             return;
         }
 
-        // Parser is automatically invoked when response has been received.
+        // Parsing and persisting continue in the background. onParseDone is invoked once committed.
         MyApp.task_running = TASKS.PARSE;
     }
 
@@ -94,7 +93,7 @@ public class UpdateService extends SafeJobIntentService {
         if (MyApp.task_running == TASKS.NONE) {
             MyApp.task_running = TASKS.FETCH;
             String url = appRepository.readScheduleUrl();
-            OkHttpClient okHttpClient = CustomHttpClient.createHttpClient();
+            OkHttpClient okHttpClient = CustomHttpClient.getHttpClient();
             appRepository.loadSchedule(url,
                     okHttpClient,
                     fetchScheduleResult -> {
@@ -128,12 +127,6 @@ public class UpdateService extends SafeJobIntentService {
         connectivityObserver.start();
     }
 
-    @Override
-    public void onDestroy() {
-        appRepository.cancelLoading();
-        super.onDestroy();
-    }
-
     private void fetchSchedule() {
         MyApp.LogDebug(LOG_TAG, "Fetching schedule ...");
         FahrplanMisc.setUpdateAlarm(this, false);
@@ -8,7 +8,9 @@ import nerd.tuxmobil.fahrplan.congress.models.Meta as MetaAppModel
 
 
 fun MetaAppModel.toMetaNetworkModel() = MetaNetworkModel(
+        downloadUrl = downloadUrl,
         eTag = eTag,
+        lastModified = lastModified,
         numDays = numDays,
         subtitle = subtitle,
         timeZoneName = timeZoneId?.id,
@@ -17,7 +19,9 @@ fun MetaAppModel.toMetaNetworkModel() = MetaNetworkModel(
 )
 
 fun MetaDatabaseModel.toMetaAppModel() = MetaAppModel(
+        downloadUrl = downloadUrl,
         eTag = eTag,
+        lastModified = lastModified,
         numDays = numDays,
         subtitle = subtitle,
         timeZoneId = timeZoneName?.let {
@@ -34,7 +38,9 @@ fun MetaDatabaseModel.toMetaAppModel() = MetaAppModel(
 )
 
 fun MetaNetworkModel.toMetaDatabaseModel() = MetaDatabaseModel(
+        downloadUrl = downloadUrl,
         eTag = eTag,
+        lastModified = lastModified,
         numDays = numDays,
         subtitle = subtitle,
         timeZoneName = timeZoneName,
@@ -0,0 +1,31 @@
+package nerd.tuxmobil.fahrplan.congress.dataconverters
+
+import nerd.tuxmobil.fahrplan.congress.models.RoomData
+import nerd.tuxmobil.fahrplan.congress.models.ScheduleData
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import info.metadude.android.eventfahrplan.database.models.ScheduleColumn as ScheduleColumnDatabaseModel
+
+fun ScheduleData.toScheduleColumnsDatabaseModel() = roomDataList.mapIndexed { columnIndex, roomData ->
+    ScheduleColumnDatabaseModel(
+            dayIndex = dayIndex,
+            roomName = roomData.roomName,
+            columnIndex = columnIndex
+    )
+}
+
+/**
+ * Returns the [ScheduleData] of the given [dayIndex] for sessions which are already ordered
+ * by the column of their room and by [Session.dateUTC]. Consecutive sessions of the same
+ * room form one [RoomData] item. No sorting takes place.
+ */
+fun List<Session>.toScheduleData(dayIndex: Int): ScheduleData {
+    val roomDataList = mutableListOf<RoomData>()
+    var fromIndex = 0
+    for (index in 1..size) {
+        if (index == size || this[index].room != this[fromIndex].room) {
+            roomDataList += RoomData(this[fromIndex].room, subList(fromIndex, index))
+            fromIndex = index
+        }
+    }
+    return ScheduleData(dayIndex, roomDataList)
+}
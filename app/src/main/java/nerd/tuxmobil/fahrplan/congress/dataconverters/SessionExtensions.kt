@@ -58,6 +58,7 @@ fun Session.toSessionDatabaseModel() = SessionDatabaseModel(
         track = track,
         type = type,
         url = url,
+        contentHash = contentHash,
 
         changedDay = changedDay,
         changedDuration = changedDuration,
@@ -100,6 +101,7 @@ fun SessionDatabaseModel.toSessionAppModel(): Session {
     session.track = track
     session.type = type
     session.url = url
+    session.contentHash = contentHash
 
     session.changedDay = changedDay
     session.changedDuration = changedDuration
@@ -144,6 +146,7 @@ fun SessionNetworkModel.toSessionAppModel(): Session {
     session.track = track
     session.type = type
     session.url = url
+    session.contentHash = contentHash
 
     session.changedDay = changedDayIndex
     session.changedDuration = changedDuration
@@ -354,7 +354,9 @@ public class StarredListFragment extends AbstractListFragment implements
 
     private void shareSessions() {
         ZoneId timeZoneId = appRepository.readMeta().getTimeZoneId();
-        String formattedSession = SimpleSessionFormat.format(starredList, timeZoneId);
+        // The list items lack the links and URL needed for sharing.
+        List<Session> starredSessions = appRepository.loadStarredSessionsWithDetails();
+        String formattedSession = SimpleSessionFormat.format(starredSessions, timeZoneId);
         if (formattedSession != null) {
             Context context = requireContext();
             SessionSharer.shareSimple(context, formattedSession);
@@ -362,7 +364,8 @@ public class StarredListFragment extends AbstractListFragment implements
     }
 
     private void shareSessionsToChaosflix() {
-        String formattedSession = JsonSessionFormat.format(starredList);
+        List<Session> starredSessions = appRepository.loadStarredSessionsWithDetails();
+        String formattedSession = JsonSessionFormat.format(starredSessions);
         if (formattedSession != null) {
             Context context = requireContext();
             if (!SessionSharer.shareJson(context, formattedSession)) {
@@ -5,8 +5,12 @@ import org.threeten.bp.ZoneId
 
 data class Meta(
 
+        @Deprecated("To be removed. Access from AppRepository only. Left here only for data transfer.")
+        var downloadUrl: String = "",
         @Deprecated("To be removed. Access from AppRepository only. Left here only for data transfer.")
         var eTag: String = "",
+        @Deprecated("To be removed. Access from AppRepository only. Left here only for data transfer.")
+        var lastModified: String = "",
         var numDays: Int = MetasTable.Defaults.NUM_DAYS_DEFAULT,
         var subtitle: String = "",
         var timeZoneId: ZoneId? = null,
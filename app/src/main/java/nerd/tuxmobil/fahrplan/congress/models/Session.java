@@ -64,6 +64,12 @@ public class Session {
     public String recordingLicense;
     public boolean recordingOptOut;
 
+    /**
+     * Hash of the fields which are compared to detect schedule changes. Computed by
+     * {@code FahrplanParser}. The value is {@code 0} if it is unknown, e.g. for Engelsystem shifts.
+     */
+    public long contentHash;
+
     public boolean changedTitle;
     public boolean changedSubtitle;
     public boolean changedRoom;
@@ -104,6 +110,7 @@ public class Session {
         roomIndex = 0;
         recordingLicense = "";
         recordingOptOut = RECORDING_OPTOUT_OFF;
+        contentHash = 0;
         changedTitle = false;
         changedSubtitle = false;
         changedRoom = false;
@@ -144,6 +151,7 @@ public class Session {
         this.hasAlarm = session.hasAlarm;
         this.recordingLicense = session.recordingLicense;
         this.recordingOptOut = session.recordingOptOut;
+        this.contentHash = session.contentHash;
 
         this.changedTitle = session.changedTitle;
         this.changedSubtitle = session.changedSubtitle;
@@ -3,6 +3,10 @@ package nerd.tuxmobil.fahrplan.congress.net;
 import android.app.Activity;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import info.metadude.android.eventfahrplan.network.fetching.ContentEncodingInterceptor;
 import nerd.tuxmobil.fahrplan.congress.BuildConfig;
 import nerd.tuxmobil.fahrplan.congress.R;
 import nerd.tuxmobil.fahrplan.congress.utils.AlertDialogHelper;
@@ -13,8 +17,27 @@ import okhttp3.logging.HttpLoggingInterceptor.Level;
 
 public class CustomHttpClient {
 
-    public static OkHttpClient createHttpClient() {
+    @Nullable
+    private static OkHttpClient httpClient;
+
+    /**
+     * Returns the process-wide HTTP client. Sharing one instance allows consecutive requests
+     * to reuse the pooled connections. Responses are not cached on disk: the schedule is
+     * requested conditionally based on its stored ETag and Last-Modified values and other
+     * requests such as the Engelsystem one carry credentials in their URL.
+     * Responses are requested brotli or gzip compressed and decompressed while being read.
+     */
+    @NonNull
+    public static synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            httpClient = createHttpClient();
+        }
+        return httpClient;
+    }
+
+    private static OkHttpClient createHttpClient() {
         OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder();
+        clientBuilder.addInterceptor(new ContentEncodingInterceptor());
         String userAgent = BuildConfig.APPLICATION_ID + ", " + BuildConfig.VERSION_NAME;
         clientBuilder.addNetworkInterceptor(new UserAgentInterceptor(userAgent));
         if (BuildConfig.DEBUG) {
@@ -1,8 +1,13 @@
 package nerd.tuxmobil.fahrplan.congress.net
 
+/**
+ * Result of parsing and persisting the schedule. It is delivered
+ * once the sessions have been committed to the database.
+ */
 data class ParseScheduleResult(
 
         override val isSuccess: Boolean,
-        val version: String
+        val version: String,
+        val changedSessionsCount: Int = 0
 
 ) : ParseResult
@@ -2,24 +2,28 @@ package nerd.tuxmobil.fahrplan.congress.repositories
 
 import android.content.Context
 import android.net.Uri
+import androidx.core.database.sqlite.transaction
 import info.metadude.android.eventfahrplan.commons.extensions.onFailure
 import info.metadude.android.eventfahrplan.commons.logging.Logging
 import info.metadude.android.eventfahrplan.commons.temporal.Moment
 import info.metadude.android.eventfahrplan.database.extensions.toContentValues
+import info.metadude.android.eventfahrplan.database.mappers.SessionRowMapper
 import info.metadude.android.eventfahrplan.database.repositories.AlarmsDatabaseRepository
 import info.metadude.android.eventfahrplan.database.repositories.HighlightsDatabaseRepository
 import info.metadude.android.eventfahrplan.database.repositories.MetaDatabaseRepository
 import info.metadude.android.eventfahrplan.database.repositories.SessionsDatabaseRepository
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.AlarmsDBOpenHelper
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.HighlightDBOpenHelper
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.MetaDBOpenHelper
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.SessionsDBOpenHelper
+import info.metadude.android.eventfahrplan.database.sqliteopenhelper.FahrplanDBOpenHelper
 import info.metadude.android.eventfahrplan.engelsystem.EngelsystemNetworkRepository
 import info.metadude.android.eventfahrplan.engelsystem.models.ShiftsResult
+import info.metadude.android.eventfahrplan.network.models.LoadScheduleResult
 import info.metadude.android.eventfahrplan.network.models.Meta
 import info.metadude.android.eventfahrplan.network.repositories.ScheduleNetworkRepository
 import info.metadude.kotlin.library.engelsystem.models.Shift
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.yield
 import nerd.tuxmobil.fahrplan.congress.BuildConfig
 import nerd.tuxmobil.fahrplan.congress.dataconverters.cropToDayRangesExtent
 import nerd.tuxmobil.fahrplan.congress.dataconverters.sanitize
@@ -35,6 +39,8 @@ import nerd.tuxmobil.fahrplan.congress.dataconverters.toHighlightsAppModel
 import nerd.tuxmobil.fahrplan.congress.dataconverters.toMetaAppModel
 import nerd.tuxmobil.fahrplan.congress.dataconverters.toMetaDatabaseModel
 import nerd.tuxmobil.fahrplan.congress.dataconverters.toMetaNetworkModel
+import nerd.tuxmobil.fahrplan.congress.dataconverters.toScheduleColumnsDatabaseModel
+import nerd.tuxmobil.fahrplan.congress.dataconverters.toScheduleData
 import nerd.tuxmobil.fahrplan.congress.dataconverters.toSessionAppModel
 import nerd.tuxmobil.fahrplan.congress.dataconverters.toSessionAppModels
 import nerd.tuxmobil.fahrplan.congress.dataconverters.toSessionsAppModel
@@ -42,6 +48,7 @@ import nerd.tuxmobil.fahrplan.congress.dataconverters.toSessionsAppModel2
 import nerd.tuxmobil.fahrplan.congress.dataconverters.toSessionsDatabaseModel
 import nerd.tuxmobil.fahrplan.congress.exceptions.AppExceptionHandler
 import nerd.tuxmobil.fahrplan.congress.models.Alarm
+import nerd.tuxmobil.fahrplan.congress.models.ScheduleData
 import nerd.tuxmobil.fahrplan.congress.models.Session
 import nerd.tuxmobil.fahrplan.congress.net.FetchScheduleResult
 import nerd.tuxmobil.fahrplan.congress.net.HttpStatus
@@ -54,6 +61,10 @@ import nerd.tuxmobil.fahrplan.congress.serialization.ScheduleChanges.Companion.c
 import nerd.tuxmobil.fahrplan.congress.utils.AlarmToneConversion
 import nerd.tuxmobil.fahrplan.congress.validation.MetaValidation.validate
 import okhttp3.OkHttpClient
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import info.metadude.android.eventfahrplan.network.models.Session as SessionNetworkModel
 
 object AppRepository {
 
@@ -64,14 +75,26 @@ object AppRepository {
      */
     const val ENGELSYSTEM_ROOM_NAME = "Engelshifts"
     private const val ALL_DAYS = -1
+    private const val SCHEDULE_SNAPSHOT_FILE_NAME = "schedule.snapshot"
+
+    /**
+     * Reads the columns needed to render a session in a list.
+     */
+    private val listItemRowMapper = SessionRowMapper(SessionRowMapper.LIST_ITEM_PROJECTION)
+
+    private val sessionsTransformer = SessionsTransformer.createSessionsTransformer()
 
     private lateinit var context: Context
 
     private lateinit var logging: Logging
 
-    private val parentJobs = mutableMapOf<String, Job>()
+    /**
+     * Running jobs by request identifier. Written from the UI thread and the network dispatcher.
+     */
+    private val parentJobs = ConcurrentHashMap<String, Job>()
     private lateinit var networkScope: NetworkScope
 
+    private lateinit var databaseOpenHelper: FahrplanDBOpenHelper
     private lateinit var alarmsDatabaseRepository: AlarmsDatabaseRepository
     private lateinit var highlightsDatabaseRepository: HighlightsDatabaseRepository
     private lateinit var sessionsDatabaseRepository: SessionsDatabaseRepository
@@ -81,6 +104,20 @@ object AppRepository {
     private lateinit var engelsystemNetworkRepository: EngelsystemNetworkRepository
     private lateinit var sharedPreferencesRepository: SharedPreferencesRepository
 
+    private lateinit var sessionsCache: SessionsCache
+
+    private lateinit var scheduleSnapshotFile: File
+    private val scheduleSnapshotLock = Any()
+    private var scheduleSnapshot: ScheduleSnapshot? = null
+    private var isScheduleSnapshotOpened = false
+    private var isScheduleSnapshotRewritePending = false
+    private var scheduleSnapshotGeneration = 0
+
+    /**
+     * Serializes the background jobs which write the schedule snapshot file.
+     */
+    private val scheduleSnapshotMutex = Mutex()
+
     private var onSessionsChangeListener: OnSessionsChangeListener? = null
     private var alarmsHaveChanged = false
     private var highlightsHaveChanged = false
@@ -90,17 +127,20 @@ object AppRepository {
             context: Context,
             logging: Logging,
             networkScope: NetworkScope = NetworkScope.of(AppExecutionContext, AppExceptionHandler(logging)),
-            alarmsDatabaseRepository: AlarmsDatabaseRepository = AlarmsDatabaseRepository(AlarmsDBOpenHelper(context)),
-            highlightsDatabaseRepository: HighlightsDatabaseRepository = HighlightsDatabaseRepository(HighlightDBOpenHelper(context)),
-            sessionsDatabaseRepository: SessionsDatabaseRepository = SessionsDatabaseRepository(SessionsDBOpenHelper(context), logging),
-            metaDatabaseRepository: MetaDatabaseRepository = MetaDatabaseRepository(MetaDBOpenHelper(context)),
+            databaseOpenHelper: FahrplanDBOpenHelper = FahrplanDBOpenHelper.getInstance(context),
+            alarmsDatabaseRepository: AlarmsDatabaseRepository = AlarmsDatabaseRepository(databaseOpenHelper),
+            highlightsDatabaseRepository: HighlightsDatabaseRepository = HighlightsDatabaseRepository(databaseOpenHelper),
+            sessionsDatabaseRepository: SessionsDatabaseRepository = SessionsDatabaseRepository(databaseOpenHelper, logging),
+            metaDatabaseRepository: MetaDatabaseRepository = MetaDatabaseRepository(databaseOpenHelper),
             scheduleNetworkRepository: ScheduleNetworkRepository = ScheduleNetworkRepository(),
             engelsystemNetworkRepository: EngelsystemNetworkRepository = EngelsystemNetworkRepository(),
-            sharedPreferencesRepository: SharedPreferencesRepository = SharedPreferencesRepository(context)
+            sharedPreferencesRepository: SharedPreferencesRepository = SharedPreferencesRepository(context),
+            scheduleSnapshotFile: File = File(context.filesDir, SCHEDULE_SNAPSHOT_FILE_NAME)
     ) {
         this.context = context
         this.logging = logging
         this.networkScope = networkScope
+        this.databaseOpenHelper = databaseOpenHelper
         this.alarmsDatabaseRepository = alarmsDatabaseRepository
         this.highlightsDatabaseRepository = highlightsDatabaseRepository
         this.sessionsDatabaseRepository = sessionsDatabaseRepository
@@ -108,6 +148,31 @@ object AppRepository {
         this.scheduleNetworkRepository = scheduleNetworkRepository
         this.engelsystemNetworkRepository = engelsystemNetworkRepository
         this.sharedPreferencesRepository = sharedPreferencesRepository
+        this.sessionsCache = SessionsCache()
+        this.scheduleSnapshotFile = scheduleSnapshotFile
+        synchronized(scheduleSnapshotLock) {
+            scheduleSnapshot = null
+            isScheduleSnapshotOpened = false
+            isScheduleSnapshotRewritePending = false
+        }
+    }
+
+    /**
+     * Checks in the background whether the frequent database queries are served by an index.
+     * Query plans which scan a whole table or sort in a temporary table are logged.
+     * Meant to be invoked in debug builds to notice missing indices early.
+     */
+    fun verifyQueryPlans() {
+        networkScope.launchNamed("verifyQueryPlans") {
+            val queryPlans = networkScope.withDatabaseContext {
+                sessionsDatabaseRepository.queryPlans() +
+                        highlightsDatabaseRepository.queryPlans() +
+                        alarmsDatabaseRepository.queryPlans()
+            }
+            queryPlans.filterNot { it.usesIndex }.forEach { queryPlan ->
+                logging.e(javaClass.simpleName, "Query not served by an index: '${queryPlan.sql}' -> ${queryPlan.details}")
+            }
+        }
     }
 
     private fun loadingFailed(@Suppress("SameParameterValue") requestIdentifier: String) {
@@ -115,12 +180,16 @@ object AppRepository {
     }
 
     fun cancelLoading() {
-        parentJobs.values.forEach {
-            it.cancel()
+        parentJobs.keys.forEach { requestIdentifier ->
+            parentJobs.remove(requestIdentifier)?.cancel()
         }
-        parentJobs.clear()
     }
 
+    /**
+     * Loads the schedule from the given [url] and persists it.
+     * Fetching, parsing, change detection and persisting run as one pipeline in the background.
+     * The pipeline can be aborted via [cancelLoading]. The given functions are invoked on the UI thread.
+     */
     fun loadSchedule(url: String,
                      okHttpClient: OkHttpClient,
                      onFetchingDone: (fetchScheduleResult: FetchScheduleResult) -> Unit,
@@ -128,58 +197,78 @@ object AppRepository {
                      onLoadingShiftsDone: (loadShiftsResult: LoadShiftsResult) -> Unit
     ) {
         check(onFetchingDone != {}) { "Nobody registered to receive FetchScheduleResult." }
-        // Fetching
-        val meta = readMeta().toMetaNetworkModel()
-        scheduleNetworkRepository.fetchSchedule(okHttpClient, url, meta.eTag) { fetchScheduleResult ->
-            val fetchResult = fetchScheduleResult.toAppFetchScheduleResult()
-            onFetchingDone.invoke(fetchResult)
-
-            if (fetchResult.isNotModified || fetchResult.isSuccessful) {
-                updateScheduleLastFetchedAt()
+        check(onParsingDone != {}) { "Nobody registered to receive ParseScheduleResult." }
+        val requestIdentifier = "loadSchedule"
+        parentJobs[requestIdentifier] = networkScope.launchNamed(requestIdentifier) {
+            val meta = networkScope.withDatabaseContext { readMeta().toMetaNetworkModel() }
+            scheduleNetworkRepository.loadSchedule(okHttpClient, url, meta.downloadUrl, meta.eTag, meta.lastModified).collect { result ->
+                when (result) {
+                    is LoadScheduleResult.Fetched -> {
+                        val fetchScheduleResult = result.fetchScheduleResult
+                        val fetchResult = fetchScheduleResult.toAppFetchScheduleResult()
+                        if (fetchResult.isNotModified || fetchResult.isSuccessful) {
+                            updateScheduleLastFetchedAt()
+                        }
+                        networkScope.withUiContext { onFetchingDone(fetchResult) }
+                        if (fetchResult.isNotModified) {
+                            loadShifts(okHttpClient, onLoadingShiftsDone)
+                        }
+                    }
+                    is LoadScheduleResult.Parsed -> {
+                        val parseScheduleResult = if (result.isSuccess) {
+                            networkScope.withDatabaseContext { persistSchedule(result.sessions, result.meta) }
+                        } else {
+                            ParseScheduleResult(false, result.meta.version)
+                        }
+                        networkScope.withUiContext { onParsingDone(parseScheduleResult) }
+                        loadShifts(okHttpClient, onLoadingShiftsDone)
+                    }
+                }
             }
+        }
+    }
 
-            if (fetchResult.isSuccessful) {
-                val validMeta = meta.copy(eTag = fetchScheduleResult.eTag).validate()
+    /**
+     * Persistence stage of [loadSchedule]. Detects changes between the given [sessions] and
+     * the ones stored in the database, flags them accordingly and persists them along with
+     * the given [meta] and its ETag in a single transaction. Only the [delta][SessionsDelta] of
+     * the sessions is written so that a refresh without changes does not rewrite any session.
+     * Returns a lightweight result once the sessions have been committed.
+     *
+     * Must be invoked on a background thread. Cancellation is checked before each write.
+     */
+    private suspend fun persistSchedule(sessions: List<SessionNetworkModel>, meta: Meta): ParseScheduleResult {
+        val oldSessions = loadSessionsForAllDays(true)
+        val newSessions = sessions.toSessionsAppModel2().sanitize()
+        yield()
+        val scheduleChanges = computeSessionsWithChangeFlags(newSessions, oldSessions)
+        yield()
+        val sessionsDelta = SessionsDelta.compute(
+                scheduleChanges.sessionsWithChangeFlags.toSessionsDatabaseModel(),
+                oldSessions.toSessionsDatabaseModel()
+        )
+        yield()
+        val validMeta = meta.validate()
+        updateScheduleSnapshot {
+            databaseOpenHelper.writableDatabase.transaction {
+                if (!sessionsDelta.isEmpty) {
+                    sessionsDatabaseRepository.updateSessions(sessionsDelta.toBeUpdatedSessions, sessionsDelta.toBeDeletedSessionIds)
+                    updateScheduleColumns(scheduleChanges.sessionsWithChangeFlags)
+                }
                 updateMeta(validMeta)
-                check(onParsingDone != {}) { "Nobody registered to receive ParseScheduleResult." }
-                // Parsing
-                parseSchedule(
-                        fetchScheduleResult.scheduleXml,
-                        fetchScheduleResult.eTag,
-                        okHttpClient,
-                        onParsingDone,
-                        onLoadingShiftsDone
-                )
             }
-            if (fetchResult.isNotModified) {
-                loadShifts(okHttpClient, onLoadingShiftsDone)
+            if (!sessionsDelta.isEmpty) {
+                sessionsCache.invalidate()
             }
         }
-    }
-
-    private fun parseSchedule(scheduleXml: String,
-                              eTag: String,
-                              okHttpClient: OkHttpClient,
-                              onParsingDone: (parseScheduleResult: ParseResult) -> Unit,
-                              onLoadingShiftsDone: (loadShiftsResult: LoadShiftsResult) -> Unit) {
-        scheduleNetworkRepository.parseSchedule(scheduleXml, eTag,
-                onUpdateSessions = { sessions ->
-                    val oldSessions = loadSessionsForAllDays(true)
-                    val newSessions = sessions.toSessionsAppModel2().sanitize()
-                    val scheduleChanges = computeSessionsWithChangeFlags(newSessions, oldSessions)
-                    if (scheduleChanges.foundChanges) {
-                        updateScheduleChangesSeen(false)
-                    }
-                    updateSessions(scheduleChanges.sessionsWithChangeFlags, scheduleChanges.oldCanceledSessions)
-                },
-                onUpdateMeta = { meta ->
-                    val validMeta = meta.validate()
-                    updateMeta(validMeta)
-                },
-                onParsingDone = { result: Boolean, version: String ->
-                    onParsingDone(ParseScheduleResult(result, version))
-                    loadShifts(okHttpClient, onLoadingShiftsDone)
-                })
+        if (scheduleChanges.foundChanges) {
+            updateScheduleChangesSeen(false)
+        }
+        val changedSessionsCount = scheduleChanges.sessionsWithChangeFlags
+                .count { it.isChanged || it.changedIsCanceled || it.changedIsNew }
+        logging.d(javaClass.simpleName, "Persisted ${newSessions.size} sessions, $changedSessionsCount changed, " +
+                "${sessionsDelta.toBeUpdatedSessions.size} updated, ${sessionsDelta.toBeDeletedSessionIds.size} deleted.")
+        return ParseScheduleResult(true, validMeta.version, changedSessionsCount)
     }
 
     /**
@@ -248,7 +337,30 @@ object AppRepository {
                 .plus(sessionizedShifts) // ... adding them again.
                 .toList()
         // TODO Detect shift changes as it happens for sessions
-        updateSessions(sessions)
+        updateScheduleSnapshot {
+            databaseOpenHelper.writableDatabase.transaction {
+                updateSessions(sessions)
+                updateScheduleColumns(sessions)
+            }
+            sessionsCache.invalidate()
+        }
+    }
+
+    /**
+     * Loads the uncanceled sessions of the given [day][dayIndex] grouped by their room as they
+     * are displayed in the schedule. The sessions are read in the order of the columns stored
+     * by [updateScheduleColumns] so that neither sorting nor grouping is needed.
+     * Falls back to transforming the sessions if no columns have been stored yet.
+     * On startup the sessions are read from the [ScheduleSnapshot] if there is one.
+     */
+    fun loadScheduleData(dayIndex: Int): ScheduleData {
+        readScheduleSnapshot()?.readScheduleData(dayIndex)?.let { return it }
+        val sessions = sessionsDatabaseRepository.queryScheduleSessionsForDayIndex(dayIndex).toSessionsAppModel()
+        if (sessions.isEmpty()) {
+            logging.d(javaClass.simpleName, "No schedule columns stored for day $dayIndex.")
+            return sessionsTransformer.transformSessions(dayIndex, loadUncanceledSessionsForDayIndex(dayIndex))
+        }
+        return sessions.toScheduleData(dayIndex)
     }
 
     /**
@@ -261,26 +373,42 @@ object AppRepository {
 
     /**
      * Loads all sessions from the database which have been favored aka. starred but no canceled.
+     * Only the columns needed to render a list item are read. Long texts such as the
+     * description are left empty. Use [loadStarredSessionsWithDetails] if they are needed.
      * The returned list might be empty.
      */
-    fun loadStarredSessions() = loadSessionsForAllDays(true)
-            .filter { it.highlight && !it.changedIsCanceled }
+    fun loadStarredSessions() = loadStarredSessions(listItemRowMapper)
+
+    /**
+     * Loads all sessions from the database which have been favored aka. starred but no canceled.
+     * All columns are read.
+     * The returned list might be empty.
+     */
+    fun loadStarredSessionsWithDetails() = loadStarredSessions(SessionRowMapper.ALL_COLUMNS)
+
+    private fun loadStarredSessions(rowMapper: SessionRowMapper) = (
+            sessionsCache.get(ALL_DAYS)?.filter { it.highlight && !it.changedIsCanceled }
+                    ?: sessionsDatabaseRepository.queryStarredSessions(rowMapper).toSessionsAppModel())
             .also { logging.d(javaClass.simpleName, "${it.size} sessions starred.") }
 
     /**
      * Loads all sessions from the database which have been marked as changed, cancelled or new.
+     * Only the columns needed to render a list item are read. Long texts such as the
+     * description are left empty.
      * The returned list might be empty.
      */
-    fun loadChangedSessions() = loadSessionsForAllDays(true)
-            .filter { it.isChanged || it.changedIsCanceled || it.changedIsNew }
+    fun loadChangedSessions() = (
+            sessionsCache.get(ALL_DAYS)?.filter { it.isChanged || it.changedIsCanceled || it.changedIsNew }
+                    ?: sessionsDatabaseRepository.queryChangedSessions(listItemRowMapper).toSessionsAppModel())
             .also { logging.d(javaClass.simpleName, "${it.size} sessions changed.") }
 
     /**
      * Loads the first session of the first day from the database.
+     * On startup the session is read from the [ScheduleSnapshot] if there is one.
      * Throws an exception if no session is present.
      */
-    fun loadEarliestSession() = loadSessionsForAllDays(true)
-            .first()
+    fun loadEarliestSession() = readScheduleSnapshot()?.readEarliestSession()
+            ?: loadSessionsForAllDays(true).first()
 
     /**
      * Loads all sessions from the database which take place on all days.
@@ -293,37 +421,23 @@ object AppRepository {
      * Loads all sessions from the database which take place on the specified [day][dayIndex].
      * All days can be loaded if -1 is passed as the [day][dayIndex].
      * To exclude Engelsystem shifts pass false to [includeEngelsystemShifts].
+     * The highlight and the alarm state are joined by the same database query.
+     * Sessions including Engelsystem shifts are served from the [sessionsCache].
      */
     private fun loadSessionsForDayIndex(dayIndex: Int, includeEngelsystemShifts: Boolean): List<Session> {
         val sessions = if (dayIndex == ALL_DAYS) {
             logging.d(javaClass.simpleName, "Loading sessions for all days.")
             if (includeEngelsystemShifts) {
-                readSessionsOrderedByDateUtc()
+                sessionsCache.getOrLoad(ALL_DAYS) { readSessionsOrderedByDateUtc() }
             } else {
                 readSessionsOrderedByDateUtcExcludingEngelsystemShifts()
             }
         } else {
             logging.d(javaClass.simpleName, "Loading sessions for day $dayIndex.")
-            readSessionsForDayIndexOrderedByDateUtc(dayIndex)
+            sessionsCache.getOrLoad(dayIndex) { readSessionsForDayIndexOrderedByDateUtc(dayIndex) }
         }
         logging.d(javaClass.simpleName, "Got ${sessions.size} rows.")
-
-        val highlights = readHighlights()
-        for (highlight in highlights) {
-            logging.d(javaClass.simpleName, "$highlight")
-            for (session in sessions) {
-                if (session.sessionId == "${highlight.sessionId}") {
-                    session.highlight = highlight.isHighlight
-                }
-            }
-        }
-
-        val alarmSessionIds = readAlarmSessionIds()
-        for (session in sessions) {
-            session.hasAlarm = session.sessionId in alarmSessionIds
-        }
-
-        return sessions.toList()
+        return sessions
     }
 
     @JvmOverloads
@@ -335,16 +449,28 @@ object AppRepository {
 
     fun readAlarmSessionIds() = readAlarms().map { it.sessionId }.toSet()
 
-    fun deleteAlarmForAlarmId(alarmId: Int) =
-            alarmsDatabaseRepository.deleteForAlarmId(alarmId)
+    fun deleteAlarmForAlarmId(alarmId: Int) = updateScheduleSnapshotFlags {
+        alarmsDatabaseRepository.deleteForAlarmId(alarmId)
+                .also { sessionsCache.updateAlarms(readAlarmSessionIds()) }
+    }
 
-    fun deleteAlarmForSessionId(sessionId: String) =
-            alarmsDatabaseRepository.deleteForSessionId(sessionId)
+    fun deleteAlarmForSessionId(sessionId: String) = updateScheduleSnapshotFlags {
+        alarmsDatabaseRepository.deleteForSessionId(sessionId)
+                .also { sessionsCache.updateAlarm(sessionId, hasAlarm = false) }
+    }
+
+    fun deleteAllAlarms() = updateScheduleSnapshotFlags {
+        alarmsDatabaseRepository.deleteAll()
+                .also { sessionsCache.updateAlarms(emptySet()) }
+    }
 
     fun updateAlarm(alarm: Alarm) {
         val alarmDatabaseModel = alarm.toAlarmDatabaseModel()
         val values = alarmDatabaseModel.toContentValues()
-        alarmsDatabaseRepository.update(values, alarm.sessionId)
+        updateScheduleSnapshotFlags {
+            alarmsDatabaseRepository.update(values, alarm.sessionId)
+            sessionsCache.updateAlarm(alarm.sessionId, hasAlarm = true)
+        }
     }
 
     fun readHighlightSessionIds() = readHighlights()
@@ -359,28 +485,20 @@ object AppRepository {
     fun updateHighlight(session: Session) {
         val highlightDatabaseModel = session.toHighlightDatabaseModel()
         val values = highlightDatabaseModel.toContentValues()
-        highlightsDatabaseRepository.update(values, session.sessionId)
+        updateScheduleSnapshotFlags {
+            highlightsDatabaseRepository.update(values, session.sessionId)
+            sessionsCache.updateHighlight(session.sessionId, session.highlight)
+        }
     }
 
-    fun deleteAllHighlights() {
+    fun deleteAllHighlights() = updateScheduleSnapshotFlags {
         highlightsDatabaseRepository.deleteAll()
+        sessionsCache.resetHighlights()
     }
 
-    fun readSessionBySessionId(sessionId: String): Session {
-        val session = sessionsDatabaseRepository.querySessionBySessionId(sessionId).toSessionAppModel()
-
-        val highlight = highlightsDatabaseRepository.queryBySessionId(sessionId.toInt())
-        if (highlight != null) {
-            session.highlight = highlight.isHighlight
-        }
-
-        val alarms = alarmsDatabaseRepository.query(sessionId)
-        if (alarms.isNotEmpty()) {
-            session.hasAlarm = true
-        }
-
-        return session
-    }
+    fun readSessionBySessionId(sessionId: String): Session =
+            sessionsCache.findSession(sessionId)
+                    ?: sessionsDatabaseRepository.querySessionBySessionId(sessionId).toSessionAppModel()
 
     private fun readSessionsForDayIndexOrderedByDateUtc(dayIndex: Int) =
             sessionsDatabaseRepository.querySessionsForDayIndexOrderedByDateUtc(dayIndex).toSessionsAppModel()
@@ -401,15 +519,28 @@ object AppRepository {
             sessionsDatabaseRepository.querySessionsWithinRoom(ENGELSYSTEM_ROOM_NAME).hashCode()
 
     fun readDateInfos() =
-            readSessionsOrderedByDateUtc().toDateInfos()
+            readScheduleSnapshot()?.readDateInfos() ?: loadSessionsForAllDays(true).toDateInfos()
 
     private fun updateSessions(toBeUpdatedSessions: List<Session>, toBeDeletedSessions: List<Session> = emptyList()) {
-        val toBeUpdatedSessionsDatabaseModel = toBeUpdatedSessions.toSessionsDatabaseModel()
-        val toBeUpdated = toBeUpdatedSessionsDatabaseModel.map { it.sessionId to it.toContentValues() }
+        val toBeUpdated = toBeUpdatedSessions.toSessionsDatabaseModel()
         val toBeDeleted = toBeDeletedSessions.map { it.sessionId }
         sessionsDatabaseRepository.updateSessions(toBeUpdated, toBeDeleted)
     }
 
+    /**
+     * Stores the order in which the rooms of each day are displayed. Canceled
+     * sessions are left out as they are not displayed in the schedule.
+     */
+    private fun updateScheduleColumns(sessions: List<Session>) {
+        val scheduleColumns = sessions
+                .filterNot { it.changedIsCanceled }
+                .groupBy { it.day }
+                .flatMap { (dayIndex, sessionsOfDay) ->
+                    sessionsTransformer.transformSessions(dayIndex, sessionsOfDay).toScheduleColumnsDatabaseModel()
+                }
+        sessionsDatabaseRepository.updateScheduleColumns(scheduleColumns)
+    }
+
     /**
      * Returns a unique session alarm notification ID for the given [session ID][sessionId].
      */
@@ -429,12 +560,109 @@ object AppRepository {
     }
 
     fun readMeta() =
-            metaDatabaseRepository.query().toMetaAppModel()
+            readScheduleSnapshot()?.readMeta() ?: metaDatabaseRepository.query().toMetaAppModel()
+
+    /**
+     * Returns the schedule snapshot as long as it matches the database. The file is
+     * mapped on first access. The snapshot is discarded once the database is written.
+     */
+    private fun readScheduleSnapshot() = synchronized(scheduleSnapshotLock) {
+        if (!isScheduleSnapshotOpened) {
+            scheduleSnapshot = ScheduleSnapshot.open(scheduleSnapshotFile)
+            isScheduleSnapshotOpened = true
+        }
+        scheduleSnapshot
+    }
+
+    /**
+     * Runs the given database [write] which affects the sessions or the meta data and writes
+     * a new schedule snapshot in the background afterwards. The snapshot file is deleted before
+     * the database is written so that a snapshot never outlives the data it has been written
+     * from, not even if the process dies before the new one is written.
+     * Use [updateScheduleSnapshotFlags] if only the highlights or alarms change.
+     */
+    private inline fun <T> updateScheduleSnapshot(write: () -> T): T {
+        val generation = invalidateScheduleSnapshot(isFlagsChange = false)
+        return write().also { launchScheduleSnapshotUpdate(generation) }
+    }
+
+    /**
+     * Runs the given database [write] which affects the highlights or alarms and updates the
+     * flags stored in the schedule snapshot in the background afterwards. The file is moved
+     * aside before the database is written and moved back once its flags have been patched.
+     */
+    private inline fun <T> updateScheduleSnapshotFlags(write: () -> T): T {
+        val generation = invalidateScheduleSnapshot(isFlagsChange = true)
+        return write().also { launchScheduleSnapshotUpdate(generation) }
+    }
+
+    /**
+     * Makes the following reads bypass the schedule snapshot until the next start and removes
+     * the snapshot file from where it is opened. Both are cheap file system operations which
+     * are safe to run on the UI thread. Returns the new snapshot generation.
+     */
+    private fun invalidateScheduleSnapshot(isFlagsChange: Boolean) = synchronized(scheduleSnapshotLock) {
+        scheduleSnapshot = null
+        isScheduleSnapshotOpened = true
+        if (isFlagsChange && !isScheduleSnapshotRewritePending) {
+            if (scheduleSnapshotFile.isFile && !scheduleSnapshotFile.renameTo(staleScheduleSnapshotFile)) {
+                scheduleSnapshotFile.delete()
+            }
+        } else {
+            isScheduleSnapshotRewritePending = true
+            scheduleSnapshotFile.delete()
+            staleScheduleSnapshotFile.delete()
+        }
+        ++scheduleSnapshotGeneration
+    }
+
+    /**
+     * Writes a new schedule snapshot or patches the flags of the one moved aside by
+     * [invalidateScheduleSnapshot]. Jobs in quick succession are coalesced: a job is skipped
+     * if another invalidation happened in the meantime. The file is only moved back into
+     * place if no invalidation happened while the database was read.
+     */
+    private fun launchScheduleSnapshotUpdate(generation: Int) {
+        networkScope.launchNamed("updateScheduleSnapshot") {
+            networkScope.withDatabaseContext {
+                scheduleSnapshotMutex.withLock {
+                    val isRewrite = synchronized(scheduleSnapshotLock) {
+                        if (generation != scheduleSnapshotGeneration) {
+                            return@withLock
+                        }
+                        isScheduleSnapshotRewritePending
+                    }
+                    val file = if (isRewrite) File("${scheduleSnapshotFile.path}.tmp") else staleScheduleSnapshotFile
+                    try {
+                        if (isRewrite) {
+                            ScheduleSnapshot.write(file, readMeta(), loadSessionsForAllDays(true), sessionsTransformer)
+                        } else if (!ScheduleSnapshot.updateFlags(file, readHighlightSessionIds(), readAlarmSessionIds())) {
+                            return@withLock
+                        }
+                    } catch (e: IOException) {
+                        logging.e(javaClass.simpleName, "Failure writing the schedule snapshot: ${e.message}")
+                        file.delete()
+                        return@withLock
+                    }
+                    synchronized(scheduleSnapshotLock) {
+                        if (generation == scheduleSnapshotGeneration && file.renameTo(scheduleSnapshotFile)) {
+                            isScheduleSnapshotRewritePending = false
+                        } else if (isRewrite) {
+                            file.delete()
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private val staleScheduleSnapshotFile
+        get() = File("${scheduleSnapshotFile.path}.stale")
 
     /**
      * Updates the [Meta] information in the database.
      *
-     * The [Meta.eTag] field should only be written if a network response is received
+     * The [Meta.eTag], [Meta.lastModified] and [Meta.downloadUrl] fields should only be written if a network response is received
      * with a status code of HTTP 200 (OK).
      *
      * See also: [HttpStatus.HTTP_OK]
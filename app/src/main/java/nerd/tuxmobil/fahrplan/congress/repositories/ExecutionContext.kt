@@ -13,4 +13,7 @@ interface ExecutionContext {
     suspend fun <T> withUiContext(block: suspend CoroutineScope.() -> T) =
             withContext(context = ui, block = block)
 
+    suspend fun <T> withDatabaseContext(block: suspend CoroutineScope.() -> T) =
+            withContext(context = database, block = block)
+
 }
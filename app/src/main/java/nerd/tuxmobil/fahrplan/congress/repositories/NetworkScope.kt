@@ -34,4 +34,6 @@ class NetworkScope private constructor(
 
     suspend fun <T> withUiContext(block: suspend CoroutineScope.() -> T) = executionContext.withUiContext(block)
 
+    suspend fun <T> withDatabaseContext(block: suspend CoroutineScope.() -> T) = executionContext.withDatabaseContext(block)
+
 }
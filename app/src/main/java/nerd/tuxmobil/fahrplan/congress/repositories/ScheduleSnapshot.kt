@@ -0,0 +1,412 @@
+package nerd.tuxmobil.fahrplan.congress.repositories
+
+import info.metadude.android.eventfahrplan.commons.temporal.Moment
+import nerd.tuxmobil.fahrplan.congress.dataconverters.toMetaAppModel
+import nerd.tuxmobil.fahrplan.congress.models.DateInfo
+import nerd.tuxmobil.fahrplan.congress.models.Meta
+import nerd.tuxmobil.fahrplan.congress.models.RoomData
+import nerd.tuxmobil.fahrplan.congress.models.ScheduleData
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import org.threeten.bp.ZoneOffset
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import info.metadude.android.eventfahrplan.database.models.Meta as MetaDatabaseModel
+
+/**
+ * Read-only view of the schedule as it has been written by [write]. The file is memory-mapped,
+ * strings are decoded when a session is materialized. It serves the reads on startup so that
+ * the first schedule can be displayed without opening the database.
+ *
+ * Binary layout, all numbers are big-endian:
+ *
+ * - header: magic, [FORMAT_VERSION], file length, the counts and offsets of the sections below,
+ *   string references of the meta fields, the number of days and the earliest session
+ * - strings: `count + 1` offsets into the UTF-8 encoded bytes which follow, each string is stored once
+ * - date infos: day index and date of each day
+ * - days: day index, first column and columns count
+ * - columns: room name, first session and sessions count
+ * - sessions: fixed-width records of [SESSION_RECORD_SIZE] bytes, ordered by column and start time,
+ *   followed by the earliest session if it has been canceled
+ *
+ * All fields of a session are stored so that the sessions read from the snapshot can be
+ * shared or exported like those read from the database. Canceled sessions are left out.
+ */
+internal class ScheduleSnapshot private constructor(
+
+        private val buffer: ByteBuffer
+
+) {
+
+    companion object {
+
+        const val FORMAT_VERSION = 1
+
+        private const val MAGIC = 0x45465353 // "EFSS"
+
+        private const val HEADER_SIZE = 80
+        private const val DATE_INFO_RECORD_SIZE = 8
+        private const val DAY_RECORD_SIZE = 12
+        private const val COLUMN_RECORD_SIZE = 12
+        private const val SESSION_RECORD_SIZE = 104
+
+        private const val NO_TIME_ZONE_OFFSET = Int.MIN_VALUE
+        private const val NO_STRING = -1
+        private const val NO_SESSION = -1
+
+        private const val SESSION_ID_FIELD_OFFSET = 16
+        private const val FLAGS_FIELD_OFFSET = 100
+
+        private const val FLAG_RECORDING_OPT_OUT = 1
+        private const val FLAG_HIGHLIGHT = 1 shl 1
+        private const val FLAG_HAS_ALARM = 1 shl 2
+        private const val FLAG_CHANGED_TITLE = 1 shl 3
+        private const val FLAG_CHANGED_SUBTITLE = 1 shl 4
+        private const val FLAG_CHANGED_ROOM = 1 shl 5
+        private const val FLAG_CHANGED_DAY = 1 shl 6
+        private const val FLAG_CHANGED_TIME = 1 shl 7
+        private const val FLAG_CHANGED_DURATION = 1 shl 8
+        private const val FLAG_CHANGED_SPEAKERS = 1 shl 9
+        private const val FLAG_CHANGED_RECORDING_OPT_OUT = 1 shl 10
+        private const val FLAG_CHANGED_LANGUAGE = 1 shl 11
+        private const val FLAG_CHANGED_TRACK = 1 shl 12
+        private const val FLAG_CHANGED_IS_NEW = 1 shl 13
+
+        /**
+         * Maps the given [file]. Returns `null` if it does not exist, cannot be read
+         * or has been written in another format version.
+         */
+        fun open(file: File): ScheduleSnapshot? {
+            if (!file.isFile) {
+                return null
+            }
+            return try {
+                RandomAccessFile(file, "r").use {
+                    val buffer = it.channel.map(FileChannel.MapMode.READ_ONLY, 0, it.length())
+                    if (isValid(buffer)) ScheduleSnapshot(buffer) else null
+                }
+            } catch (e: IOException) {
+                null
+            }
+        }
+
+        /**
+         * Sets the highlight and alarm flags of the sessions stored in the given [file] in place
+         * so that toggling a single flag does not require to write the whole file again.
+         * Returns `false` if the file does not exist or has been written in another format version.
+         */
+        fun updateFlags(file: File, highlightSessionIds: Set<String>, alarmSessionIds: Set<String>): Boolean {
+            if (!file.isFile) {
+                return false
+            }
+            RandomAccessFile(file, "rw").use {
+                val buffer = it.channel.map(FileChannel.MapMode.READ_WRITE, 0, it.length())
+                if (!isValid(buffer)) {
+                    return false
+                }
+                ScheduleSnapshot(buffer).updateFlags(highlightSessionIds, alarmSessionIds)
+                buffer.force()
+            }
+            return true
+        }
+
+        private fun isValid(buffer: ByteBuffer) = buffer.limit() >= HEADER_SIZE &&
+                buffer.getInt(0) == MAGIC &&
+                buffer.getInt(4) == FORMAT_VERSION &&
+                buffer.getInt(8) == buffer.limit()
+
+        /**
+         * Writes the given [meta] and [sessions] to the given [file]. The rooms of each day are
+         * ordered by the given [sessionsTransformer]. An existing file is overwritten.
+         */
+        fun write(file: File, meta: Meta, sessions: List<Session>, sessionsTransformer: SessionsTransformer) {
+            val dateInfos = sessions.map { it.day to it.date }.distinct()
+            val scheduleDataList = sessions
+                    .filterNot { it.changedIsCanceled }
+                    .groupBy { it.day }
+                    .map { (dayIndex, sessionsOfDay) -> sessionsTransformer.transformSessions(dayIndex, sessionsOfDay) }
+            val earliestSession = sessions.minByOrNull { it.dateUTC }
+            Writer(meta, dateInfos, scheduleDataList, earliestSession).write(file)
+        }
+
+    }
+
+    private val stringsCount = buffer.getInt(12)
+    private val stringsOffset = buffer.getInt(16)
+    private val stringBytesOffset = stringsOffset + (stringsCount + 1) * 4
+    private val dateInfosCount = buffer.getInt(20)
+    private val dateInfosOffset = buffer.getInt(24)
+    private val daysCount = buffer.getInt(28)
+    private val daysOffset = buffer.getInt(32)
+    private val columnsOffset = buffer.getInt(36)
+    private val sessionsOffset = buffer.getInt(40)
+
+    /**
+     * Strings decoded so far. Repeated values such as room names are decoded once.
+     */
+    private val strings = arrayOfNulls<String>(stringsCount)
+
+    fun readMeta() = MetaDatabaseModel(
+            version = getString(buffer.getInt(44)),
+            title = getString(buffer.getInt(48)),
+            subtitle = getString(buffer.getInt(52)),
+            timeZoneName = getString(buffer.getInt(56)).ifEmpty { null },
+            eTag = getString(buffer.getInt(60)),
+            lastModified = getString(buffer.getInt(64)),
+            downloadUrl = getString(buffer.getInt(68)),
+            numDays = buffer.getInt(72)
+    ).toMetaAppModel()
+
+    fun readDateInfos() = List(dateInfosCount) { index ->
+        val offset = dateInfosOffset + index * DATE_INFO_RECORD_SIZE
+        DateInfo(buffer.getInt(offset), Moment.parseDate(getString(buffer.getInt(offset + 4))))
+    }
+
+    /**
+     * Returns the uncanceled sessions of the given [day][dayIndex] grouped by their room
+     * or `null` if the day is not part of the snapshot.
+     */
+    fun readScheduleData(dayIndex: Int): ScheduleData? {
+        for (day in 0 until daysCount) {
+            val dayOffset = daysOffset + day * DAY_RECORD_SIZE
+            if (buffer.getInt(dayOffset) != dayIndex) {
+                continue
+            }
+            val firstColumn = buffer.getInt(dayOffset + 4)
+            val roomDataList = List(buffer.getInt(dayOffset + 8)) { column ->
+                val columnOffset = columnsOffset + (firstColumn + column) * COLUMN_RECORD_SIZE
+                val firstSession = buffer.getInt(columnOffset + 4)
+                RoomData(
+                        roomName = getString(buffer.getInt(columnOffset)),
+                        sessions = List(buffer.getInt(columnOffset + 8)) { readSession(firstSession + it) }
+                )
+            }
+            return ScheduleData(dayIndex, roomDataList)
+        }
+        return null
+    }
+
+    /**
+     * Returns the session which starts first including canceled sessions
+     * or `null` if the snapshot does not contain any session.
+     */
+    fun readEarliestSession(): Session? {
+        val index = buffer.getInt(76)
+        return if (index == NO_SESSION) null else readSession(index)
+    }
+
+    private fun readSession(index: Int): Session {
+        val offset = sessionsOffset + index * SESSION_RECORD_SIZE
+        val flags = buffer.getInt(offset + FLAGS_FIELD_OFFSET)
+        fun isSet(flag: Int) = flags and flag != 0
+        fun stringAt(fieldOffset: Int) = getStringOrNull(buffer.getInt(offset + fieldOffset))
+        return Session(getString(buffer.getInt(offset + SESSION_ID_FIELD_OFFSET))).apply {
+            dateUTC = buffer.getLong(offset)
+            contentHash = buffer.getLong(offset + 8)
+            title = stringAt(20)
+            subtitle = stringAt(24)
+            speakers = stringAt(28)
+            room = stringAt(32)
+            track = stringAt(36)
+            type = stringAt(40)
+            lang = stringAt(44)
+            date = stringAt(48)
+            url = stringAt(52)
+            slug = stringAt(56)
+            abstractt = stringAt(60)
+            description = stringAt(64)
+            links = stringAt(68)
+            recordingLicense = stringAt(72)
+            day = buffer.getInt(offset + 76)
+            startTime = buffer.getInt(offset + 80)
+            relStartTime = buffer.getInt(offset + 84)
+            duration = buffer.getInt(offset + 88)
+            @Suppress("DEPRECATION")
+            roomIndex = buffer.getInt(offset + 92)
+            timeZoneOffset = buffer.getInt(offset + 96).let {
+                if (it == NO_TIME_ZONE_OFFSET) null else ZoneOffset.ofTotalSeconds(it)
+            }
+            recordingOptOut = isSet(FLAG_RECORDING_OPT_OUT)
+            highlight = isSet(FLAG_HIGHLIGHT)
+            hasAlarm = isSet(FLAG_HAS_ALARM)
+            changedTitle = isSet(FLAG_CHANGED_TITLE)
+            changedSubtitle = isSet(FLAG_CHANGED_SUBTITLE)
+            changedRoom = isSet(FLAG_CHANGED_ROOM)
+            changedDay = isSet(FLAG_CHANGED_DAY)
+            changedTime = isSet(FLAG_CHANGED_TIME)
+            changedDuration = isSet(FLAG_CHANGED_DURATION)
+            changedSpeakers = isSet(FLAG_CHANGED_SPEAKERS)
+            changedRecordingOptOut = isSet(FLAG_CHANGED_RECORDING_OPT_OUT)
+            changedLanguage = isSet(FLAG_CHANGED_LANGUAGE)
+            changedTrack = isSet(FLAG_CHANGED_TRACK)
+            changedIsNew = isSet(FLAG_CHANGED_IS_NEW)
+        }
+    }
+
+    private fun updateFlags(highlightSessionIds: Set<String>, alarmSessionIds: Set<String>) {
+        val sessionsCount = (buffer.limit() - sessionsOffset) / SESSION_RECORD_SIZE
+        for (index in 0 until sessionsCount) {
+            val offset = sessionsOffset + index * SESSION_RECORD_SIZE
+            val sessionId = getString(buffer.getInt(offset + SESSION_ID_FIELD_OFFSET))
+            var flags = buffer.getInt(offset + FLAGS_FIELD_OFFSET) and (FLAG_HIGHLIGHT or FLAG_HAS_ALARM).inv()
+            if (sessionId in highlightSessionIds) {
+                flags = flags or FLAG_HIGHLIGHT
+            }
+            if (sessionId in alarmSessionIds) {
+                flags = flags or FLAG_HAS_ALARM
+            }
+            buffer.putInt(offset + FLAGS_FIELD_OFFSET, flags)
+        }
+    }
+
+    private fun getStringOrNull(index: Int) = if (index == NO_STRING) null else getString(index)
+
+    private fun getString(index: Int): String = strings[index] ?: synchronized(strings) {
+        val start = buffer.getInt(stringsOffset + index * 4)
+        val end = buffer.getInt(stringsOffset + (index + 1) * 4)
+        val bytes = ByteArray(end - start)
+        for (i in bytes.indices) {
+            bytes[i] = buffer.get(stringBytesOffset + start + i)
+        }
+        String(bytes, Charsets.UTF_8).also { strings[index] = it }
+    }
+
+    private class Writer(
+            private val meta: Meta,
+            private val dateInfos: List<Pair<Int, String>>,
+            private val scheduleDataList: List<ScheduleData>,
+            private val earliestSession: Session?
+    ) {
+
+        private val stringIndices = LinkedHashMap<String, Int>()
+        private val encodedStrings = mutableListOf<ByteArray>()
+        private var stringBytesCount = 0
+
+        fun write(file: File) {
+            val metaStrings = listOf(
+                    meta.version, meta.title, meta.subtitle, meta.timeZoneId?.id,
+                    meta.eTag, meta.lastModified, meta.downloadUrl
+            ).map { indexOf(it.orEmpty()) }
+            val dateInfoStrings = dateInfos.map { (_, date) -> indexOf(date.orEmpty()) }
+            val roomDataList = scheduleDataList.flatMap { it.roomDataList }
+            val columnStrings = roomDataList.map { indexOf(it.roomName) }
+            val sessions = roomDataList.flatMap { it.sessions }.toMutableList()
+            var earliestSessionIndex = sessions.indexOfFirst { it === earliestSession }
+            if (earliestSession != null && earliestSessionIndex == NO_SESSION) {
+                sessions += earliestSession
+                earliestSessionIndex = sessions.size - 1
+            }
+            val sessionStrings = sessions.map { it.toStringIndices() }
+
+            val stringsOffset = HEADER_SIZE
+            val dateInfosOffset = stringsOffset + (encodedStrings.size + 1) * 4 + stringBytesCount
+            val daysOffset = dateInfosOffset + dateInfos.size * DATE_INFO_RECORD_SIZE
+            val columnsOffset = daysOffset + scheduleDataList.size * DAY_RECORD_SIZE
+            val sessionsOffset = columnsOffset + roomDataList.size * COLUMN_RECORD_SIZE
+            val length = sessionsOffset + sessions.size * SESSION_RECORD_SIZE
+
+            val buffer = ByteBuffer.allocate(length)
+            buffer.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(length)
+                    .putInt(encodedStrings.size)
+                    .putInt(stringsOffset)
+                    .putInt(dateInfos.size)
+                    .putInt(dateInfosOffset)
+                    .putInt(scheduleDataList.size)
+                    .putInt(daysOffset)
+                    .putInt(columnsOffset)
+                    .putInt(sessionsOffset)
+            metaStrings.forEach { buffer.putInt(it) }
+            buffer.putInt(meta.numDays)
+            buffer.putInt(earliestSessionIndex)
+
+            var stringOffset = 0
+            encodedStrings.forEach {
+                buffer.putInt(stringOffset)
+                stringOffset += it.size
+            }
+            buffer.putInt(stringOffset)
+            encodedStrings.forEach { buffer.put(it) }
+
+            dateInfos.forEachIndexed { index, (dayIndex, _) ->
+                buffer.putInt(dayIndex).putInt(dateInfoStrings[index])
+            }
+            var firstColumn = 0
+            scheduleDataList.forEach {
+                buffer.putInt(it.dayIndex).putInt(firstColumn).putInt(it.roomCount)
+                firstColumn += it.roomCount
+            }
+            var firstSession = 0
+            roomDataList.forEachIndexed { index, roomData ->
+                buffer.putInt(columnStrings[index]).putInt(firstSession).putInt(roomData.sessions.size)
+                firstSession += roomData.sessions.size
+            }
+            sessions.forEachIndexed { index, session -> buffer.putSession(session, sessionStrings[index]) }
+
+            buffer.flip()
+            RandomAccessFile(file, "rw").use {
+                it.setLength(0)
+                it.channel.write(buffer)
+                it.fd.sync()
+            }
+        }
+
+        private fun Session.toStringIndices() = intArrayOf(
+                indexOf(sessionId), indexOf(title), indexOf(subtitle), indexOf(speakers),
+                indexOf(room), indexOf(track), indexOf(type), indexOf(lang), indexOf(date),
+                indexOf(url), indexOf(slug), indexOf(abstractt), indexOf(description),
+                indexOf(links), indexOf(recordingLicense)
+        )
+
+        private fun ByteBuffer.putSession(session: Session, stringIndices: IntArray) {
+            putLong(session.dateUTC)
+            putLong(session.contentHash)
+            stringIndices.forEach { putInt(it) }
+            putInt(session.day)
+            putInt(session.startTime)
+            putInt(session.relStartTime)
+            putInt(session.duration)
+            @Suppress("DEPRECATION")
+            putInt(session.roomIndex)
+            putInt(session.timeZoneOffset?.totalSeconds ?: NO_TIME_ZONE_OFFSET)
+            putInt(session.toFlags())
+        }
+
+        private fun Session.toFlags(): Int {
+            var flags = 0
+            fun set(flag: Int, isSet: Boolean) {
+                if (isSet) flags = flags or flag
+            }
+            set(FLAG_RECORDING_OPT_OUT, recordingOptOut)
+            set(FLAG_HIGHLIGHT, highlight)
+            set(FLAG_HAS_ALARM, hasAlarm)
+            set(FLAG_CHANGED_TITLE, changedTitle)
+            set(FLAG_CHANGED_SUBTITLE, changedSubtitle)
+            set(FLAG_CHANGED_ROOM, changedRoom)
+            set(FLAG_CHANGED_DAY, changedDay)
+            set(FLAG_CHANGED_TIME, changedTime)
+            set(FLAG_CHANGED_DURATION, changedDuration)
+            set(FLAG_CHANGED_SPEAKERS, changedSpeakers)
+            set(FLAG_CHANGED_RECORDING_OPT_OUT, changedRecordingOptOut)
+            set(FLAG_CHANGED_LANGUAGE, changedLanguage)
+            set(FLAG_CHANGED_TRACK, changedTrack)
+            set(FLAG_CHANGED_IS_NEW, changedIsNew)
+            return flags
+        }
+
+        private fun indexOf(value: String?): Int {
+            val string = value ?: return NO_STRING
+            return stringIndices.getOrPut(string) {
+                val bytes = string.toByteArray(Charsets.UTF_8)
+                encodedStrings += bytes
+                stringBytesCount += bytes.size
+                encodedStrings.size - 1
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+package nerd.tuxmobil.fahrplan.congress.repositories
+
+import nerd.tuxmobil.fahrplan.congress.models.Session
+
+/**
+ * Process-wide cache of the sessions read from the database. Entries are keyed by the day index,
+ * see [AppRepository.loadSessionsForDayIndex]. The cache holds at most [maxSessionsCount] sessions.
+ * The least recently used entries are evicted first.
+ *
+ * Callers receive copies of the cached sessions because the user interface modifies them.
+ * Highlight and alarm changes are applied to the cached sessions in place. All entries must be
+ * [invalidated][invalidate] once new sessions have been committed to the database.
+ *
+ * All functions are thread-safe.
+ */
+internal class SessionsCache(
+
+        private val maxSessionsCount: Int = DEFAULT_MAX_SESSIONS_COUNT
+
+) {
+
+    companion object {
+        const val DEFAULT_MAX_SESSIONS_COUNT = 25_000
+    }
+
+    private val sessionsByDayIndex = LinkedHashMap<Int, List<Session>>(8, 0.75f, /* accessOrder */ true)
+    private var sessionsCount = 0
+
+    /**
+     * Incremented by each [invalidate] and each highlight or alarm change so that sessions
+     * whose loading overlapped one of them are not cached with outdated data or flags.
+     */
+    private var generation = 0
+
+    /**
+     * Returns copies of the sessions cached for the given [dayIndex]. If they are not cached yet
+     * then they are obtained from [load] which is invoked without holding the lock.
+     */
+    fun getOrLoad(dayIndex: Int, load: () -> List<Session>): List<Session> {
+        val loadingGeneration = synchronized(this) {
+            sessionsByDayIndex[dayIndex]?.let { return it.copySessions() }
+            generation
+        }
+        val sessions = load()
+        synchronized(this) {
+            if (loadingGeneration == generation) {
+                put(dayIndex, sessions.copySessions())
+            }
+        }
+        return sessions
+    }
+
+    /**
+     * Returns copies of the sessions cached for the given [dayIndex] or `null` if they are not cached.
+     */
+    @Synchronized
+    fun get(dayIndex: Int) = sessionsByDayIndex[dayIndex]?.copySessions()
+
+    /**
+     * Returns a copy of the cached session with the given [sessionId] or `null` if it is not cached.
+     */
+    @Synchronized
+    fun findSession(sessionId: String): Session? {
+        for (sessions in sessionsByDayIndex.values) {
+            sessions.firstOrNull { it.sessionId == sessionId }?.let { return Session(it) }
+        }
+        return null
+    }
+
+    @Synchronized
+    fun updateHighlight(sessionId: String, isHighlight: Boolean) = forEachSession(sessionId) {
+        it.highlight = isHighlight
+    }
+
+    @Synchronized
+    fun resetHighlights() = forEachSession {
+        it.highlight = false
+    }
+
+    @Synchronized
+    fun updateAlarm(sessionId: String, hasAlarm: Boolean) = forEachSession(sessionId) {
+        it.hasAlarm = hasAlarm
+    }
+
+    /**
+     * Marks exactly the sessions identified by the given [alarmSessionIds] as having an alarm.
+     */
+    @Synchronized
+    fun updateAlarms(alarmSessionIds: Set<String>) = forEachSession {
+        it.hasAlarm = it.sessionId in alarmSessionIds
+    }
+
+    @Synchronized
+    fun invalidate() {
+        generation++
+        sessionsByDayIndex.clear()
+        sessionsCount = 0
+    }
+
+    private fun put(dayIndex: Int, sessions: List<Session>) {
+        sessionsByDayIndex.put(dayIndex, sessions)?.let { sessionsCount -= it.size }
+        sessionsCount += sessions.size
+        val iterator = sessionsByDayIndex.values.iterator()
+        while (sessionsCount > maxSessionsCount && iterator.hasNext()) {
+            sessionsCount -= iterator.next().size
+            iterator.remove()
+        }
+    }
+
+    private inline fun forEachSession(sessionId: String? = null, update: (Session) -> Unit) {
+        generation++
+        for (sessions in sessionsByDayIndex.values) {
+            for (session in sessions) {
+                if (sessionId == null || session.sessionId == sessionId) {
+                    update(session)
+                }
+            }
+        }
+    }
+
+    private fun List<Session>.copySessions() = map { Session(it) }
+
+}
@@ -0,0 +1,52 @@
+package nerd.tuxmobil.fahrplan.congress.repositories
+
+import info.metadude.android.eventfahrplan.database.models.Session as SessionDatabaseModel
+
+/**
+ * The rows of the sessions table which differ between the stored and a refreshed schedule.
+ * Applying the delta instead of rewriting all rows keeps the number of database writes
+ * proportional to the number of changed sessions.
+ */
+internal data class SessionsDelta(
+
+        val toBeUpdatedSessions: List<SessionDatabaseModel>,
+        val toBeDeletedSessionIds: List<String>
+
+) {
+
+    companion object {
+
+        /**
+         * Returns the delta which turns the [oldSessions] into the [newSessions].
+         * Sessions are matched by their session ID. The last one wins if the ID is duplicated.
+         * Highlights and alarms are ignored because they are stored in separate tables.
+         */
+        fun compute(
+
+                newSessions: List<SessionDatabaseModel>,
+                oldSessions: List<SessionDatabaseModel>
+
+        ): SessionsDelta {
+            val oldSessionsById = HashMap<String, SessionDatabaseModel>(oldSessions.size * 2)
+            oldSessions.forEach { oldSessionsById[it.sessionId] = it.withoutUserData() }
+            val newSessionsById = LinkedHashMap<String, SessionDatabaseModel>(newSessions.size * 2)
+            newSessions.forEach { newSessionsById[it.sessionId] = it }
+            val toBeUpdatedSessions = newSessionsById.values.filter {
+                oldSessionsById[it.sessionId] != it.withoutUserData()
+            }
+            val toBeDeletedSessionIds = oldSessionsById.keys.filterNot { it in newSessionsById }
+            return SessionsDelta(toBeUpdatedSessions, toBeDeletedSessionIds)
+        }
+
+        private fun SessionDatabaseModel.withoutUserData() = if (hasAlarm || isHighlight) {
+            copy(hasAlarm = false, isHighlight = false)
+        } else {
+            this
+        }
+
+    }
+
+    val isEmpty
+        get() = toBeUpdatedSessions.isEmpty() && toBeDeletedSessionIds.isEmpty()
+
+}
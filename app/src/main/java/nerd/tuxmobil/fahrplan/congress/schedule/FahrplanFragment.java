@@ -20,7 +20,6 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.HorizontalScrollView;
-import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.LinearLayout.LayoutParams;
 import android.widget.TextView;
@@ -36,15 +35,11 @@ import androidx.core.widget.NestedScrollView;
 import androidx.core.widget.NestedScrollView.OnScrollChangeListener;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentContainerView;
-import androidx.recyclerview.widget.LinearLayoutManager;
-import androidx.recyclerview.widget.RecyclerView;
 
 import org.ligi.tracedroid.logging.Log;
 import org.threeten.bp.ZoneId;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import info.metadude.android.eventfahrplan.commons.logging.Logging;
@@ -57,7 +52,6 @@ import nerd.tuxmobil.fahrplan.congress.alarms.AlarmTimePickerFragment;
 import nerd.tuxmobil.fahrplan.congress.calendar.CalendarSharing;
 import nerd.tuxmobil.fahrplan.congress.contract.BundleKeys;
 import nerd.tuxmobil.fahrplan.congress.extensions.Contexts;
-import nerd.tuxmobil.fahrplan.congress.models.RoomData;
 import nerd.tuxmobil.fahrplan.congress.models.ScheduleData;
 import nerd.tuxmobil.fahrplan.congress.models.Session;
 import nerd.tuxmobil.fahrplan.congress.net.ParseResult;
@@ -65,7 +59,6 @@ import nerd.tuxmobil.fahrplan.congress.net.ParseScheduleResult;
 import nerd.tuxmobil.fahrplan.congress.net.ParseShiftsResult;
 import nerd.tuxmobil.fahrplan.congress.repositories.AppRepository;
 import nerd.tuxmobil.fahrplan.congress.repositories.OnSessionsChangeListener;
-import nerd.tuxmobil.fahrplan.congress.repositories.SessionsTransformer;
 import nerd.tuxmobil.fahrplan.congress.sharing.JsonSessionFormat;
 import nerd.tuxmobil.fahrplan.congress.sharing.SessionSharer;
 import nerd.tuxmobil.fahrplan.congress.sharing.SimpleSessionFormat;
@@ -103,9 +96,6 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
 
     private int mDay = 1;
 
-    private static final SessionsTransformer sessionsTransformer =
-            SessionsTransformer.createSessionsTransformer();
-
     private Typeface light;
 
     private View contextMenuView;
@@ -116,9 +106,14 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
 
     private Session lastSelectedSession;
 
-    private SessionViewDrawer sessionViewDrawer;
+    private SessionGridAdapter sessionGridAdapter;
 
-    private final Map<Integer, SessionViewColumnAdapter> adapterByRoomIndex = new HashMap<>();
+    private SessionBoxRenderer sessionBoxRenderer;
+
+    /**
+     * The schedule data the session grid was built from.
+     */
+    private ScheduleData sessionGridScheduleData;
 
     private ScrollAmountCalculator scrollAmountCalculator;
 
@@ -156,7 +151,9 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
         setHasOptionsMenu(true);
         Context context = requireContext();
         light = TypefaceFactory.getNewInstance(context).getRobotoLight();
-        sessionViewDrawer = new SessionViewDrawer(context, this::getSessionPadding);
+        SessionViewDrawer sessionViewDrawer = new SessionViewDrawer(context, this::getSessionPadding);
+        sessionGridAdapter = new SessionGridAdapter(sessionViewDrawer, this);
+        sessionBoxRenderer = new SessionBoxRenderer(context, sessionViewDrawer, this::getSessionPadding);
     }
 
     @Nullable
@@ -165,6 +162,7 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
                              @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
         View layoutRootView = inflater.inflate(R.layout.schedule, container, false);
+        sessionGridScheduleData = null;
         NestedScrollView verticalScrollView = requireViewByIdCompat(layoutRootView, R.id.verticalScrollView);
         verticalScrollView.setOnScrollChangeListener((OnScrollChangeListener)
                 (view, scrollX, scrollY, oldScrollX, oldScrollY) -> preserveVerticalScrollPosition = true);
@@ -299,7 +297,7 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
         LinearLayout roomTitlesRowLayout = (LinearLayout) roomScroller.getChildAt(0);
         int columnWidth = horizontalScroller.getColumnWidth();
         addRoomTitleViews(roomTitlesRowLayout, columnWidth, scheduleData.getRoomNames());
-        addRoomColumns(horizontalScroller, columnWidth, scheduleData, forceReload);
+        updateSessionGrid(horizontalScroller, columnWidth, scheduleData, forceReload);
 
         MainActivity.getInstance().shouldScheduleScrollToCurrentTimeSlot(() -> {
             if (!preserveVerticalScrollPosition) {
@@ -322,61 +320,36 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
     }
 
     /**
-     * Adds {@code roomCount} room column views as child views to the first child
-     * (which is a row layout) of the given {@code horizontalScroller} layout.
-     * Previously added child views are removed.
+     * Displays the sessions of the given {@code scheduleData} in the session grid of the given
+     * {@code horizontalScroller}. Only the sessions scrolled into view are drawn respectively
+     * backed by views.
      */
-    private void addRoomColumns(
+    private void updateSessionGrid(
             @NonNull HorizontalSnapScrollView horizontalScroller,
             int columnWidth,
             @NonNull ScheduleData scheduleData,
             boolean forceReload
     ) {
-        int columnIndexLeft = horizontalScroller.getColumnIndex();
-        int columnIndexRight = horizontalScroller.getLastVisibleColumnIndex();
-
-        // whenever possible, just update recycler views
-        if (!forceReload && !adapterByRoomIndex.isEmpty()) {
-            for (int roomIndex = columnIndexLeft; roomIndex <= columnIndexRight; roomIndex++) {
-                //noinspection ConstantConditions
-                try {
-                    adapterByRoomIndex.get(roomIndex).notifyDataSetChanged();
-                } catch (NullPointerException e) {
-                    // TODO Analyzing https://github.com/EventFahrplan/EventFahrplan/issues/402
-                    Log.e(LOG_TAG, "adapterByRoomIndex keys = " + adapterByRoomIndex.keySet());
-                    throw e;
-                }
-            }
+        SessionGridLayout sessionGridLayout = (SessionGridLayout) horizontalScroller.getChildAt(0);
+
+        // whenever possible, just redraw the visible sessions
+        if (!forceReload && sessionGridScheduleData == scheduleData) {
+            sessionGridLayout.notifySessionsChanged();
             return;
         }
 
-        LinearLayout columnsLayout = (LinearLayout) horizontalScroller.getChildAt(0);
-        columnsLayout.removeAllViews();
-        adapterByRoomIndex.clear();
-
         int boxHeight = getNormalizedBoxHeight(displayDensityScale);
         LayoutCalculator layoutCalculator = new LayoutCalculator(boxHeight);
-
-        Context context = horizontalScroller.getContext();
-        List<RoomData> roomDataList = scheduleData.getRoomDataList();
-        for (int roomIndex = 0; roomIndex < roomDataList.size(); roomIndex++) {
-            RoomData roomData = roomDataList.get(roomIndex);
-
-            Map<Session, LayoutParams> layoutParamsBySession = layoutCalculator.calculateLayoutParams(roomData, conference);
-
-            RecyclerView columnRecyclerView = new RecyclerView(context);
-            columnRecyclerView.setHasFixedSize(true);
-            columnRecyclerView.setFadingEdgeLength(0);
-            columnRecyclerView.setNestedScrollingEnabled(false); // enables flinging
-            columnRecyclerView.setLayoutManager(new LinearLayoutManager(context));
-            columnRecyclerView.setLayoutParams(new RecyclerView.LayoutParams(columnWidth, ViewGroup.LayoutParams.WRAP_CONTENT));
-            List<Session> roomSessions = roomData.getSessions();
-            SessionViewColumnAdapter adapter = new SessionViewColumnAdapter(roomSessions, layoutParamsBySession, sessionViewDrawer, this);
-            columnRecyclerView.setAdapter(adapter);
-            adapterByRoomIndex.put(roomIndex, adapter);
-
-            columnsLayout.addView(columnRecyclerView);
+        SessionGrid sessionGrid = conference == null
+                ? SessionGrid.EMPTY
+                : SessionGrid.of(scheduleData.getRoomDataList(), layoutCalculator, conference);
+        sessionGridLayout.setColumnWidth(columnWidth);
+        if (BuildConfig.ENABLE_CANVAS_SCHEDULE_RENDERER) {
+            sessionGridLayout.setSessions(sessionGrid, sessionBoxRenderer, this);
+        } else {
+            sessionGridLayout.setSessions(sessionGrid, sessionGridAdapter);
         }
+        sessionGridScheduleData = scheduleData;
     }
 
     /**
@@ -440,27 +413,6 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
         verticalScrollView.post(() -> verticalScrollView.scrollTo(0, pos));
     }
 
-    private void setBell(Session session) {
-        NestedScrollView verticalScrollView = requireView().findViewById(R.id.verticalScrollView);
-        if (verticalScrollView == null) {
-            return;
-        }
-        View v = verticalScrollView.findViewWithTag(session);
-        if (v == null) {
-            return;
-        }
-        ImageView bell = v.findViewById(R.id.session_bell_view);
-        if (bell == null) {
-            return;
-        }
-
-        if (session.hasAlarm) {
-            bell.setVisibility(View.VISIBLE);
-        } else {
-            bell.setVisibility(View.GONE);
-        }
-    }
-
     private void scrollTo(@NonNull Session session) {
         int height = getNormalizedBoxHeight(displayDensityScale);
         int pos = scrollAmountCalculator.calculateScrollAmount(conference, session, height);
@@ -528,8 +480,7 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
             return;
         }
 
-        List<Session> sessions = appRepository.loadUncanceledSessionsForDayIndex(day);
-        scheduleData = sessionsTransformer.transformSessions(day, sessions);
+        scheduleData = appRepository.loadScheduleData(day);
         scrollAmountCalculator = new ScrollAmountCalculator(Logging.get());
     }
 
@@ -707,7 +658,7 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
             throw new NullPointerException("Session is null.");
         }
         FahrplanMisc.addAlarm(requireContext(), appRepository, lastSelectedSession, alarmTimesIndex);
-        setBell(lastSelectedSession);
+        refreshViews();
         updateMenuItems();
     }
 
@@ -724,8 +675,7 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
             case CONTEXT_MENU_ITEM_ID_FAVORITES:
                 session.highlight = !session.highlight;
                 appRepository.updateHighlight(session);
-                sessionViewDrawer.setSessionBackground(session, contextMenuView);
-                SessionViewDrawer.setSessionTextColor(session, contextMenuView);
+                refreshViews();
                 ((MainActivity) context).refreshFavoriteList();
                 updateMenuItems();
                 break;
@@ -734,7 +684,7 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
                 break;
             case CONTEXT_MENU_ITEM_ID_DELETE_ALARM:
                 FahrplanMisc.deleteAlarm(context, appRepository, session);
-                setBell(session);
+                refreshViews();
                 updateMenuItems();
                 break;
             case CONTEXT_MENU_ITEM_ID_ADD_TO_CALENDAR:
@@ -795,25 +745,14 @@ public class FahrplanFragment extends Fragment implements SessionViewEventsHandl
         }
     }
 
-    private View getSessionView(Session session) {
-        NestedScrollView verticalScrollView = requireView().findViewById(R.id.verticalScrollView);
-        if (verticalScrollView == null) {
-            return null;
-        }
-        return verticalScrollView.findViewWithTag(session);
-    }
-
     private void refreshViews() {
-        if (scheduleData == null) {
+        View layoutRootView = getView();
+        if (layoutRootView == null) {
             return;
         }
-        for (Session session : scheduleData.getAllSessions()) {
-            setBell(session);
-            View v = getSessionView(session);
-            if (v != null) {
-                sessionViewDrawer.setSessionBackground(session, v);
-                SessionViewDrawer.setSessionTextColor(session, v);
-            }
+        SessionGridLayout sessionGridLayout = layoutRootView.findViewById(R.id.sessionGrid);
+        if (sessionGridLayout != null) {
+            sessionGridLayout.notifySessionsChanged();
         }
     }
 
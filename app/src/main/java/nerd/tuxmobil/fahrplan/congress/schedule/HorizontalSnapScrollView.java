@@ -267,14 +267,8 @@ public class HorizontalSnapScrollView extends HorizontalScrollView {
             return;
         }
 
-        ViewGroup container = (ViewGroup) getChildAt(0);
-        int childCount = container.getChildCount();
-        for (int i = 0; i < childCount; i++) {
-            ViewGroup c = (ViewGroup) container.getChildAt(i);
-            ViewGroup.LayoutParams p = c.getLayoutParams();
-            p.width = columnWidth;
-            c.setLayoutParams(p);
-        }
+        SessionGridLayout container = (SessionGridLayout) getChildAt(0);
+        container.setColumnWidth(columnWidth);
         container.measure(MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED),
                 MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
 
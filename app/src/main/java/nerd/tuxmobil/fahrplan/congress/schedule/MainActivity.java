@@ -30,10 +30,12 @@ import androidx.fragment.app.FragmentTransaction;
 
 import org.ligi.tracedroid.logging.Log;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import kotlin.Unit;
 import kotlin.jvm.functions.Function0;
+import kotlin.jvm.functions.Function1;
 import nerd.tuxmobil.fahrplan.congress.MyApp;
 import nerd.tuxmobil.fahrplan.congress.MyApp.TASKS;
 import nerd.tuxmobil.fahrplan.congress.R;
@@ -91,6 +93,16 @@ public class MainActivity extends BaseActivity implements
     private boolean isFavoritesInSidePane = false;
     private static MainActivity instance;
 
+    /**
+     * The instance which receives the results of the schedule loaded by {@link #fetchFahrplan()}.
+     * Loading continues across configuration changes. Results which arrive while no instance
+     * is attached are kept and delivered to the next one.
+     */
+    @Nullable
+    private static MainActivity loadingResultsReceiver;
+    private static final List<Function1<MainActivity, Unit>> pendingLoadingResults = new ArrayList<>();
+    private static boolean isLoadingSchedule = false;
+
     @Override
     public void onAttachedToWindow() {
         super.onAttachedToWindow();
@@ -156,6 +168,8 @@ public class MainActivity extends BaseActivity implements
         Engagements.initUserEngagement(this);
 
         onSessionAlarmNotificationTapped(getIntent());
+
+        attachLoadingResultsReceiver();
     }
 
     @Override
@@ -181,6 +195,7 @@ public class MainActivity extends BaseActivity implements
             hideProgressDialog();
         }
         if (status != HttpStatus.HTTP_OK) {
+            isLoadingSchedule = false;
             showErrorDialog(fetchScheduleResult.getExceptionMessage(), fetchScheduleResult.getHostName(), status);
             progressBar.setVisibility(View.INVISIBLE);
             showUpdateAction = true;
@@ -191,7 +206,7 @@ public class MainActivity extends BaseActivity implements
         showUpdateAction = true;
         invalidateOptionsMenu();
 
-        // Parser is automatically invoked when response has been received.
+        // Parsing and persisting continue in the background. onParseDone is invoked once committed.
         showParsingStatus();
         MyApp.task_running = TASKS.PARSE;
     }
@@ -211,6 +226,7 @@ public class MainActivity extends BaseActivity implements
             MyApp.LogDebug(LOG_TAG, "Parsing Engelsystem shifts done successfully: " + result.isSuccess());
         }
         MyApp.task_running = TASKS.NONE;
+        isLoadingSchedule = false;
 
         if (MyApp.meta.getNumDays() == 0) {
             hideProgressDialog();
@@ -271,32 +287,62 @@ public class MainActivity extends BaseActivity implements
     public void fetchFahrplan() {
         if (MyApp.task_running == TASKS.NONE) {
             MyApp.task_running = TASKS.FETCH;
+            isLoadingSchedule = true;
             showFetchingStatus();
             String url = appRepository.readScheduleUrl();
-            OkHttpClient okHttpClient = CustomHttpClient.createHttpClient();
+            OkHttpClient okHttpClient = CustomHttpClient.getHttpClient();
             appRepository.loadSchedule(url,
                     okHttpClient,
-                    fetchScheduleResult -> {
-                        onGotResponse(fetchScheduleResult);
+                    fetchScheduleResult -> deliverLoadingResult(activity -> {
+                        activity.onGotResponse(fetchScheduleResult);
                         return Unit.INSTANCE;
-                    },
-                    parseScheduleResult -> {
-                        onParseDone(parseScheduleResult);
+                    }),
+                    parseScheduleResult -> deliverLoadingResult(activity -> {
+                        activity.onParseDone(parseScheduleResult);
                         return Unit.INSTANCE;
-                    },
-                    loadShiftsResult -> {
-                        onLoadShiftsDone(loadShiftsResult);
+                    }),
+                    loadShiftsResult -> deliverLoadingResult(activity -> {
+                        activity.onLoadShiftsDone(loadShiftsResult);
                         return Unit.INSTANCE;
-                    });
+                    }));
         } else {
             Log.d(LOG_TAG, "Fetching schedule already in progress.");
         }
     }
 
+    private static Unit deliverLoadingResult(@NonNull Function1<MainActivity, Unit> loadingResult) {
+        if (loadingResultsReceiver == null) {
+            pendingLoadingResults.add(loadingResult);
+        } else {
+            loadingResult.invoke(loadingResultsReceiver);
+        }
+        return Unit.INSTANCE;
+    }
+
+    private void attachLoadingResultsReceiver() {
+        loadingResultsReceiver = this;
+        List<Function1<MainActivity, Unit>> loadingResults = new ArrayList<>(pendingLoadingResults);
+        pendingLoadingResults.clear();
+        for (Function1<MainActivity, Unit> loadingResult : loadingResults) {
+            loadingResult.invoke(this);
+        }
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        appRepository.cancelLoading();
+        if (loadingResultsReceiver == this) {
+            loadingResultsReceiver = null;
+        }
+        if (isFinishing()) {
+            // Loads started by the UpdateService keep running.
+            if (isLoadingSchedule) {
+                appRepository.cancelLoading();
+                isLoadingSchedule = false;
+                MyApp.task_running = TASKS.NONE;
+            }
+            pendingLoadingResults.clear();
+        }
         hideProgressDialog();
     }
 
@@ -0,0 +1,242 @@
+package nerd.tuxmobil.fahrplan.congress.schedule
+
+import android.content.Context
+import android.graphics.Canvas
+import android.graphics.Paint
+import android.graphics.RectF
+import android.graphics.Typeface
+import android.graphics.drawable.Drawable
+import android.os.Build
+import android.text.Layout
+import android.text.StaticLayout
+import android.text.TextPaint
+import android.text.TextUtils
+import android.text.TextUtils.TruncateAt
+import android.util.SparseArray
+import androidx.annotation.ColorInt
+import androidx.core.content.ContextCompat
+import nerd.tuxmobil.fahrplan.congress.R
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import nerd.tuxmobil.fahrplan.congress.utils.Font
+import nerd.tuxmobil.fahrplan.congress.utils.TypefaceFactory
+
+/**
+ * Draws session boxes onto a [Canvas] resembling the views inflated from `session_layout`
+ * and bound by the [SessionViewDrawer].
+ *
+ * The text of each session is measured once into [StaticLayout]s which are cached by the
+ * position of the session in the [SessionGrid]. They are measured again if the column width
+ * or the space next to the icons changes.
+ */
+internal class SessionBoxRenderer(
+
+        private val context: Context,
+        private val drawer: SessionViewDrawer,
+        private val getSessionPadding: () -> Int
+
+) {
+
+    private class SessionTextLayouts(
+            val columnWidth: Int,
+            val titleWidth: Int,
+            val title: StaticLayout,
+            val subtitle: StaticLayout,
+            val speakers: StaticLayout,
+            val track: StaticLayout
+    )
+
+    private val resources = context.resources
+    private val insetTop = resources.getDimensionPixelSize(R.dimen.session_drawable_inset_top)
+    private val insetLeft = resources.getDimensionPixelSize(R.dimen.session_drawable_inset_left)
+    private val insetRight = resources.getDimensionPixelSize(R.dimen.session_drawable_inset_right)
+    private val cornerRadius = resources.getDimension(R.dimen.session_drawable_corner_radius)
+    private val strokeWidth = resources.getDimension(R.dimen.session_drawable_selection_stroke_width)
+    private val iconHeight = resources.getDimensionPixelSize(R.dimen.session_box_icon_height)
+    private val iconMarginLeft = resources.getDimensionPixelSize(R.dimen.session_box_icon_margin_left)
+    private val speakersPaddingRight = resources.getDimensionPixelSize(R.dimen.session_box_speakers_padding_right)
+
+    @ColorInt
+    private val textColor = ContextCompat.getColor(context, R.color.session_title_on_default_background)
+
+    @ColorInt
+    private val highlightTextColor = ContextCompat.getColor(context, R.color.session_title_on_highlight_background)
+
+    private val bellDrawable = ContextCompat.getDrawable(context, R.drawable.bell)!!
+    private val noVideoDrawable = ContextCompat.getDrawable(context, R.drawable.ic_novideo)!!
+
+    private val titlePaint = createTextPaint(R.dimen.session_box_title_text_size,
+            TypefaceFactory.getNewInstance(context).getTypeface(Font.Roboto.BoldCondensed))
+    private val subtitlePaint = createTextPaint(R.dimen.session_box_subtitle_text_size,
+            Typeface.create("sans-serif-light", Typeface.NORMAL))
+    private val speakersPaint = createTextPaint(R.dimen.session_box_footer_text_size,
+            Typeface.create("sans-serif-condensed", Typeface.NORMAL))
+    private val trackPaint = createTextPaint(R.dimen.session_box_footer_text_size,
+            Typeface.create("sans-serif-condensed", Typeface.NORMAL)).apply {
+        color = ContextCompat.getColor(context, R.color.track_name)
+    }
+
+    private val backgroundPaint = Paint(Paint.ANTI_ALIAS_FLAG)
+    private val pressedPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+        color = ContextCompat.getColor(context, R.color.session_drawable_ripple)
+    }
+    private val strokePaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+        color = ContextCompat.getColor(context, R.color.session_drawable_selection_stroke)
+        style = Paint.Style.STROKE
+        strokeWidth = this@SessionBoxRenderer.strokeWidth
+    }
+
+    private val textLayoutsByPosition = SparseArray<SessionTextLayouts>()
+    private val boxRect = RectF()
+    private var isSelectionStrokeEnabled = false
+
+    /**
+     * Drops the measured texts. To be invoked when other sessions are displayed.
+     */
+    fun clearTextLayouts() {
+        textLayoutsByPosition.clear()
+    }
+
+    /**
+     * Reads the settings which apply to all session boxes drawn next.
+     */
+    fun beginDrawing() {
+        isSelectionStrokeEnabled = drawer.isSelectionStrokeEnabled()
+    }
+
+    /**
+     * Draws the box of the given [session] at the given [position] of the [SessionGrid]
+     * into the given bounds.
+     */
+    fun draw(canvas: Canvas, session: Session, position: Int, left: Int, top: Int, width: Int, height: Int, isPressed: Boolean) {
+        boxRect.set((left + insetLeft).toFloat(), (top + insetTop).toFloat(), (left + width - insetRight).toFloat(), (top + height).toFloat())
+        backgroundPaint.color = drawer.getBackgroundColor(session)
+        canvas.drawRoundRect(boxRect, cornerRadius, cornerRadius, backgroundPaint)
+        if (isPressed) {
+            canvas.drawRoundRect(boxRect, cornerRadius, cornerRadius, pressedPaint)
+        }
+        if (session.highlight && isSelectionStrokeEnabled) {
+            val halfStrokeWidth = strokeWidth / 2
+            boxRect.inset(halfStrokeWidth, halfStrokeWidth)
+            canvas.drawRoundRect(boxRect, cornerRadius, cornerRadius, strokePaint)
+        }
+
+        val padding = getSessionPadding()
+        val contentLeft = left + padding
+        val contentTop = top + padding
+        val contentRight = left + width - padding
+        val contentBottom = top + height - padding
+        if (contentRight <= contentLeft || contentBottom <= contentTop) {
+            return
+        }
+        val iconsWidth = getIconsWidth(session)
+        val textLayouts = getTextLayouts(session, position, width, contentRight - contentLeft, iconsWidth)
+
+        val color = if (session.highlight) highlightTextColor else textColor
+        titlePaint.color = color
+        subtitlePaint.color = color
+        speakersPaint.color = color
+
+        val saveCount = canvas.save()
+        canvas.clipRect(contentLeft, contentTop, contentRight, contentBottom)
+
+        val iconBottom = contentTop + textLayouts.title.getLineBaseline(0)
+        var iconRight = contentRight
+        if (session.hasAlarm) {
+            iconRight = drawIcon(canvas, bellDrawable, iconRight, iconBottom)
+        }
+        if (session.recordingOptOut) {
+            drawIcon(canvas, noVideoDrawable, iconRight, iconBottom)
+        }
+
+        drawLayout(canvas, textLayouts.title, contentLeft, contentTop)
+        drawLayout(canvas, textLayouts.subtitle, contentLeft, contentTop + textLayouts.title.height)
+        val footerHeight = maxOf(textLayouts.speakers.height, textLayouts.track.height)
+        val footerTop = contentBottom - footerHeight
+        drawLayout(canvas, textLayouts.speakers, contentLeft, footerTop + footerHeight - textLayouts.speakers.height)
+        drawLayout(canvas, textLayouts.track, contentRight - textLayouts.track.width, footerTop + footerHeight - textLayouts.track.height)
+
+        canvas.restoreToCount(saveCount)
+    }
+
+    /**
+     * Returns the text read by accessibility services for the given [session].
+     */
+    fun getContentDescription(session: Session): String = listOf(
+            session.title,
+            session.subtitle,
+            session.formattedSpeakers,
+            session.getFormattedTrackContentDescription(context)
+    ).filter { !it.isNullOrEmpty() }.joinToString()
+
+    private fun getTextLayouts(session: Session, position: Int, columnWidth: Int, contentWidth: Int, iconsWidth: Int): SessionTextLayouts {
+        val titleWidth = maxOf(0, contentWidth - iconsWidth)
+        val cached = textLayoutsByPosition.get(position)
+        if (cached != null && cached.columnWidth == columnWidth && cached.titleWidth == titleWidth) {
+            return cached
+        }
+        val speakersWidth = maxOf(0, (contentWidth * 0.6f).toInt() - speakersPaddingRight)
+        val trackWidth = (contentWidth * 0.4f).toInt()
+        val textLayouts = SessionTextLayouts(
+                columnWidth = columnWidth,
+                titleWidth = titleWidth,
+                title = createLayout(session.title.orEmpty(), titlePaint, titleWidth),
+                subtitle = createLayout(session.subtitle.orEmpty(), subtitlePaint, contentWidth),
+                speakers = createSingleLineLayout(session.formattedSpeakers, speakersPaint, speakersWidth, TruncateAt.END),
+                track = createSingleLineLayout(session.formattedTrackLanguageText, trackPaint, trackWidth, TruncateAt.START)
+        )
+        textLayoutsByPosition.put(position, textLayouts)
+        return textLayouts
+    }
+
+    private fun getIconsWidth(session: Session): Int {
+        var width = 0
+        if (session.hasAlarm) {
+            width += iconMarginLeft + getIconWidth(bellDrawable)
+        }
+        if (session.recordingOptOut) {
+            width += iconMarginLeft + getIconWidth(noVideoDrawable)
+        }
+        return width
+    }
+
+    private fun getIconWidth(drawable: Drawable) =
+            iconHeight * drawable.intrinsicWidth / maxOf(1, drawable.intrinsicHeight)
+
+    /**
+     * Draws the given [drawable] left of [right] on top of [bottom] and returns its left edge.
+     */
+    private fun drawIcon(canvas: Canvas, drawable: Drawable, right: Int, bottom: Int): Int {
+        val left = right - getIconWidth(drawable)
+        drawable.setBounds(left, bottom - iconHeight, right, bottom)
+        drawable.draw(canvas)
+        return left - iconMarginLeft
+    }
+
+    private fun drawLayout(canvas: Canvas, layout: Layout, left: Int, top: Int) {
+        canvas.save()
+        canvas.translate(left.toFloat(), top.toFloat())
+        layout.draw(canvas)
+        canvas.restore()
+    }
+
+    private fun createTextPaint(textSizeResId: Int, typeface: Typeface) = TextPaint(Paint.ANTI_ALIAS_FLAG).apply {
+        this.textSize = resources.getDimension(textSizeResId)
+        this.typeface = typeface
+    }
+
+    private fun createSingleLineLayout(text: String, paint: TextPaint, width: Int, truncateAt: TruncateAt): StaticLayout {
+        val singleLineText = text.replace('\n', ' ')
+        val ellipsizedText = TextUtils.ellipsize(singleLineText, paint, width.toFloat(), truncateAt)
+        val textWidth = StaticLayout.getDesiredWidth(ellipsizedText, paint).toInt().coerceAtMost(width)
+        return createLayout(ellipsizedText, paint, textWidth)
+    }
+
+    @Suppress("DEPRECATION")
+    private fun createLayout(text: CharSequence, paint: TextPaint, width: Int) =
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+                StaticLayout.Builder.obtain(text, 0, text.length, paint, width).build()
+            } else {
+                StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, true)
+            }
+
+}
@@ -0,0 +1,141 @@
+package nerd.tuxmobil.fahrplan.congress.schedule
+
+import nerd.tuxmobil.fahrplan.congress.models.RoomData
+import nerd.tuxmobil.fahrplan.congress.models.Session
+
+/**
+ * Holds the vertical position and height of every session of a day, one column per room.
+ * The values are derived from the margins calculated by the [LayoutCalculator] as if the
+ * sessions of each room were stacked in a vertical `LinearLayout`.
+ *
+ * Each session is addressed by a position which is unique across all columns.
+ * Within a column the sessions are ordered from top to bottom and do not overlap.
+ */
+internal class SessionGrid private constructor(
+
+        private val sessionsByColumn: List<List<Session>>,
+        private val topsByColumn: List<IntArray>,
+        private val heightsByColumn: List<IntArray>
+
+) {
+
+    companion object {
+
+        @JvmField
+        val EMPTY = SessionGrid(emptyList(), emptyList(), emptyList())
+
+        @JvmStatic
+        fun of(roomDataList: List<RoomData>, layoutCalculator: LayoutCalculator, conference: Conference): SessionGrid {
+            val sessionsByColumn = ArrayList<List<Session>>(roomDataList.size)
+            val topsByColumn = ArrayList<IntArray>(roomDataList.size)
+            val heightsByColumn = ArrayList<IntArray>(roomDataList.size)
+            for (roomData in roomDataList) {
+                val layoutParamsBySession = layoutCalculator.calculateLayoutParams(roomData, conference)
+                val sessions = roomData.sessions
+                val tops = IntArray(sessions.size)
+                val heights = IntArray(sessions.size)
+                var y = 0
+                for (index in sessions.indices) {
+                    val layoutParams = layoutParamsBySession.getValue(sessions[index])
+                    y += layoutParams.topMargin
+                    tops[index] = y
+                    heights[index] = layoutParams.height
+                    y += layoutParams.height + layoutParams.bottomMargin
+                }
+                sessionsByColumn += sessions
+                topsByColumn += tops
+                heightsByColumn += heights
+            }
+            return SessionGrid(sessionsByColumn, topsByColumn, heightsByColumn)
+        }
+
+    }
+
+    private val firstPositionByColumn = IntArray(sessionsByColumn.size).also {
+        var position = 0
+        for (column in sessionsByColumn.indices) {
+            it[column] = position
+            position += sessionsByColumn[column].size
+        }
+    }
+
+    val columnCount: Int
+        get() = sessionsByColumn.size
+
+    /**
+     * The number of sessions of all columns.
+     */
+    val sessionCount: Int = sessionsByColumn.sumOf { it.size }
+
+    /**
+     * The bottom of the lowest session of all columns.
+     */
+    val height: Int = topsByColumn.indices.maxOfOrNull { column ->
+        val tops = topsByColumn[column]
+        if (tops.isEmpty()) 0 else tops.last() + heightsByColumn[column].last()
+    } ?: 0
+
+    fun getSessionCount(column: Int) = sessionsByColumn[column].size
+
+    fun getSession(column: Int, index: Int) = sessionsByColumn[column][index]
+
+    fun getTop(column: Int, index: Int) = topsByColumn[column][index]
+
+    fun getHeight(column: Int, index: Int) = heightsByColumn[column][index]
+
+    /**
+     * Returns the position of the session at the given [index] in the given [column]
+     * which is unique across all columns.
+     */
+    fun getPosition(column: Int, index: Int) = firstPositionByColumn[column] + index
+
+    /**
+     * Returns the column of the session at the given [position].
+     */
+    fun getColumnOfPosition(position: Int): Int {
+        var column = firstPositionByColumn.binarySearch(position)
+        if (column < 0) {
+            column = -column - 2
+        }
+        // Skips empty columns which share their first position with the next column.
+        while (column < columnCount - 1 && firstPositionByColumn[column + 1] == position) {
+            column++
+        }
+        return column
+    }
+
+    /**
+     * Returns the index of the session at the given [position] within its column.
+     */
+    fun getIndexOfPosition(position: Int) = position - firstPositionByColumn[getColumnOfPosition(position)]
+
+    /**
+     * Returns the index of the session in the given [column] which contains the given [y]
+     * coordinate or `-1` if there is none.
+     */
+    fun findIndexAt(column: Int, y: Int): Int {
+        val index = findFirstIndexEndingBelow(column, y)
+        return if (index < getSessionCount(column) && getTop(column, index) <= y) index else -1
+    }
+
+    /**
+     * Returns the index of the first session in the given [column] which ends below the
+     * given [y] coordinate or the session count if there is none.
+     */
+    fun findFirstIndexEndingBelow(column: Int, y: Int): Int {
+        val tops = topsByColumn[column]
+        val heights = heightsByColumn[column]
+        var low = 0
+        var high = tops.size
+        while (low < high) {
+            val middle = (low + high) ushr 1
+            if (tops[middle] + heights[middle] <= y) {
+                low = middle + 1
+            } else {
+                high = middle
+            }
+        }
+        return low
+    }
+
+}
@@ -0,0 +1,30 @@
+package nerd.tuxmobil.fahrplan.congress.schedule
+
+import android.view.LayoutInflater
+import android.view.View
+import android.view.ViewGroup
+import nerd.tuxmobil.fahrplan.congress.R
+import nerd.tuxmobil.fahrplan.congress.models.Session
+
+internal interface SessionViewEventsHandler : View.OnCreateContextMenuListener, View.OnClickListener
+
+/**
+ * Creates and binds the session views displayed by the [SessionGridLayout].
+ */
+internal class SessionGridAdapter(
+        private val drawer: SessionViewDrawer,
+        private val eventsHandler: SessionViewEventsHandler
+) {
+
+    fun createSessionView(parent: ViewGroup): View {
+        val sessionLayout = LayoutInflater.from(parent.context).inflate(R.layout.session_layout, parent, false)
+        sessionLayout.setOnCreateContextMenuListener(eventsHandler)
+        sessionLayout.setOnClickListener(eventsHandler)
+        return sessionLayout
+    }
+
+    fun bindSessionView(sessionView: View, session: Session) {
+        drawer.updateSessionView(sessionView, session)
+    }
+
+}
@@ -0,0 +1,428 @@
+package nerd.tuxmobil.fahrplan.congress.schedule
+
+import android.content.Context
+import android.graphics.Canvas
+import android.graphics.Rect
+import android.os.Bundle
+import android.util.AttributeSet
+import android.util.SparseArray
+import android.view.KeyEvent
+import android.view.MotionEvent
+import android.view.View
+import android.view.ViewGroup
+import android.view.ViewTreeObserver
+import androidx.core.view.ViewCompat
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat
+import androidx.customview.widget.ExploreByTouchHelper
+import nerd.tuxmobil.fahrplan.congress.models.Session
+
+/**
+ * Displays the sessions of a day in a grid of time × room. Each room takes a column of
+ * [columnWidth]. The vertical positions are taken from the [SessionGrid].
+ *
+ * The sessions are either backed by views of a [SessionGridAdapter] or drawn directly onto
+ * the canvas of this layout by a [SessionBoxRenderer].
+ *
+ * Only sessions which intersect the visible area - extended by half a screen in each
+ * direction - are backed by a view respectively drawn. The visible area is determined by
+ * the enclosing scroll views. Views of sessions which are scrolled out are detached and
+ * rebound to sessions scrolled in. Changes of the visible area are observed via the
+ * [ViewTreeObserver].
+ *
+ * When drawn onto the canvas the session which is touched is assigned to the `tag` of
+ * this layout before the click or context menu listeners are invoked. Accessibility services
+ * see each session as a virtual view.
+ */
+internal class SessionGridLayout @JvmOverloads constructor(
+
+        context: Context,
+        attrs: AttributeSet? = null
+
+) : ViewGroup(context, attrs) {
+
+    private companion object {
+        const val NO_POSITION = -1
+    }
+
+    private var sessionGrid = SessionGrid.EMPTY
+    private var adapter: SessionGridAdapter? = null
+    private var renderer: SessionBoxRenderer? = null
+    private var eventsHandler: SessionViewEventsHandler? = null
+    private var columnWidth = 0
+
+    /**
+     * Attached session views by their position in the [SessionGrid].
+     */
+    private val sessionViews = SparseArray<View>()
+    private val recycledSessionViews = ArrayList<View>()
+    private val visibleRect = Rect()
+
+    /**
+     * The area covered by the last [onDraw] call.
+     */
+    private val drawnRect = Rect()
+    private val clipRect = Rect()
+    private var pressedPosition = NO_POSITION
+
+    private val accessibilityHelper = SessionAccessibilityHelper()
+
+    private val onScrollChangedListener = ViewTreeObserver.OnScrollChangedListener {
+        if (renderer == null) {
+            updateSessionViews()
+        } else if (!getLocalVisibleRect(visibleRect) || !drawnRect.contains(visibleRect)) {
+            invalidate()
+        }
+    }
+
+    /**
+     * Sets the width of each room column in pixels.
+     */
+    fun setColumnWidth(columnWidth: Int) {
+        if (this.columnWidth != columnWidth) {
+            this.columnWidth = columnWidth
+            recycleSessionViews()
+            requestLayout()
+            invalidate()
+        }
+    }
+
+    /**
+     * Replaces the displayed sessions. Views are created and bound by the given [adapter].
+     */
+    fun setSessions(sessionGrid: SessionGrid, adapter: SessionGridAdapter) {
+        recycleSessionViews()
+        if (this.adapter !== adapter) {
+            recycledSessionViews.clear()
+        }
+        if (renderer != null) {
+            renderer = null
+            eventsHandler = null
+            setWillNotDraw(true)
+            setOnClickListener(null)
+            setOnCreateContextMenuListener(null)
+            isClickable = false
+            isLongClickable = false
+            ViewCompat.setAccessibilityDelegate(this, null)
+        }
+        this.sessionGrid = sessionGrid
+        this.adapter = adapter
+        requestLayout()
+    }
+
+    /**
+     * Replaces the displayed sessions. They are drawn by the given [renderer].
+     * Clicks and context menu requests are forwarded to the given [eventsHandler].
+     */
+    fun setSessions(sessionGrid: SessionGrid, renderer: SessionBoxRenderer, eventsHandler: SessionViewEventsHandler) {
+        recycleSessionViews()
+        recycledSessionViews.clear()
+        adapter = null
+        renderer.clearTextLayouts()
+        this.sessionGrid = sessionGrid
+        this.renderer = renderer
+        this.eventsHandler = eventsHandler
+        pressedPosition = NO_POSITION
+        drawnRect.setEmpty()
+        setWillNotDraw(false)
+        setOnClickListener(eventsHandler)
+        setOnCreateContextMenuListener(eventsHandler)
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper)
+        accessibilityHelper.invalidateRoot()
+        requestLayout()
+        invalidate()
+    }
+
+    /**
+     * Rebinds the attached session views respectively redraws the sessions, e.g. after an
+     * alarm or highlight changed. Sessions which are scrolled in later are bound then.
+     */
+    fun notifySessionsChanged() {
+        if (renderer != null) {
+            accessibilityHelper.invalidateRoot()
+            invalidate()
+            return
+        }
+        val adapter = adapter ?: return
+        for (index in 0 until sessionViews.size()) {
+            val sessionView = sessionViews.valueAt(index)
+            adapter.bindSessionView(sessionView, sessionView.tag as Session)
+        }
+    }
+
+    override fun onAttachedToWindow() {
+        super.onAttachedToWindow()
+        viewTreeObserver.addOnScrollChangedListener(onScrollChangedListener)
+    }
+
+    override fun onDetachedFromWindow() {
+        viewTreeObserver.removeOnScrollChangedListener(onScrollChangedListener)
+        super.onDetachedFromWindow()
+    }
+
+    override fun onMeasure(widthMeasureSpec: Int, heightMeasureSpec: Int) {
+        val width = resolveSize(sessionGrid.columnCount * columnWidth, widthMeasureSpec)
+        val height = resolveSize(sessionGrid.height, heightMeasureSpec)
+        setMeasuredDimension(width, height)
+    }
+
+    override fun onLayout(changed: Boolean, left: Int, top: Int, right: Int, bottom: Int) {
+        for (index in 0 until sessionViews.size()) {
+            val sessionView = sessionViews.valueAt(index)
+            if (sessionView.isLayoutRequested) {
+                // Rebound while attached, e.g. by notifySessionsChanged.
+                sessionView.measure(
+                        MeasureSpec.makeMeasureSpec(sessionView.width, MeasureSpec.EXACTLY),
+                        MeasureSpec.makeMeasureSpec(sessionView.height, MeasureSpec.EXACTLY))
+                sessionView.layout(sessionView.left, sessionView.top, sessionView.right, sessionView.bottom)
+            }
+        }
+        updateSessionViews()
+    }
+
+    override fun onDraw(canvas: Canvas) {
+        val renderer = renderer ?: return
+        if (columnWidth == 0 || !getLocalVisibleRect(visibleRect)) {
+            drawnRect.setEmpty()
+            return
+        }
+        visibleRect.inset(-visibleRect.width() / 2, -visibleRect.height() / 2)
+        if (!canvas.getClipBounds(clipRect) || !visibleRect.intersect(clipRect)) {
+            drawnRect.setEmpty()
+            return
+        }
+        drawnRect.set(visibleRect)
+
+        renderer.beginDrawing()
+        val firstColumn = maxOf(0, visibleRect.left / columnWidth)
+        val lastColumn = minOf(sessionGrid.columnCount - 1, (visibleRect.right - 1) / columnWidth)
+        for (column in firstColumn..lastColumn) {
+            val sessionCount = sessionGrid.getSessionCount(column)
+            var index = sessionGrid.findFirstIndexEndingBelow(column, visibleRect.top)
+            while (index < sessionCount && sessionGrid.getTop(column, index) < visibleRect.bottom) {
+                val height = sessionGrid.getHeight(column, index)
+                if (height > 0) {
+                    val position = sessionGrid.getPosition(column, index)
+                    renderer.draw(canvas,
+                            sessionGrid.getSession(column, index),
+                            position,
+                            column * columnWidth,
+                            sessionGrid.getTop(column, index),
+                            columnWidth,
+                            height,
+                            isPressed && position == pressedPosition)
+                }
+                index++
+            }
+        }
+    }
+
+    override fun onTouchEvent(event: MotionEvent): Boolean {
+        if (renderer == null) {
+            return super.onTouchEvent(event)
+        }
+        if (event.actionMasked == MotionEvent.ACTION_DOWN) {
+            // The listeners read the touched session from the tag.
+            val position = findPositionAt(event.x.toInt(), event.y.toInt())
+            pressedPosition = position
+            if (position == NO_POSITION) {
+                return false
+            }
+            tag = getSessionOfPosition(position)
+        }
+        return super.onTouchEvent(event)
+    }
+
+    override fun setPressed(pressed: Boolean) {
+        val changed = isPressed != pressed
+        super.setPressed(pressed)
+        if (changed && renderer != null) {
+            invalidate()
+        }
+    }
+
+    override fun dispatchHoverEvent(event: MotionEvent): Boolean {
+        if (renderer != null && accessibilityHelper.dispatchHoverEvent(event)) {
+            return true
+        }
+        return super.dispatchHoverEvent(event)
+    }
+
+    override fun dispatchKeyEvent(event: KeyEvent): Boolean {
+        if (renderer != null && accessibilityHelper.dispatchKeyEvent(event)) {
+            return true
+        }
+        return super.dispatchKeyEvent(event)
+    }
+
+    override fun onFocusChanged(gainFocus: Boolean, direction: Int, previouslyFocusedRect: Rect?) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect)
+        if (renderer != null) {
+            accessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect)
+        }
+    }
+
+    /**
+     * Detaches the views of sessions which left the visible area and attaches views for the
+     * sessions which entered it. Bypasses a layout pass because the positions are known.
+     */
+    private fun updateSessionViews() {
+        val adapter = adapter
+        if (adapter == null || columnWidth == 0 || !getLocalVisibleRect(visibleRect)) {
+            recycleSessionViews()
+            return
+        }
+        visibleRect.inset(-visibleRect.width() / 2, -visibleRect.height() / 2)
+
+        var changed = false
+        for (index in sessionViews.size() - 1 downTo 0) {
+            val sessionView = sessionViews.valueAt(index)
+            if (!visibleRect.intersects(sessionView.left, sessionView.top, sessionView.right, sessionView.bottom)) {
+                removeViewInLayout(sessionView)
+                recycledSessionViews += sessionView
+                sessionViews.removeAt(index)
+                changed = true
+            }
+        }
+
+        val firstColumn = maxOf(0, visibleRect.left / columnWidth)
+        val lastColumn = minOf(sessionGrid.columnCount - 1, (visibleRect.right - 1) / columnWidth)
+        for (column in firstColumn..lastColumn) {
+            val sessionCount = sessionGrid.getSessionCount(column)
+            var index = sessionGrid.findFirstIndexEndingBelow(column, visibleRect.top)
+            while (index < sessionCount && sessionGrid.getTop(column, index) < visibleRect.bottom) {
+                val position = sessionGrid.getPosition(column, index)
+                if (sessionViews.get(position) == null && sessionGrid.getHeight(column, index) > 0) {
+                    sessionViews.put(position, addSessionView(adapter, column, index))
+                    changed = true
+                }
+                index++
+            }
+        }
+        if (changed) {
+            invalidate()
+        }
+    }
+
+    private fun addSessionView(adapter: SessionGridAdapter, column: Int, index: Int): View {
+        // Bound before being attached so that its layout requests do not propagate.
+        val sessionView = if (recycledSessionViews.isEmpty()) {
+            adapter.createSessionView(this)
+        } else {
+            recycledSessionViews.removeAt(recycledSessionViews.size - 1)
+        }
+        adapter.bindSessionView(sessionView, sessionGrid.getSession(column, index))
+        val layoutParams = sessionView.layoutParams ?: generateDefaultLayoutParams()
+        addViewInLayout(sessionView, -1, layoutParams, true)
+
+        val left = column * columnWidth
+        val top = sessionGrid.getTop(column, index)
+        val height = sessionGrid.getHeight(column, index)
+        sessionView.measure(
+                MeasureSpec.makeMeasureSpec(columnWidth, MeasureSpec.EXACTLY),
+                MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY))
+        sessionView.layout(left, top, left + columnWidth, top + height)
+        return sessionView
+    }
+
+    private fun recycleSessionViews() {
+        if (sessionViews.size() == 0) {
+            return
+        }
+        for (index in 0 until sessionViews.size()) {
+            recycledSessionViews += sessionViews.valueAt(index)
+        }
+        sessionViews.clear()
+        removeAllViewsInLayout()
+        invalidate()
+    }
+
+    /**
+     * Returns the position of the session drawn at the given coordinates or [NO_POSITION].
+     */
+    private fun findPositionAt(x: Int, y: Int): Int {
+        if (columnWidth == 0 || x < 0) {
+            return NO_POSITION
+        }
+        val column = x / columnWidth
+        if (column >= sessionGrid.columnCount) {
+            return NO_POSITION
+        }
+        val index = sessionGrid.findIndexAt(column, y)
+        if (index == -1 || sessionGrid.getHeight(column, index) == 0) {
+            return NO_POSITION
+        }
+        return sessionGrid.getPosition(column, index)
+    }
+
+    private fun getSessionOfPosition(position: Int) = sessionGrid.getSession(
+            sessionGrid.getColumnOfPosition(position), sessionGrid.getIndexOfPosition(position))
+
+    override fun generateDefaultLayoutParams() = LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT)
+
+    /**
+     * Exposes the drawn sessions as virtual views. Their ids are the positions in the [SessionGrid].
+     */
+    private inner class SessionAccessibilityHelper : ExploreByTouchHelper(this) {
+
+        private val boundsRect = Rect()
+
+        override fun getVirtualViewAt(x: Float, y: Float): Int {
+            val position = findPositionAt(x.toInt(), y.toInt())
+            return if (position == NO_POSITION) INVALID_ID else position
+        }
+
+        override fun getVisibleVirtualViews(virtualViewIds: MutableList<Int>) {
+            if (renderer == null) {
+                return
+            }
+            for (column in 0 until sessionGrid.columnCount) {
+                for (index in 0 until sessionGrid.getSessionCount(column)) {
+                    if (sessionGrid.getHeight(column, index) > 0) {
+                        virtualViewIds += sessionGrid.getPosition(column, index)
+                    }
+                }
+            }
+        }
+
+        override fun onPopulateNodeForVirtualView(virtualViewId: Int, node: AccessibilityNodeInfoCompat) {
+            val renderer = renderer
+            if (renderer == null || virtualViewId >= sessionGrid.sessionCount) {
+                // Outdated id, e.g. while the sessions are replaced.
+                node.contentDescription = ""
+                boundsRect.setEmpty()
+                node.setBoundsInParent(boundsRect)
+                return
+            }
+            val column = sessionGrid.getColumnOfPosition(virtualViewId)
+            val index = sessionGrid.getIndexOfPosition(virtualViewId)
+            val left = column * columnWidth
+            val top = sessionGrid.getTop(column, index)
+            boundsRect.set(left, top, left + columnWidth, top + sessionGrid.getHeight(column, index))
+            node.contentDescription = renderer.getContentDescription(sessionGrid.getSession(column, index))
+            node.setBoundsInParent(boundsRect)
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK)
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_LONG_CLICK)
+        }
+
+        override fun onPerformActionForVirtualView(virtualViewId: Int, action: Int, arguments: Bundle?): Boolean {
+            val eventsHandler = eventsHandler
+            if (eventsHandler == null || virtualViewId >= sessionGrid.sessionCount) {
+                return false
+            }
+            return when (action) {
+                AccessibilityNodeInfoCompat.ACTION_CLICK -> {
+                    tag = getSessionOfPosition(virtualViewId)
+                    eventsHandler.onClick(this@SessionGridLayout)
+                    true
+                }
+                AccessibilityNodeInfoCompat.ACTION_LONG_CLICK -> {
+                    tag = getSessionOfPosition(virtualViewId)
+                    showContextMenu()
+                }
+                else -> false
+            }
+        }
+
+    }
+
+}
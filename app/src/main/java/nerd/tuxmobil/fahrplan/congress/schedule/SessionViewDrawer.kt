@@ -1,11 +1,11 @@
 package nerd.tuxmobil.fahrplan.congress.schedule
 
 import android.content.Context
+import android.util.SparseArray
 import android.view.View
 import android.widget.ImageView
 import android.widget.TextView
 import androidx.annotation.ColorInt
-import androidx.annotation.ColorRes
 import androidx.core.content.ContextCompat
 import androidx.core.view.ViewCompat
 import androidx.core.view.isVisible
@@ -36,8 +36,25 @@ internal class SessionViewDrawer @JvmOverloads constructor(
     private val sessionDrawableStrokeWidth = resources.getDimensionPixelSize(R.dimen.session_drawable_selection_stroke_width)
     private val sessionDrawableStrokeColor = ContextCompat.getColor(context, R.color.session_drawable_selection_stroke)
     private val sessionDrawableRippleColor = ContextCompat.getColor(context, R.color.session_drawable_ripple)
-    private val trackNameBackgroundColorDefaultPairs = TrackBackgrounds.getTrackNameBackgroundColorDefaultPairs(context)
-    private val trackNameBackgroundColorHighlightPairs = TrackBackgrounds.getTrackNameBackgroundColorHighlightPairs(context)
+    private val defaultBackgroundColor = ContextCompat.getColor(context, R.color.track_background_default)
+    private val highlightBackgroundColor = ContextCompat.getColor(context, R.color.track_background_highlight)
+    private val defaultTextColor = ContextCompat.getColor(context, R.color.session_title_on_default_background)
+    private val highlightTextColor = ContextCompat.getColor(context, R.color.session_title_on_highlight_background)
+
+    /**
+     * Background colors by track name, resolved once from the track resources so that binding
+     * a session only costs a map lookup.
+     */
+    private val backgroundColorsByTrack = resolveColors(context, TrackBackgrounds.getTrackNameBackgroundColorDefaultPairs(context))
+    private val highlightBackgroundColorsByTrack = resolveColors(context, TrackBackgrounds.getTrackNameBackgroundColorHighlightPairs(context))
+
+    /**
+     * Session drawables by background color, without respectively with the selection stroke.
+     * Each session view gets its own drawable created from the constant state of one of these
+     * prototypes and keeps it as long as the color and stroke do not change.
+     */
+    private val sessionDrawablePrototypes = SparseArray<SessionDrawable>()
+    private val strokedSessionDrawablePrototypes = SparseArray<SessionDrawable>()
 
     fun updateSessionView(sessionView: View, session: Session) {
         val bell = sessionView.requireViewByIdCompat<ImageView>(R.id.session_bell_view)
@@ -62,15 +79,53 @@ internal class SessionViewDrawer @JvmOverloads constructor(
     }
 
     fun setSessionBackground(session: Session, sessionView: View) {
-        val context = sessionView.context
-        val sessionIsFavored = session.highlight
-        @ColorRes val backgroundColorResId = if (sessionIsFavored) {
-            trackNameBackgroundColorHighlightPairs[session.track] ?: R.color.track_background_highlight
-        } else {
-            trackNameBackgroundColorDefaultPairs[session.track] ?: R.color.track_background_default
+        val isStroked = session.highlight && isAlternativeHighlightingEnabled()
+        @ColorInt val backgroundColor = getBackgroundColor(session)
+        val prototypes = if (isStroked) strokedSessionDrawablePrototypes else sessionDrawablePrototypes
+        var prototype = prototypes.get(backgroundColor)
+        if (prototype == null) {
+            prototype = createSessionDrawable(backgroundColor, isStroked)
+            prototypes.put(backgroundColor, prototype)
         }
-        @ColorInt val backgroundColor = ContextCompat.getColor(context, backgroundColorResId)
-        val sessionDrawable = if (sessionIsFavored && isAlternativeHighlightingEnabled()) {
+        if (sessionView.getTag(R.id.session_drawable_prototype) !== prototype) {
+            // Drawables cannot be shared across views because each one holds its own ripple.
+            val sessionDrawable = prototype.constantState?.newDrawable(resources)
+                    ?: createSessionDrawable(backgroundColor, isStroked)
+            ViewCompat.setBackground(sessionView, sessionDrawable)
+            sessionView.setTag(R.id.session_drawable_prototype, prototype)
+        }
+        val padding = getSessionPadding()
+        sessionView.setPadding(padding, padding, padding, padding)
+    }
+
+    /**
+     * Returns the background color of the given [session] depending on its track and
+     * whether it is highlighted.
+     */
+    @ColorInt
+    fun getBackgroundColor(session: Session): Int = if (session.highlight) {
+        highlightBackgroundColorsByTrack[session.track] ?: highlightBackgroundColor
+    } else {
+        backgroundColorsByTrack[session.track] ?: defaultBackgroundColor
+    }
+
+    /**
+     * Returns true if highlighted sessions are to be outlined by a stroke.
+     */
+    fun isSelectionStrokeEnabled() = isAlternativeHighlightingEnabled()
+
+    private fun setSessionTextColor(session: Session, view: View) {
+        val title = view.requireViewByIdCompat<TextView>(R.id.session_title_view)
+        val subtitle = view.requireViewByIdCompat<TextView>(R.id.session_subtitle_view)
+        val speakers = view.requireViewByIdCompat<TextView>(R.id.session_speakers_view)
+        val textColor = if (session.highlight) highlightTextColor else defaultTextColor
+        title.setTextColor(textColor)
+        subtitle.setTextColor(textColor)
+        speakers.setTextColor(textColor)
+    }
+
+    private fun createSessionDrawable(@ColorInt backgroundColor: Int, isStroked: Boolean): SessionDrawable {
+        val sessionDrawable = if (isStroked) {
             SessionDrawable(
                     backgroundColor,
                     sessionDrawableCornerRadius.toFloat(),
@@ -93,27 +148,17 @@ internal class SessionViewDrawer @JvmOverloads constructor(
                 sessionDrawableInsetTop,
                 sessionDrawableInsetRight,
                 0)
-        ViewCompat.setBackground(sessionView, sessionDrawable)
-        val padding = getSessionPadding()
-        sessionView.setPadding(padding, padding, padding, padding)
+        return sessionDrawable
     }
 
+    /**
+     * Resolves the given color resource ids. Tracks without a color resource are left out
+     * so that they fall back to the default colors.
+     */
+    private fun resolveColors(context: Context, colorResIdsByTrack: Map<String, Int>): Map<String, Int> =
+            colorResIdsByTrack.filterValues { it != 0 }.mapValues { ContextCompat.getColor(context, it.value) }
+
     companion object {
         const val LOG_TAG = "SessionViewDrawer"
-
-        @JvmStatic
-        fun setSessionTextColor(session: Session, view: View) {
-            val title = view.requireViewByIdCompat<TextView>(R.id.session_title_view)
-            val subtitle = view.requireViewByIdCompat<TextView>(R.id.session_subtitle_view)
-            val speakers = view.requireViewByIdCompat<TextView>(R.id.session_speakers_view)
-            val colorResId = if (session.highlight)
-                R.color.session_title_on_highlight_background
-            else
-                R.color.session_title_on_default_background
-            val textColor = ContextCompat.getColor(view.context, colorResId)
-            title.setTextColor(textColor)
-            subtitle.setTextColor(textColor)
-            speakers.setTextColor(textColor)
-        }
     }
 }
\ No newline at end of file
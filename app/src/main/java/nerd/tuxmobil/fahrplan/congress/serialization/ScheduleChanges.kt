@@ -13,6 +13,8 @@ data class ScheduleChanges private constructor(
 
     companion object {
 
+        private const val NO_CONTENT_HASH = 0L
+
         /**
          * Returns a pair of a new list of sessions and a boolean flag indicating whether changes have
          * been found. Each session is flagged as ["new"][SessionAppModel.changedIsNew],
@@ -20,6 +22,9 @@ data class ScheduleChanges private constructor(
          * comparing it to its equivalent from the [oldSessions] list.
          *
          * This function does not modify the given lists nor any of its elements.
+         * Old sessions are indexed by their session ID once so the runtime is linear
+         * in the number of sessions. Sessions whose [content hashes][SessionAppModel.contentHash]
+         * are equal are taken as unchanged without comparing their fields.
          */
         fun computeSessionsWithChangeFlags(
 
@@ -34,24 +39,25 @@ data class ScheduleChanges private constructor(
                 return ScheduleChanges(newSessions, emptyList(), foundChanges)
             }
 
-            val oldNotCanceledSessions = oldSessions.filterNot { it.changedIsCanceled }.toMutableList()
-            val oldCanceledSessions = oldSessions.filter { it.changedIsCanceled }
-            val sessionsWithChangeFlags = mutableListOf<SessionAppModel>()
+            val (oldCanceledSessions, oldNotCanceledSessions) = oldSessions.partition { it.changedIsCanceled }
+            val oldNotCanceledSessionsById = oldNotCanceledSessions.indexBySessionId()
+            val matchedSessionIds = HashSet<String>(oldNotCanceledSessionsById.size)
+            val sessionsWithChangeFlags = ArrayList<SessionAppModel>(newSessions.size)
 
-            var sessionIndex = 0
-            while (sessionIndex < newSessions.size) {
-                val newSession = newSessions[sessionIndex]
-                val oldSession = oldNotCanceledSessions.singleOrNull { oldNotCanceledSession -> newSession.sessionId == oldNotCanceledSession.sessionId }
+            for (newSession in newSessions) {
+                val oldSession = if (newSession.sessionId in matchedSessionIds) {
+                    null
+                } else {
+                    oldNotCanceledSessionsById[newSession.sessionId]
+                }
                 if (oldSession == null) {
                     sessionsWithChangeFlags += SessionAppModel(newSession).apply { changedIsNew = true }
                     foundChanges = true
-                    sessionIndex++
                     continue
                 }
-                if (oldSession.equalsSession(newSession)) {
+                matchedSessionIds += oldSession.sessionId
+                if (oldSession.isUnchanged(newSession)) {
                     sessionsWithChangeFlags += newSession
-                    oldNotCanceledSessions -= oldSession
-                    sessionIndex++
                     continue
                 }
 
@@ -109,20 +115,36 @@ data class ScheduleChanges private constructor(
                     changedTime = sessionChange.changedStartTime
                     changedDuration = sessionChange.changedDuration
                 }
-                oldNotCanceledSessions -= oldSession
-                sessionIndex++
             }
 
-            if (oldNotCanceledSessions.isNotEmpty()) {
+            if (matchedSessionIds.size < oldNotCanceledSessions.size) {
                 // Flag all "old" sessions which are not present in the "new" set as canceled
                 // and append them to the "new" set.
-                sessionsWithChangeFlags += oldNotCanceledSessions.map { it.toCanceledSession() }
+                oldNotCanceledSessions
+                        .filterNot { it.sessionId in matchedSessionIds }
+                        .mapTo(sessionsWithChangeFlags) { it.toCanceledSession() }
                 foundChanges = true
             }
 
             return ScheduleChanges(sessionsWithChangeFlags.toList(), oldCanceledSessions, foundChanges)
         }
 
+        /**
+         * Returns a map of the sessions keyed by their session ID. Sessions sharing a session ID
+         * are left out. They cannot be matched unambiguously and are therefore treated as canceled.
+         */
+        private fun List<SessionAppModel>.indexBySessionId(): Map<String, SessionAppModel> {
+            val sessionsById = HashMap<String, SessionAppModel>(size * 2)
+            val duplicateSessionIds = HashSet<String>()
+            for (session in this) {
+                if (sessionsById.put(session.sessionId, session) != null) {
+                    duplicateSessionIds += session.sessionId
+                }
+            }
+            sessionsById.keys.removeAll(duplicateSessionIds)
+            return sessionsById
+        }
+
         private data class SessionChange(
                 var changedTitle: Boolean = false,
                 var changedSubtitle: Boolean = false,
@@ -138,6 +160,17 @@ data class ScheduleChanges private constructor(
 
         private fun SessionAppModel.toCanceledSession() = SessionAppModel(this).apply { cancel() }
 
+        /**
+         * Compares the content hashes of both sessions if they are known.
+         * Falls back to comparing the fields otherwise.
+         */
+        private fun SessionAppModel.isUnchanged(session: SessionAppModel) =
+                if (contentHash != NO_CONTENT_HASH && session.contentHash != NO_CONTENT_HASH) {
+                    contentHash == session.contentHash
+                } else {
+                    equalsSession(session)
+                }
+
         private fun SessionAppModel.equalsSession(session: SessionAppModel): Boolean {
             return title == session.title &&
                     subtitle == session.subtitle &&
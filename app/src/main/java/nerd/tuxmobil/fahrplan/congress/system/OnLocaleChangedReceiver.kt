@@ -4,11 +4,13 @@ import android.content.BroadcastReceiver
 import android.content.Context
 import android.content.Intent
 import android.util.Log
+import info.metadude.android.eventfahrplan.commons.temporal.DateFormatter
 import nerd.tuxmobil.fahrplan.congress.notifications.NotificationHelper
 
 /**
  * Handler for androids [Intent.ACTION_LOCALE_CHANGED] event.
  * Recreates notification channel settings using [NotificationHelper].
+ * Drops the cached [DateFormatter] instances which are bound to the previous locale.
  */
 class OnLocaleChangedReceiver : BroadcastReceiver() {
     override fun onReceive(context: Context, intent: Intent) {
@@ -20,5 +22,7 @@ class OnLocaleChangedReceiver : BroadcastReceiver() {
 
         val notificationHelper = NotificationHelper(context)
         notificationHelper.createChannels()
+
+        DateFormatter.clearCache()
     }
 }
\ No newline at end of file
@@ -13,7 +13,6 @@ class FetchScheduleResultExtensionsTest {
     fun networkFetchScheduleResult_toAppFetchScheduleResult() {
         val networkFetchScheduleResult = NetworkFetchScheduleResult(
                 httpStatus = NetworkHttpStatus.HTTP_NOT_MODIFIED,
-                scheduleXml = "<xml></xml>",
                 eTag = "mno456",
                 hostName = "example.com",
                 exceptionMessage = "SSLException"
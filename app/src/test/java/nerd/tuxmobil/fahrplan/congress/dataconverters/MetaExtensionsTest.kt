@@ -10,7 +10,9 @@ import nerd.tuxmobil.fahrplan.congress.models.Meta as MetaAppModel
 class MetaExtensionsTest {
 
     private val metaAppModel = MetaAppModel(
+            downloadUrl = "https://example.com/schedule.xml.br",
             eTag = "abc123",
+            lastModified = "Wed, 21 Oct 2015 07:28:00 GMT",
             numDays = 23,
             subtitle = "My subtitle",
             timeZoneId = ZoneId.of("Europe/Berlin"),
@@ -19,7 +21,9 @@ class MetaExtensionsTest {
     )
 
     private val metaDatabaseModel = MetaDatabaseModel(
+            downloadUrl = "https://example.com/schedule.xml.br",
             eTag = "abc123",
+            lastModified = "Wed, 21 Oct 2015 07:28:00 GMT",
             numDays = 23,
             subtitle = "My subtitle",
             timeZoneName = "Europe/Berlin",
@@ -28,7 +32,9 @@ class MetaExtensionsTest {
     )
 
     private val metaNetworkModel = MetaNetworkModel(
+            downloadUrl = "https://example.com/schedule.xml.br",
             eTag = "abc123",
+            lastModified = "Wed, 21 Oct 2015 07:28:00 GMT",
             numDays = 23,
             subtitle = "My subtitle",
             timeZoneName = "Europe/Berlin",
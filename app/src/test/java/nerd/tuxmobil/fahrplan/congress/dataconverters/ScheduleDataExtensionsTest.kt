@@ -0,0 +1,47 @@
+package nerd.tuxmobil.fahrplan.congress.dataconverters
+
+import nerd.tuxmobil.fahrplan.congress.models.RoomData
+import nerd.tuxmobil.fahrplan.congress.models.ScheduleData
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import info.metadude.android.eventfahrplan.database.models.ScheduleColumn as ScheduleColumnDatabaseModel
+
+class ScheduleDataExtensionsTest {
+
+    @Test
+    fun toScheduleColumnsDatabaseModel() {
+        val scheduleData = ScheduleData(2, listOf(
+                RoomData("Saal 1", listOf(createSession("1", "Saal 1"))),
+                RoomData("Lounge", listOf(createSession("2", "Lounge")))
+        ))
+        assertThat(scheduleData.toScheduleColumnsDatabaseModel()).containsExactly(
+                ScheduleColumnDatabaseModel(dayIndex = 2, roomName = "Saal 1", columnIndex = 0),
+                ScheduleColumnDatabaseModel(dayIndex = 2, roomName = "Lounge", columnIndex = 1)
+        )
+    }
+
+    @Test
+    fun `toScheduleData returns no rooms for an empty list`() {
+        assertThat(emptyList<Session>().toScheduleData(1)).isEqualTo(ScheduleData(1, emptyList()))
+    }
+
+    @Test
+    fun `toScheduleData groups consecutive sessions of the same room keeping their order`() {
+        val session1 = createSession("1", "Lounge")
+        val session2 = createSession("2", "Saal 1")
+        val session3 = createSession("3", "Saal 1")
+        val session4 = createSession("4", "Saal 2")
+        val scheduleData = listOf(session1, session2, session3, session4).toScheduleData(3)
+        assertThat(scheduleData).isEqualTo(ScheduleData(3, listOf(
+                RoomData("Lounge", listOf(session1)),
+                RoomData("Saal 1", listOf(session2, session3)),
+                RoomData("Saal 2", listOf(session4))
+        )))
+    }
+
+    private fun createSession(sessionId: String, room: String) = Session(sessionId).apply {
+        this.room = room
+    }
+
+}
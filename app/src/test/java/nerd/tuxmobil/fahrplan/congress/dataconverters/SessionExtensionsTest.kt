@@ -42,6 +42,7 @@ class SessionExtensionsTest {
                 track = "Security & Hacking",
                 type = "tutorial",
                 url = "https://talks.mrmcd.net/2018/talk/V3FUNG",
+                contentHash = 8213597215742613071L,
 
                 changedDay = true,
                 changedDuration = true,
@@ -87,6 +88,7 @@ class SessionExtensionsTest {
                 track = "Security & Hacking",
                 type = "tutorial",
                 url = "https://talks.mrmcd.net/2018/talk/V3FUNG",
+                contentHash = 8213597215742613071L,
 
                 changedDayIndex = true,
                 changedDuration = true,
@@ -126,6 +128,7 @@ class SessionExtensionsTest {
             track = "Security & Hacking"
             type = "tutorial"
             url = "https://talks.mrmcd.net/2018/talk/V3FUNG"
+            contentHash = 8213597215742613071L
 
             changedDay = true
             changedDuration = true
@@ -141,6 +144,7 @@ class SessionExtensionsTest {
             changedTrack = true
         }
         assertThat(sessionNetworkModel.toSessionAppModel()).isEqualTo(sessionAppModel)
+        assertThat(sessionNetworkModel.toSessionAppModel().contentHash).isEqualTo(8213597215742613071L)
     }
 
     @Test
@@ -1,9 +1,11 @@
 package nerd.tuxmobil.fahrplan.congress.repositories
 
 import com.google.common.truth.Truth.assertThat
+import com.nhaarman.mockitokotlin2.any
 import com.nhaarman.mockitokotlin2.doReturn
 import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.whenever
+import info.metadude.android.eventfahrplan.commons.testing.verifyInvokedNever
 import info.metadude.android.eventfahrplan.commons.testing.verifyInvokedOnce
 import info.metadude.android.eventfahrplan.database.repositories.SessionsDatabaseRepository
 import nerd.tuxmobil.fahrplan.congress.dataconverters.toSessionsDatabaseModel
@@ -25,6 +27,7 @@ class AppRepositorySessionsTest {
                     context = mock(),
                     logging = mock(),
                     networkScope = mock(),
+                    databaseOpenHelper = mock(),
                     alarmsDatabaseRepository = mock(),
                     highlightsDatabaseRepository = mock(),
                     sessionsDatabaseRepository = sessionsDatabaseRepository,
@@ -68,26 +71,11 @@ class AppRepositorySessionsTest {
             changedIsNew = true
         }
 
-        private val SESSION_2001 = createSession("2001").apply {
-            highlight = false
-            changedIsCanceled = false
-        }
-
         private val SESSION_2002 = createSession("2002").apply {
             highlight = true
             changedIsCanceled = false
         }
 
-        private val SESSION_2003 = createSession("2003").apply {
-            highlight = true
-            changedIsCanceled = true
-        }
-
-        private val SESSION_2004 = createSession("2004").apply {
-            highlight = false
-            changedIsCanceled = true
-        }
-
         private val SESSION_3001 = createSession("3001").apply {
             changedIsCanceled = false
         }
@@ -104,34 +92,35 @@ class AppRepositorySessionsTest {
 
     @Test
     fun `loadChangedSessions passes through an empty list`() {
-        whenever(sessionsDatabaseRepository.querySessionsOrderedByDateUtc()) doReturn emptyList()
+        whenever(sessionsDatabaseRepository.queryChangedSessions(any())) doReturn emptyList()
         assertThat(testableAppRepository.loadChangedSessions()).isEmpty()
-        verifyInvokedOnce(sessionsDatabaseRepository).querySessionsOrderedByDateUtc()
+        verifyInvokedOnce(sessionsDatabaseRepository).queryChangedSessions(any())
     }
 
     @Test
-    fun `loadChangedSessions filters out sessions which are not changed`() {
-        val sessions = listOf(SESSION_1001, SESSION_1002, SESSION_1003, SESSION_1004, SESSION_1005)
-        whenever(sessionsDatabaseRepository.querySessionsOrderedByDateUtc()) doReturn sessions.toSessionsDatabaseModel()
+    fun `loadChangedSessions returns the changed sessions queried from the database`() {
+        val sessions = listOf(SESSION_1002, SESSION_1003, SESSION_1004, SESSION_1005)
+        whenever(sessionsDatabaseRepository.queryChangedSessions(any())) doReturn sessions.toSessionsDatabaseModel()
         val changedSessions = testableAppRepository.loadChangedSessions()
         assertThat(changedSessions).containsExactly(SESSION_1002, SESSION_1003, SESSION_1004, SESSION_1005)
-        verifyInvokedOnce(sessionsDatabaseRepository).querySessionsOrderedByDateUtc()
+        verifyInvokedOnce(sessionsDatabaseRepository).queryChangedSessions(any())
     }
 
     @Test
     fun `loadStarredSessions passes through an empty list`() {
-        whenever(sessionsDatabaseRepository.querySessionsOrderedByDateUtc()) doReturn emptyList()
+        whenever(sessionsDatabaseRepository.queryStarredSessions(any())) doReturn emptyList()
         assertThat(testableAppRepository.loadStarredSessions()).isEmpty()
-        verifyInvokedOnce(sessionsDatabaseRepository).querySessionsOrderedByDateUtc()
+        verifyInvokedOnce(sessionsDatabaseRepository).queryStarredSessions(any())
     }
 
     @Test
-    fun `loadStarredSessions filters out sessions which are not starred`() {
-        val sessions = listOf(SESSION_2001, SESSION_2002, SESSION_2003, SESSION_2004)
-        whenever(sessionsDatabaseRepository.querySessionsOrderedByDateUtc()) doReturn sessions.toSessionsDatabaseModel()
+    fun `loadStarredSessions returns the starred sessions queried from the database`() {
+        val sessions = listOf(SESSION_2002)
+        whenever(sessionsDatabaseRepository.queryStarredSessions(any())) doReturn sessions.toSessionsDatabaseModel()
         val starredSessions = testableAppRepository.loadStarredSessions()
         assertThat(starredSessions).containsExactly(SESSION_2002)
-        verifyInvokedOnce(sessionsDatabaseRepository).querySessionsOrderedByDateUtc()
+        assertThat(starredSessions.single().highlight).isTrue()
+        verifyInvokedOnce(sessionsDatabaseRepository).queryStarredSessions(any())
     }
 
     @Test
@@ -150,6 +139,31 @@ class AppRepositorySessionsTest {
         verifyInvokedOnce(sessionsDatabaseRepository).querySessionsForDayIndexOrderedByDateUtc(anyInt())
     }
 
+    @Test
+    fun `loadScheduleData groups the sessions queried in the order of the schedule columns`() {
+        val sessions = listOf(
+                createSession("4001").apply { room = "Saal 2" },
+                createSession("4002").apply { room = "Saal 1" },
+                createSession("4003").apply { room = "Saal 1" }
+        )
+        whenever(sessionsDatabaseRepository.queryScheduleSessionsForDayIndex(anyInt())) doReturn sessions.toSessionsDatabaseModel()
+        val scheduleData = testableAppRepository.loadScheduleData(2)
+        assertThat(scheduleData.dayIndex).isEqualTo(2)
+        assertThat(scheduleData.roomNames).containsExactly("Saal 2", "Saal 1").inOrder()
+        assertThat(scheduleData.roomDataList[1].sessions.map { it.sessionId }).containsExactly("4002", "4003").inOrder()
+        verifyInvokedNever(sessionsDatabaseRepository).querySessionsForDayIndexOrderedByDateUtc(anyInt())
+    }
+
+    @Test
+    fun `loadScheduleData transforms the uncanceled sessions if no schedule columns are stored`() {
+        val sessions = listOf(SESSION_3001, SESSION_3002)
+        whenever(sessionsDatabaseRepository.queryScheduleSessionsForDayIndex(anyInt())) doReturn emptyList()
+        whenever(sessionsDatabaseRepository.querySessionsForDayIndexOrderedByDateUtc(anyInt())) doReturn sessions.toSessionsDatabaseModel()
+        val scheduleData = testableAppRepository.loadScheduleData(2)
+        assertThat(scheduleData.allSessions).containsExactly(SESSION_3001)
+        verifyInvokedOnce(sessionsDatabaseRepository).querySessionsForDayIndexOrderedByDateUtc(anyInt())
+    }
+
     @Test
     fun `loadEarliestSession fails when no session is present`() {
         whenever(sessionsDatabaseRepository.querySessionsOrderedByDateUtc()) doReturn emptyList()
@@ -0,0 +1,210 @@
+package nerd.tuxmobil.fahrplan.congress.repositories
+
+import com.google.common.truth.Truth.assertThat
+import com.google.common.truth.Truth.assertWithMessage
+import info.metadude.android.eventfahrplan.commons.temporal.Moment
+import nerd.tuxmobil.fahrplan.congress.models.DateInfo
+import nerd.tuxmobil.fahrplan.congress.models.Meta
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.threeten.bp.ZoneOffset
+import java.lang.reflect.Field
+import java.lang.reflect.Modifier
+
+class ScheduleSnapshotTest {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+
+    private val sessionsTransformer = SessionsTransformer(object : RoomProvider {
+        override val prioritizedRooms = listOf("Saal 1")
+        override val deprioritizedRooms = emptyList<String>()
+    })
+
+    private val meta = Meta(
+            downloadUrl = "https://example.com/schedule.xml.br",
+            eTag = "abc123",
+            lastModified = "Wed, 21 Oct 2015 07:28:00 GMT",
+            numDays = 2,
+            subtitle = "Subtitle",
+            title = "Conference",
+            version = "1.0"
+    )
+
+    @Test
+    fun `open returns null if the file does not exist`() {
+        assertThat(ScheduleSnapshot.open(temporaryFolder.root.resolve("missing"))).isNull()
+    }
+
+    @Test
+    fun `open returns null if the file has not been written as a snapshot`() {
+        val file = temporaryFolder.newFile().apply { writeText("schedule") }
+        assertThat(ScheduleSnapshot.open(file)).isNull()
+    }
+
+    @Test
+    fun `readMeta returns the meta data written`() {
+        assertThat(writeAndOpen(emptyList()).readMeta()).isEqualTo(meta)
+    }
+
+    @Test
+    fun `readDateInfos returns each day once`() {
+        val sessions = listOf(
+                createSession("1", day = 1, room = "Lounge"),
+                createSession("2", day = 1, room = "Saal 1"),
+                createSession("3", day = 2, room = "Saal 1")
+        )
+        assertThat(writeAndOpen(sessions).readDateInfos()).containsExactly(
+                DateInfo(1, Moment.parseDate("2021-12-27")),
+                DateInfo(2, Moment.parseDate("2021-12-28"))
+        ).inOrder()
+    }
+
+    @Test
+    fun `readScheduleData returns the uncanceled sessions of the day in their columns`() {
+        val session1 = createSession("1", day = 1, room = "Lounge").apply {
+            highlight = true
+            changedTitle = true
+        }
+        val session2 = createSession("2", day = 1, room = "Saal 1").apply {
+            hasAlarm = true
+            recordingOptOut = true
+        }
+        val session3 = createSession("3", day = 1, room = "Saal 1").apply { changedIsCanceled = true }
+        val session4 = createSession("4", day = 2, room = "Saal 1")
+        val snapshot = writeAndOpen(listOf(session1, session2, session3, session4))
+
+        val scheduleData = snapshot.readScheduleData(1)!!
+        assertThat(scheduleData.roomNames).containsExactly("Saal 1", "Lounge").inOrder()
+        assertThat(scheduleData.roomDataList[0].sessions).containsExactly(session2)
+        assertThat(scheduleData.roomDataList[1].sessions).containsExactly(session1)
+        with(scheduleData.roomDataList[0].sessions.single()) {
+            assertThat(hasAlarm).isTrue()
+            assertThat(highlight).isFalse()
+            assertThat(recordingOptOut).isTrue()
+        }
+        with(scheduleData.roomDataList[1].sessions.single()) {
+            assertThat(highlight).isTrue()
+            assertThat(changedTitle).isTrue()
+            assertThat(changedRoom).isFalse()
+        }
+        assertThat(snapshot.readScheduleData(2)!!.allSessions).containsExactly(session4)
+    }
+
+    @Test
+    fun `readScheduleData restores every field of a session`() {
+        val session = createSession("1", day = 1, room = "Saal 1")
+        // Assigns a distinct value to each field. Canceled sessions are not part of the snapshot.
+        sessionFields.forEachIndexed { index, field ->
+            when (field.type) {
+                String::class.java -> field.set(session, "${field.name} value")
+                Int::class.java -> field.setInt(session, 100 + index)
+                Long::class.java -> field.setLong(session, 1_000_000_000_000L + index)
+                Boolean::class.java -> field.setBoolean(session, field.name != "changedIsCanceled")
+                ZoneOffset::class.java -> field.set(session, ZoneOffset.ofHoursMinutes(5, 30))
+                else -> throw IllegalStateException("Unsupported type of field ${field.name}.")
+            }
+        }
+        session.day = 1
+        session.date = "2021-12-27"
+
+        val restoredSession = writeAndOpen(listOf(session)).readScheduleData(1)!!.allSessions.single()
+
+        sessionFields.forEach { field ->
+            assertWithMessage(field.name).that(field.get(restoredSession)).isEqualTo(field.get(session))
+        }
+    }
+
+    @Test
+    fun `readScheduleData restores null strings as null`() {
+        val session = createSession("1", day = 1, room = "Saal 1").apply {
+            url = null
+            links = null
+        }
+
+        val restoredSession = writeAndOpen(listOf(session)).readScheduleData(1)!!.allSessions.single()
+
+        assertThat(restoredSession.url).isNull()
+        assertThat(restoredSession.links).isNull()
+        assertThat(restoredSession.slug).isEmpty()
+    }
+
+    @Test
+    fun `readEarliestSession returns the first session including canceled sessions`() {
+        val session1 = createSession("1", day = 1, room = "Saal 1").apply { changedIsCanceled = true }
+        val session2 = createSession("2", day = 1, room = "Saal 1")
+        val snapshot = writeAndOpen(listOf(session2, session1))
+
+        val earliestSession = snapshot.readEarliestSession()!!
+        assertThat(earliestSession).isEqualTo(session1)
+        assertThat(snapshot.readScheduleData(1)!!.allSessions).containsExactly(session2)
+    }
+
+    @Test
+    fun `readEarliestSession returns null if there are no sessions`() {
+        assertThat(writeAndOpen(emptyList()).readEarliestSession()).isNull()
+    }
+
+    @Test
+    fun `updateFlags sets the highlight and alarm flags in place`() {
+        val session1 = createSession("1", day = 1, room = "Saal 1").apply {
+            highlight = true
+            changedTitle = true
+        }
+        val session2 = createSession("2", day = 1, room = "Saal 1")
+        val file = temporaryFolder.newFile()
+        ScheduleSnapshot.write(file, meta, listOf(session1, session2), sessionsTransformer)
+
+        assertThat(ScheduleSnapshot.updateFlags(file, setOf("2"), setOf("1"))).isTrue()
+
+        val sessions = ScheduleSnapshot.open(file)!!.readScheduleData(1)!!.allSessions
+        with(sessions[0]) {
+            assertThat(highlight).isFalse()
+            assertThat(hasAlarm).isTrue()
+            assertThat(changedTitle).isTrue()
+        }
+        with(sessions[1]) {
+            assertThat(highlight).isTrue()
+            assertThat(hasAlarm).isFalse()
+        }
+    }
+
+    @Test
+    fun `updateFlags returns false if the file does not exist`() {
+        assertThat(ScheduleSnapshot.updateFlags(temporaryFolder.root.resolve("missing"), emptySet(), emptySet())).isFalse()
+    }
+
+    @Test
+    fun `readScheduleData returns null for a day which is not part of the snapshot`() {
+        val snapshot = writeAndOpen(listOf(createSession("1", day = 1, room = "Saal 1")))
+        assertThat(snapshot.readScheduleData(3)).isNull()
+    }
+
+    private val sessionFields: List<Field> = Session::class.java.fields
+            .filterNot { Modifier.isStatic(it.modifiers) }
+
+    private fun writeAndOpen(sessions: List<Session>): ScheduleSnapshot {
+        val file = temporaryFolder.newFile()
+        ScheduleSnapshot.write(file, meta, sessions, sessionsTransformer)
+        return ScheduleSnapshot.open(file)!!
+    }
+
+    private fun createSession(sessionId: String, day: Int, room: String) = Session(sessionId).apply {
+        this.day = day
+        this.room = room
+        date = if (day == 1) "2021-12-27" else "2021-12-28"
+        dateUTC = 1640592000000L + sessionId.toLong() * 3_600_000
+        timeZoneOffset = ZoneOffset.ofHours(1)
+        title = "Session $sessionId"
+        subtitle = "Subtitle $sessionId"
+        speakers = "Jane Doe;John Doe"
+        track = "Ethics"
+        type = "lecture"
+        lang = "en"
+        startTime = 600
+        duration = 45
+    }
+
+}
@@ -0,0 +1,111 @@
+package nerd.tuxmobil.fahrplan.congress.repositories
+
+import com.google.common.truth.Truth.assertThat
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import org.junit.Test
+
+class SessionsCacheTest {
+
+    private val cache = SessionsCache()
+
+    @Test
+    fun `getOrLoad loads the sessions of a day only once`() {
+        var loadsCount = 0
+        val load = { loadsCount++; listOf(createSession("s1")) }
+        cache.getOrLoad(1, load)
+        val sessions = cache.getOrLoad(1, load)
+        assertThat(loadsCount).isEqualTo(1)
+        assertThat(sessions.map { it.sessionId }).containsExactly("s1")
+    }
+
+    @Test
+    fun `getOrLoad returns copies of the cached sessions`() {
+        cache.getOrLoad(1) { listOf(createSession("s1")) }
+        cache.getOrLoad(1) { emptyList() }.single().duration = 0
+        assertThat(cache.get(1)!!.single().duration).isEqualTo(60)
+    }
+
+    @Test
+    fun `get returns null for sessions which are not cached`() {
+        assertThat(cache.get(1)).isNull()
+    }
+
+    @Test
+    fun `findSession returns the cached session or null`() {
+        cache.getOrLoad(1) { listOf(createSession("s1")) }
+        assertThat(cache.findSession("s1")!!.sessionId).isEqualTo("s1")
+        assertThat(cache.findSession("s2")).isNull()
+    }
+
+    @Test
+    fun `updateHighlight modifies the cached sessions of all days`() {
+        cache.getOrLoad(1) { listOf(createSession("s1"), createSession("s2")) }
+        cache.getOrLoad(ALL_DAYS) { listOf(createSession("s1"), createSession("s2")) }
+        cache.updateHighlight("s1", isHighlight = true)
+        assertThat(cache.get(1)!!.map { it.highlight }).containsExactly(true, false).inOrder()
+        assertThat(cache.get(ALL_DAYS)!!.map { it.highlight }).containsExactly(true, false).inOrder()
+        cache.resetHighlights()
+        assertThat(cache.get(1)!!.map { it.highlight }).containsExactly(false, false)
+    }
+
+    @Test
+    fun `updateAlarms marks exactly the given sessions`() {
+        cache.getOrLoad(1) { listOf(createSession("s1"), createSession("s2")) }
+        cache.updateAlarm("s1", hasAlarm = true)
+        assertThat(cache.get(1)!!.map { it.hasAlarm }).containsExactly(true, false).inOrder()
+        cache.updateAlarms(setOf("s2"))
+        assertThat(cache.get(1)!!.map { it.hasAlarm }).containsExactly(false, true).inOrder()
+    }
+
+    @Test
+    fun `invalidate removes all sessions`() {
+        cache.getOrLoad(1) { listOf(createSession("s1")) }
+        cache.invalidate()
+        assertThat(cache.get(1)).isNull()
+    }
+
+    @Test
+    fun `sessions loaded before invalidate are not cached`() {
+        val sessions = cache.getOrLoad(1) {
+            cache.invalidate()
+            listOf(createSession("s1"))
+        }
+        assertThat(sessions.map { it.sessionId }).containsExactly("s1")
+        assertThat(cache.get(1)).isNull()
+    }
+
+    @Test
+    fun `sessions loaded before a highlight or alarm change are not cached`() {
+        cache.getOrLoad(1) {
+            cache.updateHighlight("s1", isHighlight = true)
+            listOf(createSession("s1"))
+        }
+        assertThat(cache.get(1)).isNull()
+        cache.getOrLoad(2) {
+            cache.updateAlarms(setOf("s2"))
+            listOf(createSession("s2"))
+        }
+        assertThat(cache.get(2)).isNull()
+    }
+
+    @Test
+    fun `least recently used days are evicted once the maximum sessions count is exceeded`() {
+        val cache = SessionsCache(maxSessionsCount = 3)
+        cache.getOrLoad(1) { listOf(createSession("s1"), createSession("s2")) }
+        cache.getOrLoad(2) { listOf(createSession("s3")) }
+        cache.get(1)
+        cache.getOrLoad(3) { listOf(createSession("s4")) }
+        assertThat(cache.get(1)).isNotNull()
+        assertThat(cache.get(2)).isNull()
+        assertThat(cache.get(3)).isNotNull()
+    }
+
+    private fun createSession(sessionId: String) = Session(sessionId).apply {
+        duration = 60
+    }
+
+    private companion object {
+        const val ALL_DAYS = -1
+    }
+
+}
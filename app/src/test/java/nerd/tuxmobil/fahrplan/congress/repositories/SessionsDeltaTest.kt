@@ -0,0 +1,65 @@
+package nerd.tuxmobil.fahrplan.congress.repositories
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import info.metadude.android.eventfahrplan.database.models.Session as SessionDatabaseModel
+
+class SessionsDeltaTest {
+
+    @Test
+    fun `compute returns an empty delta for unchanged sessions`() {
+        val sessions = listOf(createSession("s1"), createSession("s2"))
+        val delta = SessionsDelta.compute(sessions, sessions.map { it.copy() })
+        assertThat(delta.isEmpty).isTrue()
+    }
+
+    @Test
+    fun `compute ignores highlights and alarms of the old sessions`() {
+        val oldSessions = listOf(createSession("s1").copy(isHighlight = true, hasAlarm = true))
+        val delta = SessionsDelta.compute(listOf(createSession("s1")), oldSessions)
+        assertThat(delta.isEmpty).isTrue()
+    }
+
+    @Test
+    fun `compute returns new and modified sessions to be updated`() {
+        val oldSessions = listOf(createSession("s1"), createSession("s2"))
+        val newSessions = listOf(
+                createSession("s1"),
+                createSession("s2").copy(title = "Moved", changedTitle = true),
+                createSession("s3")
+        )
+        val delta = SessionsDelta.compute(newSessions, oldSessions)
+        assertThat(delta.toBeUpdatedSessions.map { it.sessionId }).containsExactly("s2", "s3").inOrder()
+        assertThat(delta.toBeDeletedSessionIds).isEmpty()
+    }
+
+    @Test
+    fun `compute returns a session to be updated if only its change flags differ`() {
+        val oldSessions = listOf(createSession("s1").copy(changedTitle = true))
+        val delta = SessionsDelta.compute(listOf(createSession("s1")), oldSessions)
+        assertThat(delta.toBeUpdatedSessions.map { it.sessionId }).containsExactly("s1")
+    }
+
+    @Test
+    fun `compute returns the IDs of old sessions which are not part of the new sessions to be deleted`() {
+        val oldSessions = listOf(createSession("s1"), createSession("s2"))
+        val delta = SessionsDelta.compute(listOf(createSession("s1")), oldSessions)
+        assertThat(delta.toBeUpdatedSessions).isEmpty()
+        assertThat(delta.toBeDeletedSessionIds).containsExactly("s2")
+    }
+
+    @Test
+    fun `compute keeps the last of the new sessions sharing a session ID`() {
+        val newSessions = listOf(createSession("s1").copy(title = "First"), createSession("s1").copy(title = "Last"))
+        val delta = SessionsDelta.compute(newSessions, emptyList())
+        assertThat(delta.toBeUpdatedSessions.map { it.title }).containsExactly("Last")
+    }
+
+    private fun createSession(sessionId: String) = SessionDatabaseModel(
+            sessionId = sessionId,
+            title = "Title $sessionId",
+            room = "Saal 1",
+            duration = 30
+    )
+
+}
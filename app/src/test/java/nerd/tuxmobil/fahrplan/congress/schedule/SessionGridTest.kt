@@ -0,0 +1,139 @@
+package nerd.tuxmobil.fahrplan.congress.schedule
+
+import com.google.common.truth.Truth.assertThat
+import info.metadude.android.eventfahrplan.commons.temporal.Moment
+import nerd.tuxmobil.fahrplan.congress.NoLogging
+import nerd.tuxmobil.fahrplan.congress.models.RoomData
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import org.junit.Test
+
+class SessionGridTest {
+
+    private companion object {
+        const val CONFERENCE_DATE = "2020-03-30"
+    }
+
+    private var sessionId = 0
+
+    /**
+     * One pixel per minute.
+     */
+    private val layoutCalculator = LayoutCalculator(standardHeight = 5, logging = NoLogging)
+
+    private fun createSession(startTime: Int, duration: Int): Session {
+        val session = Session((sessionId++).toString())
+        session.dateUTC = Moment.parseDate(CONFERENCE_DATE).plusMinutes(startTime.toLong()).toMilliseconds()
+        session.duration = duration
+        return session
+    }
+
+    @Test
+    fun `of stacks the sessions of each room by their start times`() {
+        val session1 = createSession(startTime = 10 * 60, duration = 45)
+        val session2 = createSession(startTime = 11 * 60, duration = 30)
+        val session3 = createSession(startTime = 10 * 60 + 30, duration = 90)
+        val roomDataList = listOf(
+                RoomData("Room 1", listOf(session1, session2)),
+                RoomData("Room 2", listOf(session3))
+        )
+        val conference = Conference.ofSessions(listOf(session1, session2, session3))
+
+        val sessionGrid = SessionGrid.of(roomDataList, layoutCalculator, conference)
+
+        assertThat(sessionGrid.columnCount).isEqualTo(2)
+        assertThat(sessionGrid.getSessionCount(0)).isEqualTo(2)
+        assertThat(sessionGrid.getSession(0, 1)).isSameInstanceAs(session2)
+        assertThat(sessionGrid.getTop(0, 0)).isEqualTo(0)
+        assertThat(sessionGrid.getHeight(0, 0)).isEqualTo(45)
+        assertThat(sessionGrid.getTop(0, 1)).isEqualTo(60)
+        assertThat(sessionGrid.getHeight(0, 1)).isEqualTo(30)
+        assertThat(sessionGrid.getTop(1, 0)).isEqualTo(30)
+        assertThat(sessionGrid.getHeight(1, 0)).isEqualTo(90)
+        assertThat(sessionGrid.height).isEqualTo(120)
+    }
+
+    @Test
+    fun `getPosition is unique across all columns`() {
+        val session1 = createSession(startTime = 10 * 60, duration = 45)
+        val session2 = createSession(startTime = 11 * 60, duration = 30)
+        val session3 = createSession(startTime = 10 * 60, duration = 30)
+        val roomDataList = listOf(
+                RoomData("Room 1", listOf(session1, session2)),
+                RoomData("Room 2", emptyList()),
+                RoomData("Room 3", listOf(session3))
+        )
+        val conference = Conference.ofSessions(listOf(session1, session2, session3))
+
+        val sessionGrid = SessionGrid.of(roomDataList, layoutCalculator, conference)
+
+        assertThat(sessionGrid.getPosition(0, 0)).isEqualTo(0)
+        assertThat(sessionGrid.getPosition(0, 1)).isEqualTo(1)
+        assertThat(sessionGrid.getPosition(2, 0)).isEqualTo(2)
+    }
+
+    @Test
+    fun `findFirstIndexEndingBelow returns the first session intersecting the given coordinate`() {
+        val sessions = listOf(
+                createSession(startTime = 10 * 60, duration = 30),
+                createSession(startTime = 11 * 60, duration = 30),
+                createSession(startTime = 12 * 60, duration = 30)
+        )
+        val conference = Conference.ofSessions(sessions)
+
+        val sessionGrid = SessionGrid.of(listOf(RoomData("Room 1", sessions)), layoutCalculator, conference)
+
+        assertThat(sessionGrid.findFirstIndexEndingBelow(0, 0)).isEqualTo(0)
+        assertThat(sessionGrid.findFirstIndexEndingBelow(0, 29)).isEqualTo(0)
+        assertThat(sessionGrid.findFirstIndexEndingBelow(0, 30)).isEqualTo(1)
+        assertThat(sessionGrid.findFirstIndexEndingBelow(0, 89)).isEqualTo(1)
+        assertThat(sessionGrid.findFirstIndexEndingBelow(0, 150)).isEqualTo(3)
+    }
+
+    @Test
+    fun `getColumnOfPosition and getIndexOfPosition skip empty columns`() {
+        val session1 = createSession(startTime = 10 * 60, duration = 45)
+        val session2 = createSession(startTime = 11 * 60, duration = 30)
+        val session3 = createSession(startTime = 10 * 60, duration = 30)
+        val roomDataList = listOf(
+                RoomData("Room 1", emptyList()),
+                RoomData("Room 2", listOf(session1, session2)),
+                RoomData("Room 3", emptyList()),
+                RoomData("Room 4", listOf(session3))
+        )
+        val conference = Conference.ofSessions(listOf(session1, session2, session3))
+
+        val sessionGrid = SessionGrid.of(roomDataList, layoutCalculator, conference)
+
+        assertThat(sessionGrid.sessionCount).isEqualTo(3)
+        assertThat(sessionGrid.getColumnOfPosition(0)).isEqualTo(1)
+        assertThat(sessionGrid.getIndexOfPosition(0)).isEqualTo(0)
+        assertThat(sessionGrid.getColumnOfPosition(1)).isEqualTo(1)
+        assertThat(sessionGrid.getIndexOfPosition(1)).isEqualTo(1)
+        assertThat(sessionGrid.getColumnOfPosition(2)).isEqualTo(3)
+        assertThat(sessionGrid.getIndexOfPosition(2)).isEqualTo(0)
+    }
+
+    @Test
+    fun `findIndexAt returns the session containing the given coordinate or -1`() {
+        val sessions = listOf(
+                createSession(startTime = 10 * 60, duration = 30),
+                createSession(startTime = 11 * 60, duration = 30)
+        )
+        val conference = Conference.ofSessions(sessions)
+
+        val sessionGrid = SessionGrid.of(listOf(RoomData("Room 1", sessions)), layoutCalculator, conference)
+
+        assertThat(sessionGrid.findIndexAt(0, 0)).isEqualTo(0)
+        assertThat(sessionGrid.findIndexAt(0, 29)).isEqualTo(0)
+        assertThat(sessionGrid.findIndexAt(0, 30)).isEqualTo(-1)
+        assertThat(sessionGrid.findIndexAt(0, 60)).isEqualTo(1)
+        assertThat(sessionGrid.findIndexAt(0, 90)).isEqualTo(-1)
+    }
+
+    @Test
+    fun `EMPTY has no columns and no height`() {
+        assertThat(SessionGrid.EMPTY.columnCount).isEqualTo(0)
+        assertThat(SessionGrid.EMPTY.height).isEqualTo(0)
+    }
+
+}
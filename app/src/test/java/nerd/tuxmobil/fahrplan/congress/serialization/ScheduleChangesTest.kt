@@ -1,6 +1,7 @@
 package nerd.tuxmobil.fahrplan.congress.serialization
 
 import com.google.common.truth.Truth.assertThat
+import nerd.tuxmobil.fahrplan.congress.dataconverters.sanitize
 import nerd.tuxmobil.fahrplan.congress.models.Session
 import nerd.tuxmobil.fahrplan.congress.serialization.ScheduleChanges.Companion.computeSessionsWithChangeFlags
 import org.junit.Test
@@ -59,6 +60,43 @@ class ScheduleChangesTest {
         assertThat(scheduleChanges.foundChanges).isFalse()
     }
 
+    @Test
+    fun `computeSessionsWithChangeFlags does not compare the fields of sessions with equal content hashes`() {
+        val oldSessions = listOf(createSession { title = "Old title"; contentHash = 23 })
+        val newSessions = listOf(createSession { title = "New title"; contentHash = 23 })
+        val scheduleChanges = computeSessionsWithChangeFlags(newSessions, oldSessions)
+        assertThat(scheduleChanges.sessionsWithChangeFlags.single().changedTitle).isFalse()
+        assertThat(scheduleChanges.foundChanges).isFalse()
+    }
+
+    @Test
+    fun `computeSessionsWithChangeFlags compares the fields of sessions with different content hashes`() {
+        val oldSessions = listOf(createSession { title = "Title"; contentHash = 23 })
+        val newSessions = listOf(createSession { title = "Title"; contentHash = 42 })
+        val scheduleChanges = computeSessionsWithChangeFlags(newSessions, oldSessions)
+        assertThat(scheduleChanges.sessionsWithChangeFlags.single().isChanged).isFalse()
+        assertThat(scheduleChanges.foundChanges).isFalse()
+    }
+
+    @Test
+    fun `computeSessionsWithChangeFlags does not flag sessions which only differ before being sanitized`() {
+        // Content hashes are computed by the parser from the values before sanitize() runs.
+        val oldSessions = listOf(createSession { lang = "EN"; contentHash = 23 }.sanitize())
+        val newSessions = listOf(createSession { lang = "en"; contentHash = 42 }.sanitize())
+        val scheduleChanges = computeSessionsWithChangeFlags(newSessions, oldSessions)
+        assertThat(scheduleChanges.sessionsWithChangeFlags.single().isChanged).isFalse()
+        assertThat(scheduleChanges.foundChanges).isFalse()
+    }
+
+    @Test
+    fun `computeSessionsWithChangeFlags compares the fields if the content hash of a session is unknown`() {
+        val oldSessions = listOf(createSession { title = "Old title" })
+        val newSessions = listOf(createSession { title = "New title"; contentHash = 42 })
+        val scheduleChanges = computeSessionsWithChangeFlags(newSessions, oldSessions)
+        assertThat(scheduleChanges.sessionsWithChangeFlags.single().changedTitle).isTrue()
+        assertThat(scheduleChanges.foundChanges).isTrue()
+    }
+
     @Test
     fun `computeSessionsWithChangeFlags flags and returns new sessions and true if title has changed`() {
         val oldSessions = listOf(createSession { title = "Old title" })
@@ -276,6 +314,46 @@ class ScheduleChangesTest {
         assertThat(scheduleChanges.foundChanges).isTrue()
     }
 
+    @Test
+    fun `computeSessionsWithChangeFlags matches sessions regardless of their order and keeps the order of canceled sessions`() {
+        val oldSessions = listOf(
+                createSession(sessionId = "s1"),
+                createSession(sessionId = "s2"),
+                createSession(sessionId = "s3"),
+                createSession(sessionId = "s4")
+        )
+        val newSessions = listOf(
+                createSession(sessionId = "s3"),
+                createSession(sessionId = "s5")
+        )
+        val scheduleChanges = computeSessionsWithChangeFlags(newSessions, oldSessions)
+        assertThat(scheduleChanges.sessionsWithChangeFlags).isEqualTo(listOf(
+                createSession(sessionId = "s3"),
+                createSession(sessionId = "s5") { changedIsNew = true },
+                createSession(sessionId = "s1") { changedIsCanceled = true },
+                createSession(sessionId = "s2") { changedIsCanceled = true },
+                createSession(sessionId = "s4") { changedIsCanceled = true }
+        ))
+        assertThat(scheduleChanges.oldCanceledSessions).isEmpty()
+        assertThat(scheduleChanges.foundChanges).isTrue()
+    }
+
+    @Test
+    fun `computeSessionsWithChangeFlags flags sessions as new and canceled if the session id is not unique`() {
+        val oldSessions = listOf(
+                createSession(sessionId = "s1") { title = "First" },
+                createSession(sessionId = "s1") { title = "Second" }
+        )
+        val newSessions = listOf(createSession(sessionId = "s1") { title = "First" })
+        val scheduleChanges = computeSessionsWithChangeFlags(newSessions, oldSessions)
+        assertThat(scheduleChanges.sessionsWithChangeFlags).isEqualTo(listOf(
+                createSession(sessionId = "s1") { title = "First"; changedIsNew = true },
+                createSession(sessionId = "s1") { title = "First"; changedIsCanceled = true },
+                createSession(sessionId = "s1") { title = "Second"; changedIsCanceled = true }
+        ))
+        assertThat(scheduleChanges.foundChanges).isTrue()
+    }
+
     private fun createSession(sessionId: String = "1", block: Session.() -> Unit = {}) = Session(sessionId).apply(block)
 
 }
@@ -0,0 +1,64 @@
+package info.metadude.android.eventfahrplan.benchmarks
+
+import info.metadude.android.eventfahrplan.network.temporal.DateParser
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OperationsPerInvocation
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class DateParserBenchmark {
+
+    private companion object {
+        const val INPUTS_COUNT = 1024
+    }
+
+    private lateinit var hoursMinutes: Array<String>
+    private lateinit var dateTimes: Array<String>
+    private lateinit var dates: Array<String>
+
+    @Setup
+    fun setUp() {
+        hoursMinutes = Array(INPUTS_COUNT) { "%02d:%02d".format(it / 60 % 24, it % 60) }
+        dateTimes = Array(INPUTS_COUNT) { "2021-12-%02dT%02d:%02d:00+01:00".format(it % 28 + 1, it / 60 % 24, it % 60) }
+        dates = Array(INPUTS_COUNT) { "2021-12-%02d".format(it % 28 + 1) }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS_COUNT)
+    fun getMinutes(): Int {
+        var sum = 0
+        for (text in hoursMinutes) {
+            sum += DateParser.getMinutes(text)
+        }
+        return sum
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS_COUNT)
+    fun getDateTimeOfDateTime(): Long {
+        var sum = 0L
+        for (text in dateTimes) {
+            sum += DateParser.getDateTime(text)
+        }
+        return sum
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INPUTS_COUNT)
+    fun getDateTimeOfDate(): Long {
+        var sum = 0L
+        for (text in dates) {
+            sum += DateParser.getDateTime(text)
+        }
+        return sum
+    }
+
+}
@@ -0,0 +1,49 @@
+package info.metadude.android.eventfahrplan.benchmarks
+
+import info.metadude.android.eventfahrplan.network.models.Session
+import info.metadude.android.eventfahrplan.network.serialization.FahrplanParser
+import org.kxml2.io.KXmlParser
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.xmlpull.v1.XmlPullParser
+import java.io.ByteArrayInputStream
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+open class FahrplanParserBenchmark {
+
+    @Param("1000", "5000", "20000")
+    @JvmField
+    var sessionsCount = 0
+
+    private lateinit var scheduleXml: ByteArray
+
+    @Setup
+    fun setUp() {
+        scheduleXml = SyntheticSchedule(sessionsCount).toXml().toByteArray(Charsets.UTF_8)
+    }
+
+    @Benchmark
+    fun parse(): List<Session> {
+        val parser = FahrplanParser({ false }, ::newPullParser, NoLogging)
+        check(parser.parse(ByteArrayInputStream(scheduleXml), "UTF-8", "")) { "Parsing failed." }
+        return parser.sessions
+    }
+
+    /**
+     * Configures the parser like Android's `Xml.newPullParser()` does.
+     */
+    private fun newPullParser(): XmlPullParser = KXmlParser().apply {
+        setFeature(XmlPullParser.FEATURE_PROCESS_DOCDECL, true)
+        setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true)
+    }
+
+}
@@ -0,0 +1,51 @@
+package info.metadude.android.eventfahrplan.benchmarks
+
+import nerd.tuxmobil.fahrplan.congress.models.ScheduleData
+import nerd.tuxmobil.fahrplan.congress.repositories.SessionsTransformer
+import nerd.tuxmobil.fahrplan.congress.schedule.Conference
+import nerd.tuxmobil.fahrplan.congress.schedule.LayoutCalculator
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class LayoutCalculatorBenchmark {
+
+    /**
+     * Number of sessions of the whole schedule. A quarter of them takes place on the benchmarked day.
+     */
+    @Param("1000", "5000", "20000")
+    @JvmField
+    var sessionsCount = 0
+
+    private val layoutCalculator = LayoutCalculator(standardHeight = 34, logging = NoLogging)
+    private lateinit var scheduleData: ScheduleData
+    private lateinit var conference: Conference
+
+    @Setup
+    fun setUp() {
+        val sessionsOfDay = SyntheticSchedule(sessionsCount).toAppSessions().filter { it.day == 1 }
+        scheduleData = SessionsTransformer.createSessionsTransformer().transformSessions(1, sessionsOfDay)
+        conference = Conference.ofSessions(sessionsOfDay.sortedBy { it.dateUTC })
+    }
+
+    /**
+     * Calculates the layout parameters of all rooms of the day as done when the schedule is displayed.
+     */
+    @Benchmark
+    fun calculateLayoutParams(blackhole: Blackhole) {
+        for (roomData in scheduleData.roomDataList) {
+            blackhole.consume(layoutCalculator.calculateLayoutParams(roomData, conference))
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package info.metadude.android.eventfahrplan.benchmarks
+
+import info.metadude.android.eventfahrplan.commons.logging.Logging
+
+/**
+ * Discards all messages. Android's log is not available on the JVM.
+ */
+object NoLogging : Logging {
+
+    override fun d(tag: String, message: String) = Unit
+
+    override fun e(tag: String, message: String) = Unit
+
+    override fun report(tag: String, message: String) = Unit
+
+}
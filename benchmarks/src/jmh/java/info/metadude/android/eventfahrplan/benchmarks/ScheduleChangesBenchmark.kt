@@ -0,0 +1,45 @@
+package info.metadude.android.eventfahrplan.benchmarks
+
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import nerd.tuxmobil.fahrplan.congress.serialization.ScheduleChanges
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+open class ScheduleChangesBenchmark {
+
+    @Param("1000", "5000", "20000")
+    @JvmField
+    var sessionsCount = 0
+
+    /**
+     * Share of sessions which are removed, changed or added in the new schedule.
+     */
+    @Param("0.0", "0.05")
+    @JvmField
+    var changeRatio = 0.0
+
+    private lateinit var oldSessions: List<Session>
+    private lateinit var newSessions: List<Session>
+
+    @Setup
+    fun setUp() {
+        val schedule = SyntheticSchedule(sessionsCount)
+        oldSessions = schedule.toAppSessions()
+        newSessions = schedule.toChangedAppSessions(changeRatio)
+    }
+
+    @Benchmark
+    fun computeSessionsWithChangeFlags() =
+            ScheduleChanges.computeSessionsWithChangeFlags(newSessions, oldSessions)
+
+}
@@ -0,0 +1,39 @@
+package info.metadude.android.eventfahrplan.benchmarks
+
+import nerd.tuxmobil.fahrplan.congress.models.ScheduleData
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import nerd.tuxmobil.fahrplan.congress.repositories.SessionsTransformer
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class SessionsTransformerBenchmark {
+
+    /**
+     * Number of sessions of the whole schedule. A quarter of them takes place on the benchmarked day.
+     */
+    @Param("1000", "5000", "20000")
+    @JvmField
+    var sessionsCount = 0
+
+    private val sessionsTransformer = SessionsTransformer.createSessionsTransformer()
+    private lateinit var sessionsOfDay: List<Session>
+
+    @Setup
+    fun setUp() {
+        sessionsOfDay = SyntheticSchedule(sessionsCount).toAppSessions().filter { it.day == 1 }
+    }
+
+    @Benchmark
+    fun transformSessions(): ScheduleData = sessionsTransformer.transformSessions(1, sessionsOfDay)
+
+}
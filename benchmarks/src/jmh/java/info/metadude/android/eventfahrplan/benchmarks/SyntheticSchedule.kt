@@ -0,0 +1,202 @@
+package info.metadude.android.eventfahrplan.benchmarks
+
+import nerd.tuxmobil.fahrplan.congress.models.Session
+import org.threeten.bp.LocalDate
+import org.threeten.bp.LocalTime
+import org.threeten.bp.ZoneOffset
+import org.threeten.bp.format.DateTimeFormatter
+import kotlin.random.Random
+
+/**
+ * Generates a synthetic schedule with the given number of sessions.
+ *
+ * Sessions are spread evenly over [daysCount] days and [roomsCount] rooms. Each room offers
+ * hourly slots starting at 09:00 which are filled with sessions of varying duration.
+ * The output only depends on the constructor parameters so that benchmark runs are comparable.
+ */
+class SyntheticSchedule(
+
+        val sessionsCount: Int,
+        val daysCount: Int = 4,
+        val roomsCount: Int = defaultRoomsCount(sessionsCount, daysCount),
+        private val seed: Int = 42
+
+) {
+
+    companion object {
+
+        private const val SLOTS_PER_ROOM_AND_DAY = 12
+        private const val FIRST_SLOT_STARTS_AT = 9 * 60
+        private const val SLOT_DURATION = 60
+        private val DURATIONS = intArrayOf(30, 45, 60)
+        private val FIRST_DAY = LocalDate.of(2021, 12, 27)
+        private val TIME_ZONE_OFFSET = ZoneOffset.ofHours(1)
+        private val DATE_TIME_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME
+
+        fun defaultRoomsCount(sessionsCount: Int, daysCount: Int) =
+                (sessionsCount / (daysCount * SLOTS_PER_ROOM_AND_DAY) + 1).coerceAtLeast(1)
+
+    }
+
+    private val sessions: List<SyntheticSession> by lazy { generateSessions() }
+
+    /**
+     * Returns the schedule in the XML format consumed by the network parser.
+     */
+    fun toXml(): String = buildString {
+        append("""<?xml version="1.0" encoding="UTF-8"?>""").append('\n')
+        append("<schedule>\n")
+        append("  <version>Synthetic $sessionsCount</version>\n")
+        append("  <conference>\n")
+        append("    <title>Synthetic Conference</title>\n")
+        append("    <start>").append(FIRST_DAY).append("</start>\n")
+        append("    <end>").append(FIRST_DAY.plusDays(daysCount - 1L)).append("</end>\n")
+        append("    <days>").append(daysCount).append("</days>\n")
+        append("    <timeslot_duration>00:15</timeslot_duration>\n")
+        append("    <time_zone_name>Europe/Berlin</time_zone_name>\n")
+        append("  </conference>\n")
+        for ((dayIndex, sessionsOfDay) in sessions.groupBy { it.dayIndex }) {
+            val date = FIRST_DAY.plusDays(dayIndex - 1L)
+            val dayStart = date.atTime(4, 0).atOffset(TIME_ZONE_OFFSET).format(DATE_TIME_FORMATTER)
+            val dayEnd = date.plusDays(1).atTime(3, 59).atOffset(TIME_ZONE_OFFSET).format(DATE_TIME_FORMATTER)
+            append("""  <day index="$dayIndex" date="$date" start="$dayStart" end="$dayEnd">""").append('\n')
+            for ((room, sessionsInRoom) in sessionsOfDay.groupBy { it.room }) {
+                append("""    <room name="$room">""").append('\n')
+                sessionsInRoom.forEach { appendEvent(it) }
+                append("    </room>\n")
+            }
+            append("  </day>\n")
+        }
+        append("</schedule>\n")
+    }
+
+    /**
+     * Returns the schedule as application models as they are read from the database.
+     */
+    fun toAppSessions(): List<Session> = sessions.map { it.toAppSession() }
+
+    /**
+     * Returns a modified copy of the application models. Roughly a third of the given
+     * [changeRatio] of sessions is removed, changed or added respectively.
+     */
+    fun toChangedAppSessions(changeRatio: Double): List<Session> {
+        val random = Random(seed + 1)
+        val changedSessions = ArrayList<Session>(sessions.size)
+        var addedSessionsCount = 0
+        for (syntheticSession in sessions) {
+            val session = syntheticSession.toAppSession()
+            if (random.nextDouble() >= changeRatio) {
+                changedSessions += session
+                continue
+            }
+            when (random.nextInt(3)) {
+                0 -> Unit // removed
+                1 -> changedSessions += session.apply {
+                    title = "$title (updated)"
+                    room = "Room ${random.nextInt(roomsCount) + 1}"
+                }
+                else -> {
+                    changedSessions += session
+                    changedSessions += syntheticSession.toAppSession().apply {
+                        sessionId = "added-${++addedSessionsCount}"
+                    }
+                }
+            }
+        }
+        return changedSessions
+    }
+
+    private fun generateSessions(): List<SyntheticSession> {
+        val random = Random(seed)
+        val sessionsPerDay = (sessionsCount + daysCount - 1) / daysCount
+        return List(sessionsCount) { index ->
+            val dayIndex = index / sessionsPerDay + 1
+            val indexOfDay = index % sessionsPerDay
+            val roomIndex = indexOfDay % roomsCount
+            val slot = indexOfDay / roomsCount
+            val startsAt = FIRST_SLOT_STARTS_AT + slot * SLOT_DURATION
+            val id = index + 1
+            SyntheticSession(
+                    sessionId = "$id",
+                    dayIndex = dayIndex,
+                    date = FIRST_DAY.plusDays(dayIndex - 1L),
+                    room = "Room ${roomIndex + 1}",
+                    roomIndex = roomIndex,
+                    startsAt = LocalTime.of(startsAt / 60 % 24, startsAt % 60),
+                    duration = DURATIONS[random.nextInt(DURATIONS.size)],
+                    title = "Session $id",
+                    subtitle = "Subtitle of session $id",
+                    track = "Track ${random.nextInt(8) + 1}",
+                    language = if (random.nextBoolean()) "en" else "de",
+                    speakers = List(random.nextInt(3) + 1) { "Speaker ${random.nextInt(sessionsCount) + 1}" },
+                    description = "Description of session $id. ".repeat(random.nextInt(10) + 1).trim()
+            )
+        }
+    }
+
+    private fun StringBuilder.appendEvent(session: SyntheticSession) {
+        val startsAt = session.startsAt.atDate(session.date).atOffset(TIME_ZONE_OFFSET)
+        append("""      <event guid="00000000-0000-0000-0000-${session.sessionId.padStart(12, '0')}" id="${session.sessionId}">""").append('\n')
+        append("        <date>").append(startsAt.format(DATE_TIME_FORMATTER)).append("</date>\n")
+        append("        <start>").append(session.startsAt).append("</start>\n")
+        append("        <duration>").append(LocalTime.MIDNIGHT.plusMinutes(session.duration.toLong())).append("</duration>\n")
+        append("        <room>").append(session.room).append("</room>\n")
+        append("        <slug>synthetic-").append(session.sessionId).append("</slug>\n")
+        append("        <url>https://example.com/events/").append(session.sessionId).append(".html</url>\n")
+        append("        <title>").append(session.title).append("</title>\n")
+        append("        <subtitle>").append(session.subtitle).append("</subtitle>\n")
+        append("        <track>").append(session.track).append("</track>\n")
+        append("        <type>lecture</type>\n")
+        append("        <language>").append(session.language).append("</language>\n")
+        append("        <abstract>").append(session.title).append("</abstract>\n")
+        append("        <description>").append(session.description).append("</description>\n")
+        append("        <recording>\n")
+        append("          <license>CC BY 4.0</license>\n")
+        append("          <optout>false</optout>\n")
+        append("        </recording>\n")
+        append("        <persons>\n")
+        session.speakers.forEachIndexed { index, speaker ->
+            append("""          <person id="$index">""").append(speaker).append("</person>\n")
+        }
+        append("        </persons>\n")
+        append("        <links>\n")
+        append("""          <link href="https://example.com/links/${session.sessionId}">Link</link>""").append('\n')
+        append("        </links>\n")
+        append("      </event>\n")
+    }
+
+    private fun SyntheticSession.toAppSession() = Session(sessionId).also {
+        it.title = title
+        it.subtitle = subtitle
+        it.day = dayIndex
+        it.date = date.toString()
+        it.dateUTC = startsAt.atDate(date).atOffset(TIME_ZONE_OFFSET).toInstant().toEpochMilli()
+        it.timeZoneOffset = TIME_ZONE_OFFSET
+        it.startTime = startsAt.toSecondOfDay() / 60
+        it.relStartTime = it.startTime
+        it.duration = duration
+        it.room = room
+        it.roomIndex = roomIndex
+        it.track = track
+        it.lang = language
+        it.speakers = speakers.joinToString(";")
+        it.description = description
+    }
+
+    private class SyntheticSession(
+            val sessionId: String,
+            val dayIndex: Int,
+            val date: LocalDate,
+            val room: String,
+            val roomIndex: Int,
+            val startsAt: LocalTime,
+            val duration: Int,
+            val title: String,
+            val subtitle: String,
+            val track: String,
+            val language: String,
+            val speakers: List<String>,
+            val description: String
+    )
+
+}
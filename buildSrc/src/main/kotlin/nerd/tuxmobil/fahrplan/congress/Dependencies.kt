@@ -20,6 +20,7 @@ object Plugins {
     private object Versions {
         const val android = "7.0.2"
         const val androidJunitJacoco = "0.16.0"
+        const val jmh = "0.6.6"
         const val kotlin = "1.5.31"
         const val sonarQube = "3.3"
         const val unMock = "0.7.8"
@@ -28,6 +29,7 @@ object Plugins {
 
     const val android = "com.android.tools.build:gradle:${Versions.android}"
     const val androidJunitJacoco = "com.vanniktech:gradle-android-junit-jacoco-plugin:${Versions.androidJunitJacoco}"
+    const val jmh = "me.champeau.jmh:jmh-gradle-plugin:${Versions.jmh}"
     const val kotlin = "org.jetbrains.kotlin:kotlin-gradle-plugin:${Versions.kotlin}"
     const val sonarQube = "org.sonarsource.scanner.gradle:sonarqube-gradle-plugin:${Versions.sonarQube}"
     const val unMock = "com.github.bjoernq:unmockplugin:${Versions.unMock}"
@@ -41,13 +43,16 @@ object Libs {
         const val appCompat = "1.3.1"
         const val assertjAndroid = "1.2.0"
         const val betterLinkMovementMethod = "2.2.0"
+        const val brotli = "0.1.2"
         const val constraintLayout = "2.1.0"
         const val coreKtx = "1.6.0"
         const val emailIntentBuilder = "2.0.0"
         const val engelsystem = "5.2.0"
         const val espresso = "3.4.0"
+        const val jmh = "1.33"
         const val junit = "4.13.2"
         const val kotlinCoroutines = "1.5.2"
+        const val kxml2 = "2.3.0"
         const val markwon = "4.6.2"
         const val material = "1.4.0"
         const val mockito = "3.12.0"
@@ -68,14 +73,18 @@ object Libs {
     const val appCompat = "androidx.appcompat:appcompat:${Versions.appCompat}"
     const val assertjAndroid = "com.squareup.assertj:assertj-android:${Versions.assertjAndroid}"
     const val betterLinkMovementMethod = "me.saket:better-link-movement-method:${Versions.betterLinkMovementMethod}"
+    const val brotliDecoder = "org.brotli:dec:${Versions.brotli}"
     const val constraintLayout = "androidx.constraintlayout:constraintlayout:${Versions.constraintLayout}"
     const val coreKtx = "androidx.core:core-ktx:${Versions.coreKtx}"
     const val emailIntentBuilder = "de.cketti.mailto:email-intent-builder:${Versions.emailIntentBuilder}"
     const val engelsystem = "info.metadude.kotlin.library.engelsystem:engelsystem-base:${Versions.engelsystem}"
     const val espresso = "androidx.test.espresso:espresso-core:${Versions.espresso}"
+    const val jmhCore = "org.openjdk.jmh:jmh-core:${Versions.jmh}"
+    const val jmhGeneratorBytecode = "org.openjdk.jmh:jmh-generator-bytecode:${Versions.jmh}"
     const val junit = "junit:junit:${Versions.junit}"
     const val kotlinCoroutinesAndroid = "org.jetbrains.kotlinx:kotlinx-coroutines-android:${Versions.kotlinCoroutines}"
     const val kotlinCoroutinesCore = "org.jetbrains.kotlinx:kotlinx-coroutines-core:${Versions.kotlinCoroutines}"
+    const val kxml2 = "net.sf.kxml:kxml2:${Versions.kxml2}"
     const val markwonCore = "io.noties.markwon:core:${Versions.markwon}"
     const val markwonLinkify = "io.noties.markwon:linkify:${Versions.markwon}"
     const val material = "com.google.android.material:material:${Versions.material}"
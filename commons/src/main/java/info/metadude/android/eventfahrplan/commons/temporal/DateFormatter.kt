@@ -7,16 +7,40 @@ import org.threeten.bp.ZoneOffset
 import org.threeten.bp.ZonedDateTime
 import org.threeten.bp.format.DateTimeFormatter
 import org.threeten.bp.format.FormatStyle
+import java.util.Locale
+import java.util.concurrent.atomic.AtomicReferenceArray
 
 /**
  * Format timestamps according to system locale and system time zone.
+ *
+ * Instances are cached per [locale] and [useDeviceTimeZone] mode, see [newInstance].
+ * They are immutable apart from the memoized formatted texts and can be shared across threads.
  */
 class DateFormatter private constructor(
 
-    val useDeviceTimeZone: Boolean
+    val useDeviceTimeZone: Boolean,
+    private val locale: Locale
 
 ) {
 
+    /**
+     * Key of a memoized formatted text. The zone offset is the resolved one so that
+     * changes of the device time zone are taken into account.
+     */
+    private data class FormattedTextKey(
+        val format: Int,
+        val time: Long,
+        val zoneOffsetSeconds: Int
+    )
+
+    /**
+     * Least recently used formatted texts. Access must be synchronized on the map.
+     */
+    private val formattedTexts = object : LinkedHashMap<FormattedTextKey, String>(FORMATTED_TEXTS_CAPACITY, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<FormattedTextKey, String>) =
+            size > FORMATTED_TEXTS_CAPACITY
+    }
+
     private val timeShortNumberOnlyFormatter = DateTimeFormatter.ofPattern("HH:mm")
     private val timeShortFormatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT)
     private val dateShortFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT)
@@ -34,7 +58,9 @@ class DateFormatter private constructor(
      */
     fun getFormattedTime24Hour(moment: Moment, sessionZoneOffset: ZoneOffset?): String {
         val zoneOffset = getAvailableZoneOffset(sessionZoneOffset)
-        return timeShortNumberOnlyFormatter.format(moment.toZonedDateTime(zoneOffset))
+        return getOrFormat(FORMAT_TIME_24_HOUR, moment.toMilliseconds(), zoneOffset) {
+            timeShortNumberOnlyFormatter.format(moment.toZonedDateTime(zoneOffset))
+        }
     }
 
     /**
@@ -47,7 +73,9 @@ class DateFormatter private constructor(
      */
     fun getFormattedTime(time: Long, sessionZoneOffset: ZoneOffset?): String {
         val zoneOffset = getAvailableZoneOffset(sessionZoneOffset)
-        return timeShortFormatter.withZone(zoneOffset).format(Instant.ofEpochMilli(time))
+        return getOrFormat(FORMAT_TIME, time, zoneOffset) {
+            timeShortFormatter.withZone(zoneOffset).format(Instant.ofEpochMilli(time))
+        }
     }
 
     /**
@@ -60,7 +88,9 @@ class DateFormatter private constructor(
      */
     fun getFormattedDate(time: Long, sessionZoneOffset: ZoneOffset?): String {
         val zoneOffset = getAvailableZoneOffset(sessionZoneOffset)
-        return dateShortFormatter.withZone(zoneOffset).format(Instant.ofEpochMilli(time))
+        return getOrFormat(FORMAT_DATE, time, zoneOffset) {
+            dateShortFormatter.withZone(zoneOffset).format(Instant.ofEpochMilli(time))
+        }
     }
 
     /**
@@ -94,8 +124,26 @@ class DateFormatter private constructor(
      */
     fun getFormattedDateTimeShort(time: Long, sessionZoneOffset: ZoneOffset?): String {
         val zoneOffset = getAvailableZoneOffset(sessionZoneOffset)
-        val toZonedDateTime: ZonedDateTime = Moment.ofEpochMilli(time).toZonedDateTime(zoneOffset)
-        return dateShortTimeShortFormatter.format(toZonedDateTime)
+        return getOrFormat(FORMAT_DATE_TIME_SHORT, time, zoneOffset) {
+            val toZonedDateTime: ZonedDateTime = Moment.ofEpochMilli(time).toZonedDateTime(zoneOffset)
+            dateShortTimeShortFormatter.format(toZonedDateTime)
+        }
+    }
+
+    /**
+     * Returns the memoized text for the given [format], [time] and [zoneOffset] or
+     * formats it via [formatText] and memoizes it. Formatting happens outside of the lock.
+     */
+    private inline fun getOrFormat(format: Int, time: Long, zoneOffset: ZoneOffset, formatText: () -> String): String {
+        val key = FormattedTextKey(format, time, zoneOffset.totalSeconds)
+        synchronized(formattedTexts) {
+            formattedTexts[key]
+        }?.let { return it }
+        val text = formatText()
+        synchronized(formattedTexts) {
+            formattedTexts[key] = text
+        }
+        return text
     }
 
     /**
@@ -110,9 +158,42 @@ class DateFormatter private constructor(
 
     companion object {
 
+        private const val FORMATTED_TEXTS_CAPACITY = 512
+
+        private const val FORMAT_TIME_24_HOUR = 0
+        private const val FORMAT_TIME = 1
+        private const val FORMAT_DATE = 2
+        private const val FORMAT_DATE_TIME_SHORT = 3
+
+        /**
+         * Cached instances indexed by the [useDeviceTimeZone] mode.
+         */
+        private val instances = AtomicReferenceArray<DateFormatter>(2)
+
+        /**
+         * Returns the cached instance for the given [useDeviceTimeZone] mode and the current
+         * default locale. A new instance is created if the locale changed in the meantime.
+         */
         @JvmStatic
         fun newInstance(useDeviceTimeZone: Boolean): DateFormatter {
-            return DateFormatter(useDeviceTimeZone)
+            val locale = Locale.getDefault()
+            val index = if (useDeviceTimeZone) 1 else 0
+            val instance = instances.get(index)
+            if (instance != null && instance.locale == locale) {
+                return instance
+            }
+            return DateFormatter(useDeviceTimeZone, locale).also { instances.set(index, it) }
+        }
+
+        /**
+         * Drops the cached instances along with their formatted texts.
+         * To be invoked when the system locale changes.
+         */
+        @JvmStatic
+        fun clearCache() {
+            for (index in 0 until instances.length()) {
+                instances.set(index, null)
+            }
         }
     }
 }
@@ -12,9 +12,14 @@ object DateParser {
      * Parses the given [text] and returns its date value represented in milliseconds.
      *
      * Expects the [text] to be provided in [ISO_DATE_TIME][DateTimeFormatter.ISO_DATE_TIME]
-     * format (e.g. 2019-01-01T00:00:00Z).
+     * format (e.g. 2019-01-01T00:00:00Z). The common formats are parsed by the
+     * [FixedFormatDateParser]. Any other text is handed over to ThreeTenBP.
      */
     fun parseDateTime(text: String): Long {
+        val milliseconds = FixedFormatDateParser.parseDateTime(text)
+        if (milliseconds != FixedFormatDateParser.INVALID_MILLISECONDS) {
+            return milliseconds
+        }
         val instant = Instant.from(DateTimeFormatter.ISO_DATE_TIME.parse(text))
         val atUtcOffset = instant.atOffset(ZoneOffset.UTC)
         return atUtcOffset.toEpochSecond() * Moment.MILLISECONDS_OF_ONE_SECOND
@@ -28,6 +33,10 @@ object DateParser {
      */
     @JvmStatic
     fun parseTimeZoneOffset(text: String): Int {
+        val offsetSeconds = FixedFormatDateParser.parseTimeZoneOffset(text)
+        if (offsetSeconds != FixedFormatDateParser.INVALID_SECONDS) {
+            return offsetSeconds
+        }
         val zonedDateTime = try {
             ZonedDateTime.parse(text, DateTimeFormatter.ISO_DATE_TIME)
         } catch (e: DateTimeParseException) {
@@ -0,0 +1,58 @@
+package info.metadude.android.eventfahrplan.commons.temporal
+
+/**
+ * Converts between days since 1970-01-01 and dates of the proleptic Gregorian calendar
+ * without allocating any objects. Years are counted from March so that the leap day is
+ * the last day of a year.
+ *
+ * Dates are passed around packed as year, month and day bits into a single [Int],
+ * see [year], [month] and [day].
+ */
+internal object EpochDay {
+
+    /**
+     * Days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar.
+     */
+    private const val DAYS_0000_TO_1970 = 719_468L
+    private const val DAYS_PER_400_YEARS = 146_097L
+
+    private const val YEAR_SHIFT = 9
+    private const val MONTH_SHIFT = 5
+    private const val MONTH_MASK = 0xf
+    private const val DAY_MASK = 0x1f
+
+    /**
+     * Returns the days since 1970-01-01 of the given date. The date is expected to be valid.
+     */
+    fun of(year: Int, month: Int, day: Int): Long {
+        val marchBasedYear = if (month <= 2) year - 1L else year.toLong()
+        val era = Math.floorDiv(marchBasedYear, 400L)
+        val yearOfEra = marchBasedYear - era * 400
+        val dayOfYear = (153 * (if (month > 2) month - 3 else month + 9) + 2) / 5 + day - 1
+        val dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970
+    }
+
+    /**
+     * Returns the packed date of the given [epochDay].
+     */
+    fun toPackedDate(epochDay: Long): Int {
+        val marchBasedDay = epochDay + DAYS_0000_TO_1970
+        val era = Math.floorDiv(marchBasedDay, DAYS_PER_400_YEARS)
+        val dayOfEra = marchBasedDay - era * DAYS_PER_400_YEARS
+        val yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365
+        val dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100)
+        val marchBasedMonth = (5 * dayOfYear + 2) / 153
+        val day = (dayOfYear - (153 * marchBasedMonth + 2) / 5 + 1).toInt()
+        val month = (if (marchBasedMonth < 10) marchBasedMonth + 3 else marchBasedMonth - 9).toInt()
+        val year = (yearOfEra + era * 400 + if (month <= 2) 1 else 0).toInt()
+        return year shl YEAR_SHIFT or (month shl MONTH_SHIFT) or day
+    }
+
+    fun year(packedDate: Int) = packedDate shr YEAR_SHIFT
+
+    fun month(packedDate: Int) = packedDate shr MONTH_SHIFT and MONTH_MASK
+
+    fun day(packedDate: Int) = packedDate and DAY_MASK
+
+}
@@ -0,0 +1,207 @@
+package info.metadude.android.eventfahrplan.commons.temporal
+
+import info.metadude.android.eventfahrplan.commons.temporal.Moment.Companion.MILLISECONDS_OF_ONE_SECOND
+
+/**
+ * Parses the fixed date and time formats found in frab and Pentabarf schedules without
+ * allocating any objects. All functions work on a range of characters.
+ *
+ * Validation is strict: each function returns an `INVALID_*` sentinel value if the text does not
+ * match the expected format exactly or if a field is out of range. Callers then fall back to the
+ * ThreeTenBP parsers which handle the rarely used ISO-8601 variants, e.g. fractional seconds,
+ * and report malformed values.
+ */
+object FixedFormatDateParser {
+
+    const val INVALID_MILLISECONDS = Long.MIN_VALUE
+    const val INVALID_SECONDS = Int.MIN_VALUE
+    const val INVALID_MINUTES = -1
+
+    private const val INVALID_VALUE = -1
+    private const val INVALID_EPOCH_DAY = Long.MIN_VALUE
+
+    private const val DATE_LENGTH = 10 // yyyy-MM-dd
+    private const val MINUTE_END = 16 // yyyy-MM-ddTHH:mm
+    private const val SECONDS_OF_ONE_MINUTE = 60
+    private const val SECONDS_OF_ONE_HOUR = 60 * SECONDS_OF_ONE_MINUTE
+    private const val SECONDS_OF_ONE_DAY = 24L * SECONDS_OF_ONE_HOUR
+    private const val MAX_OFFSET_HOURS = 18
+
+    /**
+     * Parses an ISO-8601 date, e.g. `2019-01-01`, and returns the milliseconds
+     * of its start in UTC or [INVALID_MILLISECONDS].
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun parseDate(text: CharSequence, start: Int = 0, end: Int = text.length): Long {
+        if (end - start != DATE_LENGTH) {
+            return INVALID_MILLISECONDS
+        }
+        val epochDay = parseEpochDay(text, start)
+        return if (epochDay == INVALID_EPOCH_DAY) {
+            INVALID_MILLISECONDS
+        } else {
+            epochDay * SECONDS_OF_ONE_DAY * MILLISECONDS_OF_ONE_SECOND
+        }
+    }
+
+    /**
+     * Parses an ISO-8601 date and time with offset, e.g. `2019-01-01T10:30:00+01:00`
+     * or `2019-01-01T09:30Z`, and returns its milliseconds or [INVALID_MILLISECONDS].
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun parseDateTime(text: CharSequence, start: Int = 0, end: Int = text.length): Long {
+        val offsetStart = offsetStartOf(text, start, end)
+        if (offsetStart == INVALID_VALUE) {
+            return INVALID_MILLISECONDS
+        }
+        val epochDay = parseEpochDay(text, start)
+        val secondOfDay = parseSecondOfDay(text, start + DATE_LENGTH + 1, offsetStart)
+        val offsetSeconds = parseOffsetSeconds(text, offsetStart, end)
+        if (epochDay == INVALID_EPOCH_DAY || secondOfDay == INVALID_VALUE || offsetSeconds == INVALID_SECONDS) {
+            return INVALID_MILLISECONDS
+        }
+        return (epochDay * SECONDS_OF_ONE_DAY + secondOfDay - offsetSeconds) * MILLISECONDS_OF_ONE_SECOND
+    }
+
+    /**
+     * Parses an ISO-8601 date and time with offset, see [parseDateTime],
+     * and returns the offset in seconds or [INVALID_SECONDS].
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun parseTimeZoneOffset(text: CharSequence, start: Int = 0, end: Int = text.length): Int {
+        val offsetStart = offsetStartOf(text, start, end)
+        if (offsetStart == INVALID_VALUE ||
+                parseEpochDay(text, start) == INVALID_EPOCH_DAY ||
+                parseSecondOfDay(text, start + DATE_LENGTH + 1, offsetStart) == INVALID_VALUE) {
+            return INVALID_SECONDS
+        }
+        return parseOffsetSeconds(text, offsetStart, end)
+    }
+
+    /**
+     * Parses a time of day or a duration in the `H:mm[:ss]` format, e.g. `9:00` or `09:00:00`,
+     * and returns the minutes or [INVALID_MINUTES]. Seconds are truncated.
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun parseMinuteOfDay(text: CharSequence, start: Int = 0, end: Int = text.length): Int {
+        val colon = when {
+            end - start > 1 && text[start + 1] == ':' -> start + 1
+            end - start > 2 && text[start + 2] == ':' -> start + 2
+            else -> return INVALID_MINUTES
+        }
+        val hour = if (colon == start + 1) digit(text, start) else twoDigits(text, start)
+        val secondOfDay = parseMinutesAndSeconds(text, colon + 1, end)
+        if (hour == INVALID_VALUE || hour > 23 || secondOfDay == INVALID_VALUE) {
+            return INVALID_MINUTES
+        }
+        return hour * 60 + secondOfDay / SECONDS_OF_ONE_MINUTE
+    }
+
+    /**
+     * Returns the index at which the offset of a date and time starts. The minutes are
+     * followed by optional seconds and the offset.
+     */
+    private fun offsetStartOf(text: CharSequence, start: Int, end: Int): Int {
+        val minuteEnd = start + MINUTE_END
+        if (end <= minuteEnd || text[start + DATE_LENGTH] != 'T') {
+            return INVALID_VALUE
+        }
+        val offsetStart = if (text[minuteEnd] == ':') minuteEnd + 3 else minuteEnd
+        return if (offsetStart < end) offsetStart else INVALID_VALUE
+    }
+
+    /**
+     * Parses `yyyy-MM-dd` starting at [start] and returns the days since 1970-01-01.
+     */
+    private fun parseEpochDay(text: CharSequence, start: Int): Long {
+        val century = twoDigits(text, start)
+        val yearOfCentury = twoDigits(text, start + 2)
+        val month = twoDigits(text, start + 5)
+        val day = twoDigits(text, start + 8)
+        if (century == INVALID_VALUE || yearOfCentury == INVALID_VALUE || month == INVALID_VALUE || day == INVALID_VALUE ||
+                text[start + 4] != '-' || text[start + 7] != '-') {
+            return INVALID_EPOCH_DAY
+        }
+        val year = century * 100 + yearOfCentury
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_EPOCH_DAY
+        }
+        return EpochDay.of(year, month, day)
+    }
+
+    /**
+     * Parses `HH:mm` or `HH:mm:ss` in the given range and returns the seconds of the day.
+     */
+    private fun parseSecondOfDay(text: CharSequence, start: Int, end: Int): Int {
+        val hour = twoDigits(text, start)
+        if (hour == INVALID_VALUE || hour > 23 || text[start + 2] != ':') {
+            return INVALID_VALUE
+        }
+        val seconds = parseMinutesAndSeconds(text, start + 3, end)
+        return if (seconds == INVALID_VALUE) INVALID_VALUE else hour * SECONDS_OF_ONE_HOUR + seconds
+    }
+
+    /**
+     * Parses `mm` or `mm:ss` in the given range and returns the seconds.
+     */
+    private fun parseMinutesAndSeconds(text: CharSequence, start: Int, end: Int): Int {
+        val minute = if (end - start == 2 || end - start == 5) twoDigits(text, start) else INVALID_VALUE
+        if (minute == INVALID_VALUE || minute > 59) {
+            return INVALID_VALUE
+        }
+        if (end - start == 2) {
+            return minute * SECONDS_OF_ONE_MINUTE
+        }
+        val second = twoDigits(text, start + 3)
+        if (text[start + 2] != ':' || second == INVALID_VALUE || second > 59) {
+            return INVALID_VALUE
+        }
+        return minute * SECONDS_OF_ONE_MINUTE + second
+    }
+
+    /**
+     * Parses `Z` or `±HH:mm` in the given range and returns the offset in seconds.
+     */
+    private fun parseOffsetSeconds(text: CharSequence, start: Int, end: Int): Int {
+        if (end - start == 1) {
+            return if (text[start] == 'Z') 0 else INVALID_SECONDS
+        }
+        if (end - start != 6 || text[start + 3] != ':') {
+            return INVALID_SECONDS
+        }
+        val sign = when (text[start]) {
+            '+' -> 1
+            '-' -> -1
+            else -> return INVALID_SECONDS
+        }
+        val hours = twoDigits(text, start + 1)
+        val minutes = twoDigits(text, start + 4)
+        if (hours == INVALID_VALUE || minutes == INVALID_VALUE || minutes > 59 ||
+                hours > MAX_OFFSET_HOURS || hours == MAX_OFFSET_HOURS && minutes > 0) {
+            return INVALID_SECONDS
+        }
+        return sign * (hours * SECONDS_OF_ONE_HOUR + minutes * SECONDS_OF_ONE_MINUTE)
+    }
+
+    private fun lengthOfMonth(year: Int, month: Int) = when (month) {
+        2 -> if (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) 29 else 28
+        4, 6, 9, 11 -> 30
+        else -> 31
+    }
+
+    private fun twoDigits(text: CharSequence, index: Int): Int {
+        val tens = digit(text, index)
+        val ones = digit(text, index + 1)
+        return if (tens == INVALID_VALUE || ones == INVALID_VALUE) INVALID_VALUE else tens * 10 + ones
+    }
+
+    private fun digit(text: CharSequence, index: Int): Int {
+        val digit = text[index] - '0'
+        return if (digit in 0..9) digit else INVALID_VALUE
+    }
+
+}
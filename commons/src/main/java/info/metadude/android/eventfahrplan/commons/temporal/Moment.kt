@@ -1,14 +1,10 @@
 package info.metadude.android.eventfahrplan.commons.temporal
 
-import org.threeten.bp.Duration
 import org.threeten.bp.Instant
 import org.threeten.bp.LocalDate
 import org.threeten.bp.LocalDateTime
-import org.threeten.bp.LocalTime
 import org.threeten.bp.ZoneOffset
 import org.threeten.bp.ZonedDateTime
-import org.threeten.bp.temporal.ChronoField
-import org.threeten.bp.temporal.ChronoUnit
 
 /**
  * An instance represents a moment in time. All operations are UTC based.
@@ -17,103 +13,117 @@ import org.threeten.bp.temporal.ChronoUnit
  * E.g.
  *
  * > Moment.now().toZonedDateTime(ZoneOffset.of("GMT+1"))
+ *
+ * The moment is backed by its epoch milliseconds. Fields and arithmetic are computed without
+ * creating any ThreeTenBP objects so that they can be used in layout and scroll loops.
  */
-class Moment private constructor(private val time: Instant) {
+class Moment private constructor(private val milliseconds: Long) {
+
+    /**
+     * The UTC date packed by [EpochDay], computed on first access.
+     * Concurrent first accesses compute the same value hence no synchronization is needed.
+     */
+    private var packedUtcDate = DATE_NOT_COMPUTED
 
     val year: Int
-        get() = time.atZone(ZoneOffset.UTC).year
+        get() = EpochDay.year(utcDate())
 
     val month: Int
-        get() = time.atZone(ZoneOffset.UTC).monthValue
+        get() = EpochDay.month(utcDate())
 
     val monthDay: Int
-        get() = time.atZone(ZoneOffset.UTC).dayOfMonth
+        get() = EpochDay.day(utcDate())
 
     val hour: Int
-        get() = time.atZone(ZoneOffset.UTC).hour
+        get() = (millisecondOfDay() / MILLISECONDS_OF_ONE_HOUR).toInt()
 
     val minute: Int
-        get() = time.atZone(ZoneOffset.UTC).minute
+        get() = minuteOfDay % 60
 
     val minuteOfDay: Int
-        get() = time.atZone(ZoneOffset.UTC).get(ChronoField.MINUTE_OF_DAY)
+        get() = (millisecondOfDay() / MILLISECONDS_OF_ONE_MINUTE).toInt()
 
     /**
      * Returns a copy of this moment, reset to 00:00 hours.
      * Example: 2019-12-31 01:30 => 2019-12-31 00:00
      */
-    fun startOfDay(): Moment {
-        return Moment(toUtcDateTime()
-                .toLocalDate()
-                .atStartOfDay()
-                .toInstant(ZoneOffset.UTC))
-    }
+    fun startOfDay() = Moment(milliseconds - millisecondOfDay())
 
     /**
      * Returns a copy of this moment, reset to 23h 59m 59.999s.
      * Example: 2019-12-31 01:30 => 2019-12-31 23:59:59.999
      */
-    fun endOfDay(): Moment {
-        return Moment(toUtcDateTime()
-                .toLocalDate()
-                .atTime(LocalTime.MAX)
-                .toInstant(ZoneOffset.UTC))
-    }
+    fun endOfDay() = Moment(milliseconds - millisecondOfDay() + MILLISECONDS_OF_ONE_DAY - 1)
 
     /**
      * Returns this moment represented as milliseconds.
      */
-    fun toMilliseconds() = time.toEpochMilli()
+    fun toMilliseconds() = milliseconds
 
     /**
      * Returns this moment as local date normalized to UTC.
      */
-    fun toUtcDateTime(): LocalDateTime = time.atZone(ZoneOffset.UTC).toLocalDateTime()
+    fun toUtcDateTime(): LocalDateTime = LocalDateTime.ofEpochSecond(
+            Math.floorDiv(milliseconds, MILLISECONDS_OF_ONE_SECOND.toLong()),
+            Math.floorMod(milliseconds, MILLISECONDS_OF_ONE_SECOND.toLong()).toInt() * NANOSECONDS_OF_ONE_MILLISECOND,
+            ZoneOffset.UTC)
 
     /**
      * Returns this moment in given [ZoneOffset].
      */
-    fun toZonedDateTime(timeZoneOffset: ZoneOffset): ZonedDateTime = time.atZone(timeZoneOffset)
+    fun toZonedDateTime(timeZoneOffset: ZoneOffset): ZonedDateTime = Instant.ofEpochMilli(milliseconds).atZone(timeZoneOffset)
 
     /**
      * Returns a moment with the given [hours] subtracted.
      */
-    fun minusHours(hours: Long): Moment = Moment(time.minus(hours, ChronoUnit.HOURS))
+    fun minusHours(hours: Long) = Moment(milliseconds - hours * MILLISECONDS_OF_ONE_HOUR)
 
     /**
      * Returns a moment with the given [minutes] subtracted.
      */
-    fun minusMinutes(minutes: Long): Moment = Moment(time.minus(minutes, ChronoUnit.MINUTES))
+    fun minusMinutes(minutes: Long) = Moment(milliseconds - minutes * MILLISECONDS_OF_ONE_MINUTE)
 
     /**
      * Returns a moment with the given [seconds] added.
      */
-    fun plusSeconds(seconds: Long): Moment = Moment(time.plusSeconds(seconds))
+    fun plusSeconds(seconds: Long) = Moment(milliseconds + seconds * MILLISECONDS_OF_ONE_SECOND)
 
     /**
      * Returns a moment with the given [minutes] added.
      */
-    fun plusMinutes(minutes: Long): Moment = Moment(time.plus(minutes, ChronoUnit.MINUTES))
+    fun plusMinutes(minutes: Long) = Moment(milliseconds + minutes * MILLISECONDS_OF_ONE_MINUTE)
 
     /**
      * Returns true if this moment is before given [moment].
      */
-    fun isBefore(moment: Moment): Boolean = time.toEpochMilli() < moment.toMilliseconds()
+    fun isBefore(moment: Moment): Boolean = milliseconds < moment.milliseconds
 
     /**
      * Returns the duration in minutes between this and the given [moment].
+     * Truncates like [org.threeten.bp.Duration.toMinutes].
      */
     fun minutesUntil(moment: Moment): Long {
-        return Duration.between(time, moment.time).toMinutes()
+        return Math.floorDiv(moment.milliseconds - milliseconds, MILLISECONDS_OF_ONE_SECOND.toLong()) / SECONDS_OF_ONE_MINUTE
     }
 
     override fun equals(other: Any?): Boolean {
-        return time == (other as? Moment)?.time
+        return milliseconds == (other as? Moment)?.milliseconds
     }
 
-    override fun hashCode(): Int = time.hashCode()
+    override fun hashCode(): Int = milliseconds.hashCode()
+
+    override fun toString(): String = Instant.ofEpochMilli(milliseconds).toString()
+
+    private fun millisecondOfDay() = Math.floorMod(milliseconds, MILLISECONDS_OF_ONE_DAY)
 
-    override fun toString(): String = time.toString()
+    private fun utcDate(): Int {
+        var packedDate = packedUtcDate
+        if (packedDate == DATE_NOT_COMPUTED) {
+            packedDate = EpochDay.toPackedDate(Math.floorDiv(milliseconds, MILLISECONDS_OF_ONE_DAY))
+            packedUtcDate = packedDate
+        }
+        return packedDate
+    }
 
     companion object {
 
@@ -142,11 +152,23 @@ class Moment private constructor(private val time: Instant) {
          */
         const val MINUTES_OF_ONE_DAY: Int = 24 * 60
 
+        /**
+         * 1 day = 86,400,000 milliseconds
+         */
+        private const val MILLISECONDS_OF_ONE_DAY: Long = 24 * MILLISECONDS_OF_ONE_HOUR
+
+        /**
+         * 1 millisecond = 1,000,000 nanoseconds
+         */
+        private const val NANOSECONDS_OF_ONE_MILLISECOND: Int = 1_000_000
+
+        private const val DATE_NOT_COMPUTED = Int.MIN_VALUE
+
         /**
          * Creates a time zone neutral [Moment] instance of current system clock.
          */
         @JvmStatic
-        fun now() = Moment(Instant.now())
+        fun now() = Moment(System.currentTimeMillis())
 
         /**
          * Creates a time zone neutral [Moment] instance from given [milliseconds].
@@ -154,18 +176,18 @@ class Moment private constructor(private val time: Instant) {
          * @param milliseconds epoch millis to create instance from
          */
         @JvmStatic
-        fun ofEpochMilli(milliseconds: Long) = Moment(Instant.ofEpochMilli(milliseconds))
+        fun ofEpochMilli(milliseconds: Long) = Moment(milliseconds)
 
         /**
          * Creates a time zone neutral [Moment] instance from given [utcDate].
          *
          * @param utcDate must be in ISO-8601 date format, i.e. "yyyy-MM-dd"
          */
-        fun parseDate(utcDate: String) = Moment(LocalDate.parse(utcDate).atStartOfDay().toInstant(ZoneOffset.UTC))
+        fun parseDate(utcDate: String) = Moment(LocalDate.parse(utcDate).toEpochDay() * MILLISECONDS_OF_ONE_DAY)
 
         /**
          * Creates a time zone neutral [Moment] instance from this [ZonedDateTime].
          */
-        fun ZonedDateTime.toMoment() = Moment(this.withZoneSameInstant(ZoneOffset.UTC).toInstant())
+        fun ZonedDateTime.toMoment() = Moment(toInstant().toEpochMilli())
     }
 }
@@ -0,0 +1,50 @@
+package info.metadude.android.eventfahrplan.commons.text
+
+/**
+ * Builds a 64-bit FNV-1a hash over a sequence of values. Other than [String.hashCode] the
+ * result is wide enough to tell apart changed contents by a single comparison. It only depends
+ * on the values and their order so it can be persisted and compared across app versions.
+ *
+ * Each string is preceded by its length so that adjacent values cannot shift into each other.
+ */
+class ContentHash {
+
+    private companion object {
+        const val OFFSET_BASIS = -0x340d631b7bdddcdbL // 0xcbf29ce484222325
+        const val PRIME = 0x100000001b3L
+        const val NULL_LENGTH = -1
+    }
+
+    /**
+     * The hash of the values added so far.
+     */
+    var value = OFFSET_BASIS
+        private set
+
+    fun add(value: String?): ContentHash {
+        if (value == null) {
+            return add(NULL_LENGTH)
+        }
+        add(value.length)
+        for (char in value) {
+            addByte(char.code ushr 8)
+            addByte(char.code)
+        }
+        return this
+    }
+
+    fun add(value: Int): ContentHash {
+        addByte(value ushr 24)
+        addByte(value ushr 16)
+        addByte(value ushr 8)
+        addByte(value)
+        return this
+    }
+
+    fun add(value: Boolean) = apply { addByte(if (value) 1 else 0) }
+
+    private fun addByte(byte: Int) {
+        value = (value xor (byte and 0xff).toLong()) * PRIME
+    }
+
+}
@@ -0,0 +1,31 @@
+package info.metadude.android.eventfahrplan.commons.text
+
+/**
+ * Keeps a single instance of each distinct string value. Meant to be used for the values
+ * which repeat throughout a schedule such as room names, tracks or languages.
+ * Interned values share their cached hash code and compare equal by identity.
+ *
+ * The pool is not thread-safe. Create one per schedule which is parsed or loaded.
+ */
+class StringPool {
+
+    private val values = HashMap<String, String>()
+
+    /**
+     * Returns the number of distinct values in the pool.
+     */
+    val size: Int
+        get() = values.size
+
+    /**
+     * Returns the pooled instance which equals the given [value].
+     * The given [value] is added to the pool if it is not contained yet.
+     */
+    fun intern(value: String): String = values.getOrPut(value) { value }
+
+    /**
+     * Returns the pooled instance which equals the given [value] or `null` if [value] is `null`.
+     */
+    fun internOrNull(value: String?): String? = if (value == null) null else intern(value)
+
+}
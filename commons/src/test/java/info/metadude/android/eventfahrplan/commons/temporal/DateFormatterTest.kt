@@ -14,6 +14,7 @@ class DateFormatterTest {
 
     private companion object {
         val NO_TIME_ZONE_ID: ZoneId? = null
+        val NO_ZONE_OFFSET: ZoneOffset? = null
         val TIME_ZONE_EUROPE_BERLIN: ZoneId = ZoneId.of("Europe/Berlin")
     }
 
@@ -108,6 +109,45 @@ class DateFormatterTest {
         assertThat(createDateFormatter().getFormattedDateTimeShort(timestamp, getTimeZoneOffsetNow())).isEqualTo("22.01.19, 01:00")
     }
 
+    @Test
+    fun `newInstance returns the cached instance for the same locale and time zone mode`() {
+        Locale.setDefault(Locale.US)
+        val dateFormatter = DateFormatter.newInstance(useDeviceTimeZone = false)
+
+        assertThat(DateFormatter.newInstance(useDeviceTimeZone = false)).isSameAs(dateFormatter)
+        assertThat(DateFormatter.newInstance(useDeviceTimeZone = true)).isNotSameAs(dateFormatter)
+    }
+
+    @Test
+    fun `newInstance returns a new instance after the locale changed`() {
+        Locale.setDefault(Locale.US)
+        val dateFormatter = DateFormatter.newInstance(useDeviceTimeZone = false)
+
+        Locale.setDefault(Locale.GERMANY)
+        assertThat(DateFormatter.newInstance(useDeviceTimeZone = false)).isNotSameAs(dateFormatter)
+    }
+
+    @Test
+    fun `newInstance returns a new instance after the cache has been cleared`() {
+        Locale.setDefault(Locale.US)
+        val dateFormatter = DateFormatter.newInstance(useDeviceTimeZone = false)
+
+        DateFormatter.clearCache()
+        assertThat(DateFormatter.newInstance(useDeviceTimeZone = false)).isNotSameAs(dateFormatter)
+    }
+
+    @Test
+    fun `getFormattedDate returns memoized texts only for the same zone offset`() {
+        Locale.setDefault(Locale.US)
+        val dateFormatter = DateFormatter.newInstance(useDeviceTimeZone = true)
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT+1"))
+        assertThat(dateFormatter.getFormattedDate(timestamp, NO_ZONE_OFFSET)).isEqualTo("1/22/19")
+        assertThat(dateFormatter.getFormattedDate(timestamp, NO_ZONE_OFFSET)).isEqualTo("1/22/19")
+
+        TimeZone.setDefault(TimeZone.getTimeZone("GMT-1"))
+        assertThat(dateFormatter.getFormattedDate(timestamp, NO_ZONE_OFFSET)).isEqualTo("1/21/19")
+    }
+
     private fun createDateFormatter(): DateFormatter {
         return DateFormatter.newInstance(useDeviceTimeZone = false)
     }
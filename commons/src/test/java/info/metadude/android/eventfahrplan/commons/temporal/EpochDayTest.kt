@@ -0,0 +1,29 @@
+package info.metadude.android.eventfahrplan.commons.temporal
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+import org.threeten.bp.LocalDate
+
+class EpochDayTest {
+
+    @Test
+    fun `of returns the epoch day of leap days and year boundaries`() {
+        listOf("1970-01-01", "1969-12-31", "2000-02-29", "1900-03-01", "2019-12-27", "0000-01-01").forEach {
+            val date = LocalDate.parse(it)
+            assertThat(EpochDay.of(date.year, date.monthValue, date.dayOfMonth)).isEqualTo(date.toEpochDay())
+        }
+    }
+
+    @Test
+    fun `toPackedDate and of are consistent with ThreeTenBP for every day of 800 years`() {
+        for (epochDay in LocalDate.of(1600, 1, 1).toEpochDay()..LocalDate.of(2399, 12, 31).toEpochDay()) {
+            val date = LocalDate.ofEpochDay(epochDay)
+            val packedDate = EpochDay.toPackedDate(epochDay)
+            assertThat(EpochDay.year(packedDate)).isEqualTo(date.year)
+            assertThat(EpochDay.month(packedDate)).isEqualTo(date.monthValue)
+            assertThat(EpochDay.day(packedDate)).isEqualTo(date.dayOfMonth)
+            assertThat(EpochDay.of(date.year, date.monthValue, date.dayOfMonth)).isEqualTo(epochDay)
+        }
+    }
+
+}
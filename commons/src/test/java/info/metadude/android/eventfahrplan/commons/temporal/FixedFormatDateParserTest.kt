@@ -0,0 +1,190 @@
+package info.metadude.android.eventfahrplan.commons.temporal
+
+import com.google.common.truth.Truth.assertThat
+import info.metadude.android.eventfahrplan.commons.temporal.FixedFormatDateParser.INVALID_MILLISECONDS
+import info.metadude.android.eventfahrplan.commons.temporal.FixedFormatDateParser.INVALID_MINUTES
+import info.metadude.android.eventfahrplan.commons.temporal.FixedFormatDateParser.INVALID_SECONDS
+import org.junit.Test
+import org.threeten.bp.Instant
+import org.threeten.bp.LocalDate
+import org.threeten.bp.OffsetDateTime
+import org.threeten.bp.ZoneOffset
+import org.threeten.bp.ZonedDateTime
+import org.threeten.bp.format.DateTimeFormatter
+import org.threeten.bp.temporal.ChronoField
+import java.util.Random
+
+class FixedFormatDateParserTest {
+
+    private companion object {
+        const val FUZZ_ITERATIONS = 100_000
+        const val MUTATION_ALPHABET = "0123456789-:+TZ. "
+        val MINUTES_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern("H:mm[:ss]")
+        val OFFSET_DATE_TIME_WITHOUT_SECONDS_FORMATTER: DateTimeFormatter = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mmXXX")
+    }
+
+    private val random = Random(23)
+
+    @Test
+    fun `parseDate returns milliseconds for a leap day`() {
+        assertThat(FixedFormatDateParser.parseDate("2020-02-29")).isEqualTo(1582934400000)
+    }
+
+    @Test
+    fun `parseDate returns INVALID_MILLISECONDS for a day which does not exist`() {
+        assertThat(FixedFormatDateParser.parseDate("2019-02-29")).isEqualTo(INVALID_MILLISECONDS)
+        assertThat(FixedFormatDateParser.parseDate("2019-13-01")).isEqualTo(INVALID_MILLISECONDS)
+        assertThat(FixedFormatDateParser.parseDate("2019-04-31")).isEqualTo(INVALID_MILLISECONDS)
+    }
+
+    @Test
+    fun `parseDate parses the given range only`() {
+        assertThat(FixedFormatDateParser.parseDate("<2019-01-01>", 1, 11)).isEqualTo(1546300800000)
+    }
+
+    @Test
+    fun `parseDateTime returns milliseconds for date and time with seconds and offset`() {
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T14:30:00+02:00")).isEqualTo(1473856200000)
+    }
+
+    @Test
+    fun `parseDateTime returns milliseconds for date and time without seconds in UTC`() {
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T12:30Z")).isEqualTo(1473856200000)
+    }
+
+    @Test
+    fun `parseDateTime returns INVALID_MILLISECONDS for formats handled by ThreeTenBP`() {
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T12:30:00.000Z")).isEqualTo(INVALID_MILLISECONDS)
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T14:30:00+0200")).isEqualTo(INVALID_MILLISECONDS)
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T14:30:00")).isEqualTo(INVALID_MILLISECONDS)
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T14:30:")).isEqualTo(INVALID_MILLISECONDS)
+    }
+
+    @Test
+    fun `parseDateTime returns INVALID_MILLISECONDS for out of range fields`() {
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T24:00:00Z")).isEqualTo(INVALID_MILLISECONDS)
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T23:60:00Z")).isEqualTo(INVALID_MILLISECONDS)
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T23:59:60Z")).isEqualTo(INVALID_MILLISECONDS)
+        assertThat(FixedFormatDateParser.parseDateTime("2016-09-14T23:59:59+18:01")).isEqualTo(INVALID_MILLISECONDS)
+    }
+
+    @Test
+    fun `parseTimeZoneOffset returns the offset in seconds`() {
+        assertThat(FixedFormatDateParser.parseTimeZoneOffset("1980-01-01T02:00:00-01:30")).isEqualTo(-5400)
+        assertThat(FixedFormatDateParser.parseTimeZoneOffset("1980-01-01T02:00:00Z")).isEqualTo(0)
+    }
+
+    @Test
+    fun `parseTimeZoneOffset returns INVALID_SECONDS if the date is invalid`() {
+        assertThat(FixedFormatDateParser.parseTimeZoneOffset("1980-02-30T02:00:00+01:00")).isEqualTo(INVALID_SECONDS)
+    }
+
+    @Test
+    fun `parseMinuteOfDay returns minutes for one and two digit hours`() {
+        assertThat(FixedFormatDateParser.parseMinuteOfDay("1:30")).isEqualTo(90)
+        assertThat(FixedFormatDateParser.parseMinuteOfDay("09:00:59")).isEqualTo(540)
+        assertThat(FixedFormatDateParser.parseMinuteOfDay("23:59")).isEqualTo(1439)
+    }
+
+    @Test
+    fun `parseMinuteOfDay returns INVALID_MINUTES for malformed text`() {
+        assertThat(FixedFormatDateParser.parseMinuteOfDay("")).isEqualTo(INVALID_MINUTES)
+        assertThat(FixedFormatDateParser.parseMinuteOfDay("130")).isEqualTo(INVALID_MINUTES)
+        assertThat(FixedFormatDateParser.parseMinuteOfDay("1:3")).isEqualTo(INVALID_MINUTES)
+        assertThat(FixedFormatDateParser.parseMinuteOfDay("24:00")).isEqualTo(INVALID_MINUTES)
+        assertThat(FixedFormatDateParser.parseMinuteOfDay("1:30:")).isEqualTo(INVALID_MINUTES)
+    }
+
+    @Test
+    fun `parseDateTime and parseTimeZoneOffset agree with ThreeTenBP for random texts`() {
+        repeat(FUZZ_ITERATIONS) {
+            val validText = createDateTimeText()
+            val text = mutateSometimes(validText)
+            val milliseconds = FixedFormatDateParser.parseDateTime(text)
+            val offsetSeconds = FixedFormatDateParser.parseTimeZoneOffset(text)
+            if (text == validText) {
+                assertThat(milliseconds).isNotEqualTo(INVALID_MILLISECONDS)
+                assertThat(offsetSeconds).isNotEqualTo(INVALID_SECONDS)
+            }
+            if (milliseconds != INVALID_MILLISECONDS) {
+                assertThat(parseDateTimeReference(text)).isEqualTo(milliseconds)
+            }
+            if (offsetSeconds != INVALID_SECONDS) {
+                assertThat(parseTimeZoneOffsetReference(text)).isEqualTo(offsetSeconds)
+            }
+        }
+    }
+
+    @Test
+    fun `parseDate agrees with ThreeTenBP for random texts`() {
+        repeat(FUZZ_ITERATIONS) {
+            val validText = createDateTimeText().take(10)
+            val text = mutateSometimes(validText)
+            val milliseconds = FixedFormatDateParser.parseDate(text)
+            if (text == validText) {
+                assertThat(milliseconds).isNotEqualTo(INVALID_MILLISECONDS)
+            }
+            if (milliseconds != INVALID_MILLISECONDS) {
+                assertThat(parseDateReference(text)).isEqualTo(milliseconds)
+            }
+        }
+    }
+
+    @Test
+    fun `parseMinuteOfDay agrees with ThreeTenBP for random texts`() {
+        repeat(FUZZ_ITERATIONS) {
+            val seconds = if (random.nextBoolean()) String.format(":%02d", random.nextInt(62)) else ""
+            val text = mutateSometimes(String.format("%d:%02d%s", random.nextInt(26), random.nextInt(62), seconds))
+            val minutes = FixedFormatDateParser.parseMinuteOfDay(text)
+            if (minutes != INVALID_MINUTES) {
+                assertThat(parseMinutesReference(text)).isEqualTo(minutes)
+            }
+        }
+    }
+
+    /**
+     * Returns a valid date and time between the years 1670 and 2270 in one of the formats
+     * found in schedules, with a random offset.
+     */
+    private fun createDateTimeText(): String {
+        val epochSecond = random.nextLong() % (300L * 365 * 86400)
+        val offsetSeconds = ((random.nextInt(37) - 18) * 3600 + random.nextInt(4) * 900).coerceIn(-64800, 64800)
+        val dateTime = OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.ofTotalSeconds(offsetSeconds))
+        return when (random.nextInt(3)) {
+            0 -> dateTime.toString()
+            1 -> dateTime.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)
+            else -> dateTime.format(OFFSET_DATE_TIME_WITHOUT_SECONDS_FORMATTER)
+        }
+    }
+
+    /**
+     * Replaces, removes or inserts a random character in half of the cases.
+     */
+    private fun mutateSometimes(text: String): String {
+        if (random.nextBoolean()) {
+            return text
+        }
+        val builder = StringBuilder(text)
+        val char = MUTATION_ALPHABET[random.nextInt(MUTATION_ALPHABET.length)]
+        when {
+            builder.isEmpty() -> builder.append(char)
+            random.nextBoolean() -> builder.setCharAt(random.nextInt(builder.length), char)
+            random.nextBoolean() -> builder.deleteCharAt(random.nextInt(builder.length))
+            else -> builder.insert(random.nextInt(builder.length + 1), char)
+        }
+        return builder.toString()
+    }
+
+    private fun parseDateTimeReference(text: String) =
+            Instant.from(DateTimeFormatter.ISO_DATE_TIME.parse(text)).toEpochMilli()
+
+    private fun parseTimeZoneOffsetReference(text: String) =
+            ZonedDateTime.parse(text, DateTimeFormatter.ISO_DATE_TIME).offset.totalSeconds
+
+    private fun parseDateReference(text: String) =
+            LocalDate.parse(text).atStartOfDay().toEpochSecond(ZoneOffset.UTC) * 1000
+
+    private fun parseMinutesReference(text: String) =
+            MINUTES_FORMATTER.parse(text).get(ChronoField.MINUTE_OF_DAY)
+
+}
@@ -171,4 +171,63 @@ class MomentTest {
         assertThat(momentTwo.toMilliseconds()).isEqualTo(MILLISECONDS_OF_ONE_MINUTE.toLong())
     }
 
+    @Test
+    fun dateTimeFieldsAreCorrectlyMappedForLeapDay() {
+        // Saturday, February 29, 2020 23:59:00 UTC
+        val moment = Moment.ofEpochMilli(1583020740000)
+
+        assertThat(moment.year).isEqualTo(2020)
+        assertThat(moment.month).isEqualTo(2)
+        assertThat(moment.monthDay).isEqualTo(29)
+        assertThat(moment.minuteOfDay).isEqualTo(MINUTES_OF_ONE_DAY - 1)
+    }
+
+    @Test
+    fun dateTimeFieldsAreCorrectlyMappedBeforeEpoch() {
+        // Wednesday, December 31, 1969 23:30:00 UTC
+        val moment = Moment.ofEpochMilli(-30 * MILLISECONDS_OF_ONE_MINUTE.toLong())
+
+        assertThat(moment.year).isEqualTo(1969)
+        assertThat(moment.month).isEqualTo(12)
+        assertThat(moment.monthDay).isEqualTo(31)
+        assertThat(moment.hour).isEqualTo(23)
+        assertThat(moment.minute).isEqualTo(30)
+        assertThat(moment.startOfDay().toMilliseconds()).isEqualTo(-24 * MILLISECONDS_OF_ONE_HOUR)
+    }
+
+    @Test
+    fun dateTimeFieldsMatchZonedDateTime() {
+        var moment = Moment.ofEpochMilli(DEC_30_22_47_2019).minusHours(24L * 365 * 3)
+        repeat(3 * 365 * 24) {
+            val zonedDateTime = moment.toZonedDateTime(ZoneOffset.UTC)
+            assertThat(moment.year).isEqualTo(zonedDateTime.year)
+            assertThat(moment.month).isEqualTo(zonedDateTime.monthValue)
+            assertThat(moment.monthDay).isEqualTo(zonedDateTime.dayOfMonth)
+            assertThat(moment.hour).isEqualTo(zonedDateTime.hour)
+            assertThat(moment.minute).isEqualTo(zonedDateTime.minute)
+            assertThat(moment.toUtcDateTime()).isEqualTo(zonedDateTime.toLocalDateTime())
+            moment = moment.plusMinutes(61)
+        }
+    }
+
+    @Test
+    fun durationUntilTruncatesLikeDuration() {
+        val moment = Moment.ofEpochMilli(DEC_30_22_47_2019)
+
+        assertThat(moment.minutesUntil(moment.plusSeconds(119))).isEqualTo(1)
+        assertThat(moment.minutesUntil(moment.plusSeconds(-60))).isEqualTo(-1)
+        assertThat(moment.minutesUntil(Moment.ofEpochMilli(DEC_30_22_47_2019 - 59_500))).isEqualTo(-1)
+        assertThat(moment.minutesUntil(Moment.ofEpochMilli(DEC_30_22_47_2019 - 59_000))).isEqualTo(0)
+    }
+
+    @Test
+    fun equalsAndHashCode() {
+        val momentOne = Moment.ofEpochMilli(DEC_30_22_47_2019)
+        val momentTwo = Moment.ofEpochMilli(DEC_30_22_47_2019 - MILLISECONDS_OF_ONE_MINUTE).plusMinutes(1)
+
+        assertThat(momentOne).isEqualTo(momentTwo)
+        assertThat(momentOne.hashCode()).isEqualTo(momentTwo.hashCode())
+        assertThat(momentOne.toString()).isEqualTo("2019-12-30T22:47:57.615Z")
+    }
+
 }
@@ -0,0 +1,40 @@
+package info.metadude.android.eventfahrplan.commons.text
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class ContentHashTest {
+
+    @Test
+    fun `value is pinned so that persisted hashes remain valid`() {
+        assertThat(ContentHash().add("EF").value).isEqualTo(4160148323496582746L)
+    }
+
+    @Test
+    fun `value is equal for equal values`() {
+        val hash1 = ContentHash().add("Title").add(23).add(true).value
+        val hash2 = ContentHash().add("Title").add(23).add(true).value
+        assertThat(hash1).isEqualTo(hash2)
+    }
+
+    @Test
+    fun `value differs if the order of the values differs`() {
+        assertThat(ContentHash().add(1).add(2).value).isNotEqualTo(ContentHash().add(2).add(1).value)
+    }
+
+    @Test
+    fun `value differs if adjacent strings are split differently`() {
+        assertThat(ContentHash().add("ab").add("c").value).isNotEqualTo(ContentHash().add("a").add("bc").value)
+    }
+
+    @Test
+    fun `value differs for null and empty strings`() {
+        assertThat(ContentHash().add(null as String?).value).isNotEqualTo(ContentHash().add("").value)
+    }
+
+    @Test
+    fun `value differs for boolean values`() {
+        assertThat(ContentHash().add(true).value).isNotEqualTo(ContentHash().add(false).value)
+    }
+
+}
@@ -0,0 +1,25 @@
+package info.metadude.android.eventfahrplan.commons.text
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class StringPoolTest {
+
+    private val stringPool = StringPool()
+
+    @Test
+    fun `intern returns the instance which has been interned first`() {
+        val first = String(charArrayOf('S', 'a', 'a', 'l'))
+        val second = String(charArrayOf('S', 'a', 'a', 'l'))
+        assertThat(stringPool.intern(first)).isSameInstanceAs(first)
+        assertThat(stringPool.intern(second)).isSameInstanceAs(first)
+        assertThat(stringPool.size).isEqualTo(1)
+    }
+
+    @Test
+    fun `internOrNull passes through null`() {
+        assertThat(stringPool.internOrNull(null)).isNull()
+        assertThat(stringPool.size).isEqualTo(0)
+    }
+
+}
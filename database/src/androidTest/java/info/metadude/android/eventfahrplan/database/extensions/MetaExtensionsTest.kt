@@ -1,7 +1,9 @@
 package info.metadude.android.eventfahrplan.database.extensions
 
 import androidx.test.ext.junit.runners.AndroidJUnit4
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.DOWNLOAD_URL
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.ETAG
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.LAST_MODIFIED
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.NUM_DAYS
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.SUBTITLE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.TIME_ZONE_NAME
@@ -18,7 +20,9 @@ class MetaExtensionsTest {
     @Test
     fun toContentValues() {
         val meta = Meta(
+                downloadUrl = "https://example.com/schedule.xml.br",
                 eTag = "abc123",
+                lastModified = "Wed, 21 Oct 2015 07:28:00 GMT",
                 numDays = 23,
                 subtitle = "My subtitle",
                 timeZoneName = "Europe/Berlin",
@@ -26,7 +30,9 @@ class MetaExtensionsTest {
                 version = "v.9.9.9"
         )
         val values = meta.toContentValues()
+        assertThat(values.getAsString(DOWNLOAD_URL)).isEqualTo("https://example.com/schedule.xml.br")
         assertThat(values.getAsString(ETAG)).isEqualTo("abc123")
+        assertThat(values.getAsString(LAST_MODIFIED)).isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT")
         assertThat(values.getAsInteger(NUM_DAYS)).isEqualTo(23)
         assertThat(values.getAsString(SUBTITLE)).isEqualTo("My subtitle")
         assertThat(values.getAsString(TIME_ZONE_NAME)).isEqualTo("Europe/Berlin")
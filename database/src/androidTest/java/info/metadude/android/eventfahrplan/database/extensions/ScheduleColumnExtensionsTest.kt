@@ -0,0 +1,28 @@
+package info.metadude.android.eventfahrplan.database.extensions
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable.Columns.COLUMN_INDEX
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable.Columns.DAY
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable.Columns.ROOM
+import info.metadude.android.eventfahrplan.database.models.ScheduleColumn
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class ScheduleColumnExtensionsTest {
+
+    @Test
+    fun toContentValues() {
+        val scheduleColumn = ScheduleColumn(
+                dayIndex = 2,
+                roomName = "Saal 1",
+                columnIndex = 3
+        )
+        val values = scheduleColumn.toContentValues()
+        assertThat(values.getAsInteger(DAY)).isEqualTo(2)
+        assertThat(values.getAsString(ROOM)).isEqualTo("Saal 1")
+        assertThat(values.getAsInteger(COLUMN_INDEX)).isEqualTo(3)
+    }
+
+}
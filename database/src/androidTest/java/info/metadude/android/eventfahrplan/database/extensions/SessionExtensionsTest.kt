@@ -14,6 +14,7 @@ import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.Se
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TIME
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TITLE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TRACK
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CONTENT_HASH
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE_UTC
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DAY
@@ -70,6 +71,7 @@ class SessionExtensionsTest {
                 track = "Security & Hacking",
                 type = "tutorial",
                 url = "https://talks.mrmcd.net/2018/talk/V3FUNG",
+                contentHash = 8213597215742613071L,
 
                 changedDay = true,
                 changedDuration = true,
@@ -109,6 +111,7 @@ class SessionExtensionsTest {
         assertThat(values.getAsString(TRACK)).isEqualTo("Security & Hacking")
         assertThat(values.getAsString(TYPE)).isEqualTo("tutorial")
         assertThat(values.getAsString(URL)).isEqualTo("https://talks.mrmcd.net/2018/talk/V3FUNG")
+        assertThat(values.getAsLong(CONTENT_HASH)).isEqualTo(8213597215742613071L)
 
         assertThat(values.getAsBoolean(CHANGED_DAY)).isEqualTo(true)
         assertThat(values.getAsBoolean(CHANGED_DURATION)).isEqualTo(true)
@@ -124,4 +127,16 @@ class SessionExtensionsTest {
         assertThat(values.getAsBoolean(CHANGED_TRACK)).isEqualTo(true)
     }
 
+    @Test
+    fun insertOrReplaceSessionSqlContainsAllPersistedColumns() {
+        val persistedColumns = Session(sessionId = "7331").toContentValues().keySet()
+        val columns = INSERT_OR_REPLACE_SESSION_SQL
+                .substringAfter("(")
+                .substringBefore(")")
+                .split(",")
+        assertThat(columns).hasSize(persistedColumns.size)
+        assertThat(columns).containsOnly(*persistedColumns.toTypedArray())
+        assertThat(INSERT_OR_REPLACE_SESSION_SQL.count { it == '?' }).isEqualTo(persistedColumns.size)
+    }
+
 }
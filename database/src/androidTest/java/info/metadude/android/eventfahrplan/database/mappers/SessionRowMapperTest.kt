@@ -0,0 +1,112 @@
+package info.metadude.android.eventfahrplan.database.mappers
+
+import android.database.MatrixCursor
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_IS_NEW
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE_UTC
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.ROOM
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SESSION_ID
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TIME_ZONE_OFFSET
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TITLE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TRACK
+import info.metadude.android.eventfahrplan.database.models.Session
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class SessionRowMapperTest {
+
+    @Test
+    fun mapRowsReadsTheColumnsOfTheProjection() {
+        val projection = arrayOf(SESSION_ID, TITLE, DATE_UTC, TIME_ZONE_OFFSET, CHANGED_IS_NEW)
+        val cursor = MatrixCursor(projection).apply {
+            addRow(arrayOf<Any?>("7331", "First title", 1439478900000L, 3600, 1))
+            addRow(arrayOf<Any?>("7332", "Second title", 1439482500000L, null, 0))
+        }
+
+        val sessions = cursor.mapRows(SessionRowMapper(projection))
+
+        assertThat(sessions).containsExactly(
+                Session(
+                        sessionId = "7331",
+                        title = "First title",
+                        dateUTC = 1439478900000L,
+                        timeZoneOffset = 3600,
+                        changedIsNew = true
+                ),
+                Session(
+                        sessionId = "7332",
+                        title = "Second title",
+                        dateUTC = 1439482500000L,
+                        timeZoneOffset = null,
+                        changedIsNew = false
+                )
+        )
+        assertThat(cursor.isClosed).isTrue()
+    }
+
+    @Test
+    fun mapRowsKeepsDefaultValuesForColumnsOutsideOfTheProjection() {
+        val projection = arrayOf(SESSION_ID, TITLE)
+        val cursor = MatrixCursor(projection).apply {
+            addRow(arrayOf<Any?>("7331", "Lorem ipsum"))
+        }
+
+        val sessions = cursor.mapRows(SessionRowMapper(projection))
+
+        assertThat(sessions).containsExactly(Session(sessionId = "7331", title = "Lorem ipsum"))
+    }
+
+    @Test
+    fun mapRowsReadsNullStringColumnsAsEmptyStrings() {
+        val projection = arrayOf(SESSION_ID, TITLE, ROOM, TRACK)
+        val cursor = MatrixCursor(projection).apply {
+            addRow(arrayOf<Any?>("7331", null, null, null))
+        }
+
+        val sessions = cursor.mapRows(SessionRowMapper(projection))
+
+        assertThat(sessions).containsExactly(Session(sessionId = "7331", title = "", room = "", track = ""))
+    }
+
+    @Test
+    fun mapRowsReadsTheJoinedHighlightAndAlarmState() {
+        val projection = arrayOf(SESSION_ID)
+        val cursor = MatrixCursor(arrayOf(SESSION_ID, SessionRowMapper.IS_HIGHLIGHT, SessionRowMapper.HAS_ALARM)).apply {
+            addRow(arrayOf<Any?>("7331", 1, 0))
+            addRow(arrayOf<Any?>("7332", 0, 1))
+        }
+
+        val sessions = cursor.mapRows(SessionRowMapper(projection))
+
+        assertThat(sessions).containsExactly(
+                Session(sessionId = "7331", isHighlight = true, hasAlarm = false),
+                Session(sessionId = "7332", isHighlight = false, hasAlarm = true)
+        )
+    }
+
+    @Test
+    fun mapRowsSharesOneInstanceOfRepeatedValues() {
+        val projection = arrayOf(SESSION_ID, ROOM, TRACK)
+        val cursor = MatrixCursor(projection).apply {
+            addRow(arrayOf<Any?>("7331", String("Saal 1".toCharArray()), String("CCC".toCharArray())))
+            addRow(arrayOf<Any?>("7332", String("Saal 1".toCharArray()), String("CCC".toCharArray())))
+        }
+
+        val (first, second) = cursor.mapRows(SessionRowMapper(projection))
+
+        assertThat(second.room).isSameAs(first.room)
+        assertThat(second.track).isSameAs(first.track)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun mapRowsFailsForMissingColumnsWithoutProjection() {
+        val cursor = MatrixCursor(arrayOf(SESSION_ID)).apply {
+            addRow(arrayOf<Any?>("7331"))
+        }
+
+        cursor.mapRows(SessionRowMapper.ALL_COLUMNS)
+    }
+
+}
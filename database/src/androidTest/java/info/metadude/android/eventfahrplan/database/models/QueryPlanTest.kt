@@ -0,0 +1,38 @@
+package info.metadude.android.eventfahrplan.database.models
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class QueryPlanTest {
+
+    @Test
+    fun usesIndexReturnsTrueForIndexSearch() {
+        val queryPlan = QueryPlan("", listOf("SEARCH TABLE lectures USING INDEX lectures_event_id_index (event_id=?)"))
+        assertThat(queryPlan.usesIndex).isTrue()
+    }
+
+    @Test
+    fun usesIndexReturnsTrueForOrderedIndexScan() {
+        val queryPlan = QueryPlan("", listOf("SCAN lectures USING INDEX lectures_dateUTC_index"))
+        assertThat(queryPlan.usesIndex).isTrue()
+    }
+
+    @Test
+    fun usesIndexReturnsFalseForFullTableScan() {
+        val queryPlan = QueryPlan("", listOf("SCAN TABLE lectures"))
+        assertThat(queryPlan.usesIndex).isFalse()
+    }
+
+    @Test
+    fun usesIndexReturnsFalseForTemporarySorting() {
+        val queryPlan = QueryPlan("", listOf(
+                "SEARCH TABLE lectures USING INDEX lectures_room_dateUTC_index (room=?)",
+                "USE TEMP B-TREE FOR ORDER BY"
+        ))
+        assertThat(queryPlan.usesIndex).isFalse()
+    }
+
+}
@@ -0,0 +1,127 @@
+package info.metadude.android.eventfahrplan.database.repositories
+
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import info.metadude.android.eventfahrplan.commons.logging.Logging
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.AlarmsTable
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.HighlightsTable
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable
+import info.metadude.android.eventfahrplan.database.extensions.delete
+import info.metadude.android.eventfahrplan.database.extensions.toContentValues
+import info.metadude.android.eventfahrplan.database.models.Highlight
+import info.metadude.android.eventfahrplan.database.models.Session
+import info.metadude.android.eventfahrplan.database.sqliteopenhelper.FahrplanDBOpenHelper
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class SessionsDatabaseRepositoryTest {
+
+    private val sqLiteOpenHelper = FahrplanDBOpenHelper.getInstance(ApplicationProvider.getApplicationContext())
+    private val sessionsDatabaseRepository = SessionsDatabaseRepository(sqLiteOpenHelper, NoLogging)
+    private val highlightsDatabaseRepository = HighlightsDatabaseRepository(sqLiteOpenHelper)
+
+    @Before
+    fun setUp() {
+        with(sqLiteOpenHelper.writableDatabase) {
+            delete(SessionsTable.NAME)
+            delete(HighlightsTable.NAME)
+            delete(AlarmsTable.NAME)
+        }
+    }
+
+    @Test
+    fun queryStarredSessionsReturnsHighlightedSessionsWhichAreNotCanceled() {
+        insertSessions(
+                createSession("1", dateUTC = 300),
+                createSession("2", dateUTC = 100),
+                createSession("3", dateUTC = 200).copy(changedIsCanceled = true),
+                createSession("4", dateUTC = 400),
+                createSession("5", dateUTC = 500)
+        )
+        highlight("1", isHighlight = true)
+        highlight("2", isHighlight = true)
+        highlight("3", isHighlight = true)
+        highlight("5", isHighlight = false)
+
+        val sessions = sessionsDatabaseRepository.queryStarredSessions()
+
+        assertThat(sessions.map { it.sessionId }).isEqualTo(listOf("2", "1"))
+        assertThat(sessions.all { it.isHighlight }).isTrue()
+    }
+
+    @Test
+    fun queryStarredSessionsReturnsNoSessionsWithoutHighlights() {
+        insertSessions(createSession("1", dateUTC = 100))
+
+        assertThat(sessionsDatabaseRepository.queryStarredSessions()).isEmpty()
+    }
+
+    @Test
+    fun queryChangedSessionsReturnsSessionsWithAnyChangeFlag() {
+        insertSessions(
+                createSession("1", dateUTC = 1200).copy(changedDay = true),
+                createSession("2", dateUTC = 1100).copy(changedDuration = true),
+                createSession("3", dateUTC = 1000).copy(changedIsCanceled = true),
+                createSession("4", dateUTC = 900).copy(changedIsNew = true),
+                createSession("5", dateUTC = 800).copy(changedLanguage = true),
+                createSession("6", dateUTC = 700).copy(changedRecordingOptOut = true),
+                createSession("7", dateUTC = 600).copy(changedRoom = true),
+                createSession("8", dateUTC = 500).copy(changedSpeakers = true),
+                createSession("9", dateUTC = 400).copy(changedSubtitle = true),
+                createSession("10", dateUTC = 300).copy(changedTime = true),
+                createSession("11", dateUTC = 200).copy(changedTitle = true),
+                createSession("12", dateUTC = 100).copy(changedTrack = true),
+                createSession("13", dateUTC = 50)
+        )
+
+        val sessions = sessionsDatabaseRepository.queryChangedSessions()
+
+        assertThat(sessions.map { it.sessionId }).isEqualTo((12 downTo 1).map { "$it" })
+    }
+
+    @Test
+    fun queryChangedSessionsIncludesCanceledSessionsAndTheirHighlights() {
+        insertSessions(
+                createSession("1", dateUTC = 100),
+                createSession("2", dateUTC = 200).copy(changedIsCanceled = true)
+        )
+        highlight("2", isHighlight = true)
+
+        val sessions = sessionsDatabaseRepository.queryChangedSessions()
+
+        assertThat(sessions.map { it.sessionId }).isEqualTo(listOf("2"))
+        assertThat(sessions.single().isHighlight).isTrue()
+    }
+
+    @Test
+    fun queryChangedSessionsReturnsNoSessionsWithoutChanges() {
+        insertSessions(createSession("1", dateUTC = 100), createSession("2", dateUTC = 200))
+
+        assertThat(sessionsDatabaseRepository.queryChangedSessions()).isEmpty()
+    }
+
+    private fun insertSessions(vararg sessions: Session) {
+        sessionsDatabaseRepository.updateSessions(sessions.toList(), emptyList())
+    }
+
+    private fun highlight(sessionId: String, isHighlight: Boolean) {
+        val values = Highlight(sessionId.toInt(), isHighlight).toContentValues()
+        highlightsDatabaseRepository.update(values, sessionId)
+    }
+
+    private fun createSession(sessionId: String, dateUTC: Long) = Session(
+            sessionId = sessionId,
+            dateUTC = dateUTC,
+            title = "Session $sessionId"
+    )
+
+    private object NoLogging : Logging {
+        override fun d(tag: String, message: String) = Unit
+        override fun e(tag: String, message: String) = Unit
+        override fun report(tag: String, message: String) = Unit
+    }
+
+}
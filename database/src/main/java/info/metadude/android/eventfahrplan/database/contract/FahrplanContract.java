@@ -18,12 +18,16 @@ public interface FahrplanContract {
             /* 5 */ String ETAG = "etag";
             /* 6 */ String NUM_DAYS = "numdays";
             /* 7 */ String TIME_ZONE_NAME = "time_zone_name";
+            /* 8 */ String LAST_MODIFIED = "last_modified";
+            /* 9 */ String DOWNLOAD_URL = "download_url";
         }
 
         interface Defaults {
 
             int NUM_DAYS_DEFAULT = 0;
             String ETAG_DEFAULT = "''";
+            String LAST_MODIFIED_DEFAULT = "''";
+            String DOWNLOAD_URL_DEFAULT = "''";
         }
 
     }
@@ -124,12 +128,14 @@ public interface FahrplanContract {
             /* 32 */ String SLUG = "slug";
             /* 33 */ String URL = "url";
             /* 34 */ String TIME_ZONE_OFFSET = "time_zone_offset";
+            /* 35 */ String CONTENT_HASH = "content_hash";
         }
 
         interface Defaults {
 
             int DATE_UTC_DEFAULT = 0;
             int ROOM_IDX_DEFAULT = 0;
+            int CONTENT_HASH_DEFAULT = 0;
         }
 
         interface Values {
@@ -140,4 +146,21 @@ public interface FahrplanContract {
 
     }
 
+    /**
+     * Column layout of each day in the schedule: the rooms of a day in the order in which
+     * they are displayed. Rows are derived from the sessions table whenever it is written.
+     */
+    interface ScheduleColumnsTable {
+
+        String NAME = "schedule_columns";
+
+        interface Columns {
+
+            /* 0 */ String DAY = "day";
+            /* 1 */ String ROOM = "room";
+            /* 2 */ String COLUMN_INDEX = "column_index";
+        }
+
+    }
+
 }
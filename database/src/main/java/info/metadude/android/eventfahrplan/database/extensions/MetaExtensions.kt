@@ -1,7 +1,9 @@
 package info.metadude.android.eventfahrplan.database.extensions
 
 import androidx.core.content.contentValuesOf
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.DOWNLOAD_URL
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.ETAG
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.LAST_MODIFIED
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.NUM_DAYS
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.SUBTITLE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.TIME_ZONE_NAME
@@ -10,7 +12,9 @@ import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.Me
 import info.metadude.android.eventfahrplan.database.models.Meta
 
 fun Meta.toContentValues() = contentValuesOf(
+        DOWNLOAD_URL to downloadUrl,
         ETAG to eTag,
+        LAST_MODIFIED to lastModified,
         NUM_DAYS to numDays,
         SUBTITLE to subtitle,
         TIME_ZONE_NAME to timeZoneName,
@@ -3,7 +3,9 @@ package info.metadude.android.eventfahrplan.database.extensions
 import android.content.ContentValues
 import android.database.Cursor
 import android.database.sqlite.SQLiteDatabase
+import android.database.sqlite.SQLiteQueryBuilder
 import androidx.core.database.sqlite.transaction
+import info.metadude.android.eventfahrplan.database.models.QueryPlan
 
 fun SQLiteDatabase.insert(tableName: String, values: ContentValues): Long =
         insert(tableName, null, values)
@@ -29,6 +31,29 @@ fun SQLiteDatabase.read(
         limit
 )
 
+/**
+ * Returns the [QueryPlan] SQLite chooses for the equivalent [read] query.
+ * The query itself is not executed.
+ */
+fun SQLiteDatabase.explainRead(
+        tableName: String,
+        selection: String? = null,
+        selectionArgs: Array<String>? = null,
+        orderBy: String? = null
+): QueryPlan {
+    val sql = SQLiteQueryBuilder.buildQueryString(false, tableName, null, selection, null, null, orderBy, null)
+    return explainRawQuery(sql, selectionArgs)
+}
+
+/**
+ * Returns the [QueryPlan] SQLite chooses for the given [sql] query.
+ * The query itself is not executed.
+ */
+fun SQLiteDatabase.explainRawQuery(sql: String, selectionArgs: Array<String>? = null): QueryPlan {
+    val details = rawQuery("EXPLAIN QUERY PLAN $sql", selectionArgs).map { it.getString("detail") }
+    return QueryPlan(sql, details)
+}
+
 fun SQLiteDatabase.updateRow(
         tableName: String,
         contentValues: ContentValues,
@@ -59,6 +84,22 @@ fun SQLiteDatabase.delete(tableName: String, columnName: String? = null, columnV
     return delete(tableName, whereClause, whereArgs)
 }
 
+/**
+ * Deletes all rows whose [columnName] matches one of the given [columnValues].
+ * Values are passed in chunks to stay below the maximum number of SQL variables.
+ * Returns the number of affected rows.
+ */
+fun SQLiteDatabase.deleteRows(tableName: String, columnName: String, columnValues: List<String>): Int =
+        columnValues.chunked(MAX_SQL_VARIABLES_COUNT).sumOf { chunk ->
+            val placeholders = chunk.joinToString(",") { "?" }
+            delete(tableName, "$columnName IN ($placeholders)", chunk.toTypedArray())
+        }
+
+/**
+ * Default value of SQLITE_MAX_VARIABLE_NUMBER for SQLite versions shipped with Android.
+ */
+private const val MAX_SQL_VARIABLES_COUNT = 999
+
 /**
  * Executes the delete [query] within a transaction.
  */
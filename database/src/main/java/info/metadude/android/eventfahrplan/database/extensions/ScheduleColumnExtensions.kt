@@ -0,0 +1,13 @@
+package info.metadude.android.eventfahrplan.database.extensions
+
+import androidx.core.content.contentValuesOf
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable.Columns.COLUMN_INDEX
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable.Columns.DAY
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable.Columns.ROOM
+import info.metadude.android.eventfahrplan.database.models.ScheduleColumn
+
+fun ScheduleColumn.toContentValues() = contentValuesOf(
+        DAY to dayIndex,
+        ROOM to roomName,
+        COLUMN_INDEX to columnIndex
+)
@@ -1,8 +1,10 @@
 package info.metadude.android.eventfahrplan.database.extensions
 
 import android.content.ContentValues
+import android.database.sqlite.SQLiteStatement
 import androidx.core.content.contentValuesOf
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionByNotificationIdTable
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.ABSTRACT
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_DAY
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_DURATION
@@ -16,6 +18,7 @@ import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.Se
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TIME
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TITLE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TRACK
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CONTENT_HASH
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE_UTC
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DAY
@@ -66,6 +69,7 @@ fun Session.toContentValues() = contentValuesOf(
         TRACK to track,
         TYPE to type,
         URL to url,
+        CONTENT_HASH to contentHash,
 
         CHANGED_DAY to changedDay,
         CHANGED_DURATION to changedDuration,
@@ -81,6 +85,79 @@ fun Session.toContentValues() = contentValuesOf(
         CHANGED_TRACK to changedTrack
 )
 
+/**
+ * Column names of the [SessionsTable] paired with the function which binds the corresponding
+ * session value to a compiled statement. Both the SQL statement and the bindings are derived
+ * from this list so that the order of columns and arguments always matches.
+ */
+private val SESSION_COLUMN_BINDINGS = listOf<Pair<String, SQLiteStatement.(index: Int, session: Session) -> Unit>>(
+        SESSION_ID to { index, session -> bindString(index, session.sessionId) },
+        ABSTRACT to { index, session -> bindString(index, session.abstractt) },
+        DAY to { index, session -> bindLong(index, session.dayIndex.toLong()) },
+        DATE to { index, session -> bindString(index, session.date) },
+        DATE_UTC to { index, session -> bindLong(index, session.dateUTC) },
+        DESCR to { index, session -> bindString(index, session.description) },
+        DURATION to { index, session -> bindLong(index, session.duration.toLong()) },
+        LANG to { index, session -> bindString(index, session.language) },
+        LINKS to { index, session -> bindString(index, session.links) },
+        REC_LICENSE to { index, session -> bindString(index, session.recordingLicense) },
+        REC_OPTOUT to { index, session -> bindLong(index, (if (session.recordingOptOut) REC_OPT_OUT_ON else REC_OPT_OUT_OFF).toLong()) },
+        REL_START to { index, session -> bindLong(index, session.relativeStartTime.toLong()) },
+        ROOM to { index, session -> bindString(index, session.room) },
+        ROOM_IDX to { index, session -> bindLong(index, session.roomIndex.toLong()) },
+        SLUG to { index, session -> bindString(index, session.slug) },
+        SPEAKERS to { index, session -> bindString(index, session.speakers) },
+        START to { index, session -> bindLong(index, session.startTime.toLong()) },
+        SUBTITLE to { index, session -> bindString(index, session.subtitle) },
+        TIME_ZONE_OFFSET to { index, session -> bindLongOrNull(index, session.timeZoneOffset?.toLong()) },
+        TITLE to { index, session -> bindString(index, session.title) },
+        TRACK to { index, session -> bindString(index, session.track) },
+        TYPE to { index, session -> bindString(index, session.type) },
+        URL to { index, session -> bindString(index, session.url) },
+        CONTENT_HASH to { index, session -> bindLong(index, session.contentHash) },
+
+        CHANGED_DAY to { index, session -> bindBoolean(index, session.changedDay) },
+        CHANGED_DURATION to { index, session -> bindBoolean(index, session.changedDuration) },
+        CHANGED_IS_CANCELED to { index, session -> bindBoolean(index, session.changedIsCanceled) },
+        CHANGED_IS_NEW to { index, session -> bindBoolean(index, session.changedIsNew) },
+        CHANGED_LANGUAGE to { index, session -> bindBoolean(index, session.changedLanguage) },
+        CHANGED_RECORDING_OPTOUT to { index, session -> bindBoolean(index, session.changedRecordingOptOut) },
+        CHANGED_ROOM to { index, session -> bindBoolean(index, session.changedRoom) },
+        CHANGED_SPEAKERS to { index, session -> bindBoolean(index, session.changedSpeakers) },
+        CHANGED_SUBTITLE to { index, session -> bindBoolean(index, session.changedSubtitle) },
+        CHANGED_TIME to { index, session -> bindBoolean(index, session.changedTime) },
+        CHANGED_TITLE to { index, session -> bindBoolean(index, session.changedTitle) },
+        CHANGED_TRACK to { index, session -> bindBoolean(index, session.changedTrack) }
+)
+
+/**
+ * SQL statement which inserts a session or replaces the existing row with the same session ID.
+ * Relies on the unique index on [SESSION_ID]. Bind the arguments via [bindSession].
+ */
+internal val INSERT_OR_REPLACE_SESSION_SQL = SESSION_COLUMN_BINDINGS.let { bindings ->
+    "INSERT OR REPLACE INTO ${SessionsTable.NAME} (" +
+            bindings.joinToString(",") { (columnName, _) -> columnName } +
+            ") VALUES (" +
+            bindings.joinToString(",") { "?" } +
+            ")"
+}
+
+/**
+ * Binds all values of the given [session] to this statement compiled from [INSERT_OR_REPLACE_SESSION_SQL].
+ * Existing bindings are overwritten so that the statement can be reused for the next session.
+ */
+internal fun SQLiteStatement.bindSession(session: Session) {
+    SESSION_COLUMN_BINDINGS.forEachIndexed { index, (_, bind) ->
+        bind(index + 1, session)
+    }
+}
+
+private fun SQLiteStatement.bindBoolean(index: Int, value: Boolean) =
+        bindLong(index, if (value) 1 else 0)
+
+private fun SQLiteStatement.bindLongOrNull(index: Int, value: Long?) =
+        if (value == null) bindNull(index) else bindLong(index, value)
+
 /**
  * Converts a session ID into [ContentValues].
  */
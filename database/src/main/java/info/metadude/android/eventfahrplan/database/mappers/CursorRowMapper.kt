@@ -0,0 +1,37 @@
+package info.metadude.android.eventfahrplan.database.mappers
+
+import android.database.Cursor
+
+/**
+ * Maps the rows of a [Cursor] to models of type [T].
+ *
+ * Column indices are looked up once per cursor in [createRowReader] instead of once per
+ * row and column. The [projection] lists the columns the mapper reads. Pass it to the query
+ * so that only those columns are fetched.
+ */
+interface CursorRowMapper<T> {
+
+    /**
+     * Columns read by this mapper or `null` to read all columns.
+     */
+    val projection: Array<String>?
+
+    /**
+     * Resolves the column indices of the given [cursor] and returns a function
+     * which maps the row the cursor is currently positioned at.
+     */
+    fun createRowReader(cursor: Cursor): (Cursor) -> T
+
+}
+
+/**
+ * Returns a list containing the result of mapping each row of the cursor
+ * with the given [rowMapper]. Closes the Cursor afterwards.
+ */
+fun <T> Cursor.mapRows(rowMapper: CursorRowMapper<T>): List<T> = use {
+    val readRow = rowMapper.createRowReader(this)
+    List(count) { index ->
+        moveToPosition(index)
+        readRow(this)
+    }
+}
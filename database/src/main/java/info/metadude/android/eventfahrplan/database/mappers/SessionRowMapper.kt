@@ -0,0 +1,206 @@
+package info.metadude.android.eventfahrplan.database.mappers
+
+import android.database.Cursor
+import info.metadude.android.eventfahrplan.commons.text.StringPool
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.ABSTRACT
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_DAY
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_DURATION
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_IS_CANCELED
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_IS_NEW
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_LANGUAGE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_RECORDING_OPTOUT
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_ROOM
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_SPEAKERS
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_SUBTITLE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TIME
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TITLE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TRACK
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CONTENT_HASH
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE_UTC
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DAY
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DESCR
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DURATION
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.LANG
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.LINKS
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.REC_LICENSE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.REC_OPTOUT
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.REL_START
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.ROOM
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.ROOM_IDX
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SESSION_ID
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SLUG
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SPEAKERS
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.START
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SUBTITLE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TIME_ZONE_OFFSET
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TITLE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TRACK
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TYPE
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.URL
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Values.REC_OPT_OUT_OFF
+import info.metadude.android.eventfahrplan.database.models.Session
+
+/**
+ * Maps rows of the sessions table to [Session] models.
+ *
+ * If a [projection] is given then only these columns are read. The session ID is always required.
+ * Properties of columns which are not part of the projection keep their default values.
+ *
+ * The highlight and the alarm state are read from the optional [IS_HIGHLIGHT] and [HAS_ALARM]
+ * columns if the query joins them.
+ *
+ * Values which repeat throughout the schedule such as the room or the track share one
+ * instance per cursor.
+ */
+class SessionRowMapper(
+
+        override val projection: Array<String>? = null
+
+) : CursorRowMapper<Session> {
+
+    companion object {
+
+        /**
+         * Alias of the joined column which holds the highlight state of a session.
+         */
+        const val IS_HIGHLIGHT = "is_highlight"
+
+        /**
+         * Alias of the joined column which tells whether an alarm is set for a session.
+         */
+        const val HAS_ALARM = "has_alarm"
+
+        /**
+         * Reads all columns.
+         */
+        @JvmField
+        val ALL_COLUMNS = SessionRowMapper()
+
+        /**
+         * Columns needed to render a session in a list. Leaves out the long
+         * texts such as [ABSTRACT], [DESCR] and [LINKS].
+         */
+        @JvmField
+        val LIST_ITEM_PROJECTION = arrayOf(
+                SESSION_ID, TITLE, SUBTITLE, SPEAKERS, ROOM, ROOM_IDX, TRACK, TYPE, LANG,
+                DAY, DATE, DATE_UTC, TIME_ZONE_OFFSET, START, REL_START, DURATION,
+                REC_OPTOUT,
+                CHANGED_DAY, CHANGED_DURATION, CHANGED_IS_CANCELED, CHANGED_IS_NEW,
+                CHANGED_LANGUAGE, CHANGED_RECORDING_OPTOUT, CHANGED_ROOM, CHANGED_SPEAKERS,
+                CHANGED_SUBTITLE, CHANGED_TIME, CHANGED_TITLE, CHANGED_TRACK
+        )
+
+    }
+
+    override fun createRowReader(cursor: Cursor): (Cursor) -> Session {
+        val sessionId = cursor.getColumnIndexOrThrow(SESSION_ID)
+        val abstractt = cursor.indexOf(ABSTRACT)
+        val date = cursor.indexOf(DATE)
+        val dateUtc = cursor.indexOf(DATE_UTC)
+        val day = cursor.indexOf(DAY)
+        val description = cursor.indexOf(DESCR)
+        val duration = cursor.indexOf(DURATION)
+        val language = cursor.indexOf(LANG)
+        val links = cursor.indexOf(LINKS)
+        val recordingLicense = cursor.indexOf(REC_LICENSE)
+        val recordingOptOut = cursor.indexOf(REC_OPTOUT)
+        val relativeStartTime = cursor.indexOf(REL_START)
+        val room = cursor.indexOf(ROOM)
+        val roomIndex = cursor.indexOf(ROOM_IDX)
+        val slug = cursor.indexOf(SLUG)
+        val speakers = cursor.indexOf(SPEAKERS)
+        val subtitle = cursor.indexOf(SUBTITLE)
+        val startTime = cursor.indexOf(START)
+        val timeZoneOffset = cursor.indexOf(TIME_ZONE_OFFSET)
+        val title = cursor.indexOf(TITLE)
+        val track = cursor.indexOf(TRACK)
+        val type = cursor.indexOf(TYPE)
+        val url = cursor.indexOf(URL)
+        val contentHash = cursor.indexOf(CONTENT_HASH)
+        val changedDay = cursor.indexOf(CHANGED_DAY)
+        val changedDuration = cursor.indexOf(CHANGED_DURATION)
+        val changedIsCanceled = cursor.indexOf(CHANGED_IS_CANCELED)
+        val changedIsNew = cursor.indexOf(CHANGED_IS_NEW)
+        val changedLanguage = cursor.indexOf(CHANGED_LANGUAGE)
+        val changedRecordingOptOut = cursor.indexOf(CHANGED_RECORDING_OPTOUT)
+        val changedRoom = cursor.indexOf(CHANGED_ROOM)
+        val changedSpeakers = cursor.indexOf(CHANGED_SPEAKERS)
+        val changedSubtitle = cursor.indexOf(CHANGED_SUBTITLE)
+        val changedTime = cursor.indexOf(CHANGED_TIME)
+        val changedTitle = cursor.indexOf(CHANGED_TITLE)
+        val changedTrack = cursor.indexOf(CHANGED_TRACK)
+        val isHighlight = cursor.getColumnIndex(IS_HIGHLIGHT)
+        val hasAlarm = cursor.getColumnIndex(HAS_ALARM)
+        val strings = StringPool()
+
+        return { row ->
+            Session(
+                    sessionId = row.getString(sessionId),
+                    abstractt = row.getStringOrEmpty(abstractt),
+                    date = strings.intern(row.getStringOrEmpty(date)),
+                    dateUTC = row.getLongOrZero(dateUtc),
+                    dayIndex = row.getIntOrZero(day),
+                    description = row.getStringOrEmpty(description),
+                    duration = row.getIntOrZero(duration),
+                    hasAlarm = row.getBooleanOrFalse(hasAlarm),
+                    isHighlight = row.getBooleanOrFalse(isHighlight),
+                    language = strings.intern(row.getStringOrEmpty(language)),
+                    links = row.getStringOrEmpty(links),
+                    recordingLicense = row.getStringOrEmpty(recordingLicense),
+                    recordingOptOut = if (row.getIntOrZero(recordingOptOut) == REC_OPT_OUT_OFF)
+                        Session.RECORDING_OPT_OUT_OFF
+                    else
+                        Session.RECORDING_OPT_OUT_ON,
+                    relativeStartTime = row.getIntOrZero(relativeStartTime),
+                    room = strings.intern(row.getStringOrEmpty(room)),
+                    roomIndex = row.getIntOrZero(roomIndex),
+                    slug = row.getStringOrEmpty(slug),
+                    speakers = row.getStringOrEmpty(speakers),
+                    subtitle = row.getStringOrEmpty(subtitle),
+                    startTime = row.getIntOrZero(startTime),
+                    timeZoneOffset = row.getIntOrNull(timeZoneOffset),
+                    title = row.getStringOrEmpty(title),
+                    track = strings.intern(row.getStringOrEmpty(track)),
+                    type = strings.intern(row.getStringOrEmpty(type)),
+                    url = row.getStringOrEmpty(url),
+                    contentHash = row.getLongOrZero(contentHash),
+                    changedDay = row.getBooleanOrFalse(changedDay),
+                    changedDuration = row.getBooleanOrFalse(changedDuration),
+                    changedIsCanceled = row.getBooleanOrFalse(changedIsCanceled),
+                    changedIsNew = row.getBooleanOrFalse(changedIsNew),
+                    changedLanguage = row.getBooleanOrFalse(changedLanguage),
+                    changedRecordingOptOut = row.getBooleanOrFalse(changedRecordingOptOut),
+                    changedRoom = row.getBooleanOrFalse(changedRoom),
+                    changedSpeakers = row.getBooleanOrFalse(changedSpeakers),
+                    changedSubtitle = row.getBooleanOrFalse(changedSubtitle),
+                    changedTime = row.getBooleanOrFalse(changedTime),
+                    changedTitle = row.getBooleanOrFalse(changedTitle),
+                    changedTrack = row.getBooleanOrFalse(changedTrack)
+            )
+        }
+    }
+
+    /**
+     * Returns the index of the given [columnName]. Columns which are not part of
+     * the [projection] are reported as missing by returning `-1`.
+     */
+    private fun Cursor.indexOf(columnName: String) =
+            if (projection == null) getColumnIndexOrThrow(columnName) else getColumnIndex(columnName)
+
+    private fun Cursor.getStringOrEmpty(index: Int): String =
+            if (index == -1 || isNull(index)) "" else getString(index)
+
+    private fun Cursor.getIntOrZero(index: Int) =
+            if (index == -1) 0 else getInt(index)
+
+    private fun Cursor.getLongOrZero(index: Int) =
+            if (index == -1) 0L else getLong(index)
+
+    private fun Cursor.getIntOrNull(index: Int) =
+            if (index == -1 || isNull(index)) null else getInt(index)
+
+    private fun Cursor.getBooleanOrFalse(index: Int) =
+            index != -1 && getInt(index) != 0
+
+}
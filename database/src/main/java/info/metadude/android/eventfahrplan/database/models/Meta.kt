@@ -4,7 +4,9 @@ import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.Me
 
 data class Meta(
 
+        val downloadUrl: String = "",
         val eTag: String = "",
+        val lastModified: String = "",
         val numDays: Int = NUM_DAYS_DEFAULT,
         val subtitle: String = "",
         val timeZoneName: String? = null,
@@ -0,0 +1,24 @@
+package info.metadude.android.eventfahrplan.database.models
+
+/**
+ * Query plan which SQLite chooses for the given [sql] statement as reported by `EXPLAIN QUERY PLAN`.
+ * Each entry of [details] describes one step of the plan.
+ */
+data class QueryPlan(
+
+        val sql: String,
+        val details: List<String>
+
+) {
+
+    /**
+     * Returns `true` if none of the steps scans a whole table without using an index
+     * and no temporary B-tree is built for sorting the result.
+     */
+    val usesIndex: Boolean
+        get() = details.none { it.isFullTableScan || it.startsWith("USE TEMP B-TREE") }
+
+    private val String.isFullTableScan
+        get() = startsWith("SCAN") && !contains(" USING ")
+
+}
@@ -0,0 +1,9 @@
+package info.metadude.android.eventfahrplan.database.models
+
+data class ScheduleColumn(
+
+        val dayIndex: Int,
+        val roomName: String,
+        val columnIndex: Int
+
+)
@@ -30,6 +30,7 @@ data class Session(
         val track: String = "",
         val type: String = "",
         val url: String = "",
+        val contentHash: Long = 0,
 
         val changedDay: Boolean = false,
         val changedDuration: Boolean = false,
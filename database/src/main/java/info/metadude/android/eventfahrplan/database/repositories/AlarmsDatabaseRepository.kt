@@ -12,6 +12,7 @@ import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.Al
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.AlarmsTable.Columns.SESSION_TITLE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.AlarmsTable.Columns.TIME
 import info.metadude.android.eventfahrplan.database.extensions.delete
+import info.metadude.android.eventfahrplan.database.extensions.explainRead
 import info.metadude.android.eventfahrplan.database.extensions.getInt
 import info.metadude.android.eventfahrplan.database.extensions.getLong
 import info.metadude.android.eventfahrplan.database.extensions.getString
@@ -20,11 +21,12 @@ import info.metadude.android.eventfahrplan.database.extensions.map
 import info.metadude.android.eventfahrplan.database.extensions.read
 import info.metadude.android.eventfahrplan.database.extensions.upsert
 import info.metadude.android.eventfahrplan.database.models.Alarm
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.AlarmsDBOpenHelper
+import info.metadude.android.eventfahrplan.database.models.QueryPlan
+import info.metadude.android.eventfahrplan.database.sqliteopenhelper.FahrplanDBOpenHelper
 
 class AlarmsDatabaseRepository(
 
-        private val sqLiteOpenHelper: AlarmsDBOpenHelper
+        private val sqLiteOpenHelper: FahrplanDBOpenHelper
 
 ) {
 
@@ -44,6 +46,18 @@ class AlarmsDatabaseRepository(
         read(AlarmsTable.NAME, selection = "$SESSION_ID=?", selectionArgs = arrayOf(sessionId))
     }
 
+    /**
+     * Returns the query plans of the frequent alarm queries.
+     * See [QueryPlan.usesIndex] to find out whether they are served by an index.
+     */
+    fun queryPlans(): List<QueryPlan> = with(sqLiteOpenHelper.readableDatabase) {
+        listOf(
+                explainRead(AlarmsTable.NAME,
+                        selection = "$SESSION_ID=?",
+                        selectionArgs = arrayOf("0"))
+        )
+    }
+
     private fun query(query: SQLiteDatabase.() -> Cursor): List<Alarm> {
         val database = sqLiteOpenHelper.readableDatabase
 
@@ -80,6 +94,10 @@ class AlarmsDatabaseRepository(
         delete(AlarmsTable.NAME, SESSION_ID, sessionId)
     }
 
+    fun deleteAll() = delete {
+        delete(AlarmsTable.NAME, null, null)
+    }
+
     private fun delete(query: SQLiteDatabase.() -> Int) =
             with(sqLiteOpenHelper) {
                 writableDatabase.delete(query)
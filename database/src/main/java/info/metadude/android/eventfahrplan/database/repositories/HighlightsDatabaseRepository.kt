@@ -9,6 +9,7 @@ import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.Hi
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.HighlightsTable.Values.HIGHLIGHT_STATE_OFF
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.HighlightsTable.Values.HIGHLIGHT_STATE_ON
 import info.metadude.android.eventfahrplan.database.extensions.delete
+import info.metadude.android.eventfahrplan.database.extensions.explainRead
 import info.metadude.android.eventfahrplan.database.extensions.getInt
 import info.metadude.android.eventfahrplan.database.extensions.getString
 import info.metadude.android.eventfahrplan.database.extensions.insert
@@ -17,11 +18,12 @@ import info.metadude.android.eventfahrplan.database.extensions.read
 import info.metadude.android.eventfahrplan.database.extensions.updateRows
 import info.metadude.android.eventfahrplan.database.extensions.upsert
 import info.metadude.android.eventfahrplan.database.models.Highlight
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.HighlightDBOpenHelper
+import info.metadude.android.eventfahrplan.database.models.QueryPlan
+import info.metadude.android.eventfahrplan.database.sqliteopenhelper.FahrplanDBOpenHelper
 
 class HighlightsDatabaseRepository(
 
-        private val sqLiteOpenHelper: HighlightDBOpenHelper
+        private val sqLiteOpenHelper: FahrplanDBOpenHelper
 
 ) {
 
@@ -54,27 +56,17 @@ class HighlightsDatabaseRepository(
         }
     }
 
-    fun queryBySessionId(sessionId: Int): Highlight? {
-        val database = sqLiteOpenHelper.readableDatabase
-        val cursor = try {
-            database.read(
-                tableName = HighlightsTable.NAME,
-                selection = "$SESSION_ID=?",
-                selectionArgs = arrayOf(sessionId.toString())
-            )
-        } catch (e: SQLiteException) {
-            return null
-        }
-
-        return cursor.use {
-            if (cursor.moveToFirst()) {
-                val highlightState = cursor.getInt(HIGHLIGHT)
-                val isHighlighted = highlightState == HIGHLIGHT_STATE_ON
-                Highlight(sessionId, isHighlighted)
-            } else {
-                null
-            }
-        }
+    /**
+     * Returns the query plans of the frequent highlight queries.
+     * See [QueryPlan.usesIndex] to find out whether they are served by an index.
+     */
+    fun queryPlans(): List<QueryPlan> = with(sqLiteOpenHelper.readableDatabase) {
+        listOf(
+                explainRead(HighlightsTable.NAME, orderBy = SESSION_ID),
+                explainRead(HighlightsTable.NAME,
+                        selection = "$SESSION_ID=?",
+                        selectionArgs = arrayOf("0"))
+        )
     }
 
     /**
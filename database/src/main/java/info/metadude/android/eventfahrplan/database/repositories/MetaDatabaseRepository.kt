@@ -4,7 +4,9 @@ import android.content.ContentValues
 import android.database.sqlite.SQLiteException
 import android.util.Log
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.DOWNLOAD_URL
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.ETAG
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.LAST_MODIFIED
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.NUM_DAYS
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.SUBTITLE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable.Columns.TIME_ZONE_NAME
@@ -18,11 +20,11 @@ import info.metadude.android.eventfahrplan.database.extensions.insert
 import info.metadude.android.eventfahrplan.database.extensions.read
 import info.metadude.android.eventfahrplan.database.extensions.upsert
 import info.metadude.android.eventfahrplan.database.models.Meta
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.MetaDBOpenHelper
+import info.metadude.android.eventfahrplan.database.sqliteopenhelper.FahrplanDBOpenHelper
 
 class MetaDatabaseRepository(
 
-        private val sqLiteOpenHelper: MetaDBOpenHelper
+        private val sqLiteOpenHelper: FahrplanDBOpenHelper
 
 ) {
 
@@ -52,7 +54,9 @@ class MetaDatabaseRepository(
                         timeZoneName = cursor.getStringOrNull(TIME_ZONE_NAME),
                         title = cursor.getString(TITLE),
                         subtitle = cursor.getString(SUBTITLE),
-                        eTag = cursor.getString(ETAG)
+                        eTag = cursor.getString(ETAG),
+                        lastModified = cursor.getString(LAST_MODIFIED),
+                        downloadUrl = cursor.getString(DOWNLOAD_URL)
                 )
             } else {
                 Meta()
@@ -6,9 +6,15 @@ import android.database.sqlite.SQLiteDatabase
 import android.database.sqlite.SQLiteException
 import androidx.core.database.sqlite.transaction
 import info.metadude.android.eventfahrplan.commons.logging.Logging
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.AlarmsTable
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.HighlightsTable
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.HighlightsTable.Columns.HIGHLIGHT
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.HighlightsTable.Values.HIGHLIGHT_STATE_OFF
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.HighlightsTable.Values.HIGHLIGHT_STATE_ON
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable.Columns.COLUMN_INDEX
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionByNotificationIdTable
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.ABSTRACT
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_DAY
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_DURATION
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_IS_CANCELED
@@ -21,48 +27,59 @@ import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.Se
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TIME
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TITLE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.CHANGED_TRACK
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DATE_UTC
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DAY
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DESCR
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.DURATION
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.LANG
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.LINKS
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.REC_LICENSE
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.REC_OPTOUT
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.REL_START
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.ROOM
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.ROOM_IDX
 import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SESSION_ID
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SLUG
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SPEAKERS
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.START
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.SUBTITLE
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TIME_ZONE_OFFSET
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TITLE
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TRACK
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.TYPE
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns.URL
-import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Values.REC_OPT_OUT_OFF
+import info.metadude.android.eventfahrplan.database.extensions.INSERT_OR_REPLACE_SESSION_SQL
+import info.metadude.android.eventfahrplan.database.extensions.bindSession
 import info.metadude.android.eventfahrplan.database.extensions.delete
-import info.metadude.android.eventfahrplan.database.extensions.getInt
-import info.metadude.android.eventfahrplan.database.extensions.getIntOrNull
-import info.metadude.android.eventfahrplan.database.extensions.getLong
-import info.metadude.android.eventfahrplan.database.extensions.getString
+import info.metadude.android.eventfahrplan.database.extensions.deleteRows
+import info.metadude.android.eventfahrplan.database.extensions.explainRawQuery
+import info.metadude.android.eventfahrplan.database.extensions.explainRead
 import info.metadude.android.eventfahrplan.database.extensions.insert
-import info.metadude.android.eventfahrplan.database.extensions.map
 import info.metadude.android.eventfahrplan.database.extensions.read
-import info.metadude.android.eventfahrplan.database.extensions.updateRow
+import info.metadude.android.eventfahrplan.database.extensions.toContentValues
+import info.metadude.android.eventfahrplan.database.mappers.SessionRowMapper
+import info.metadude.android.eventfahrplan.database.mappers.SessionRowMapper.Companion.HAS_ALARM
+import info.metadude.android.eventfahrplan.database.mappers.SessionRowMapper.Companion.IS_HIGHLIGHT
+import info.metadude.android.eventfahrplan.database.mappers.mapRows
+import info.metadude.android.eventfahrplan.database.models.QueryPlan
+import info.metadude.android.eventfahrplan.database.models.ScheduleColumn
 import info.metadude.android.eventfahrplan.database.models.Session
-import info.metadude.android.eventfahrplan.database.sqliteopenhelper.SessionsDBOpenHelper
+import info.metadude.android.eventfahrplan.database.sqliteopenhelper.FahrplanDBOpenHelper
 
 class SessionsDatabaseRepository(
 
-        private val sqLiteOpenHelper: SessionsDBOpenHelper,
+        private val sqLiteOpenHelper: FahrplanDBOpenHelper,
         private val logging: Logging
 
 ) {
 
+    private companion object {
+
+        /**
+         * Selects sessions which have been changed, canceled or added with the latest schedule update.
+         */
+        val CHANGED_SESSIONS_SELECTION = listOf(
+                CHANGED_DAY, CHANGED_DURATION, CHANGED_IS_CANCELED, CHANGED_IS_NEW,
+                CHANGED_LANGUAGE, CHANGED_RECORDING_OPTOUT, CHANGED_ROOM, CHANGED_SPEAKERS,
+                CHANGED_SUBTITLE, CHANGED_TIME, CHANGED_TITLE, CHANGED_TRACK
+        ).joinToString(" OR ") { "s.$it!=0" }
+
+        /**
+         * Joins the column of each session. Sessions in rooms without a column are left out.
+         */
+        val SCHEDULE_COLUMNS_JOIN = "JOIN ${ScheduleColumnsTable.NAME} c " +
+                "ON c.${ScheduleColumnsTable.Columns.DAY}=s.$DAY " +
+                "AND c.${ScheduleColumnsTable.Columns.ROOM}=s.$ROOM"
+
+        const val SCHEDULE_SESSIONS_SELECTION = "c.${ScheduleColumnsTable.Columns.DAY}=? AND s.$CHANGED_IS_CANCELED=?"
+
+        const val SCHEDULE_SESSIONS_ORDER_BY = "c.$COLUMN_INDEX, s.$DATE_UTC"
+
+    }
+
     /**
      * Inserts the session ID into the [SessionByNotificationIdTable] and returns
      * the newly generated notification ID which is associated with the session ID.
@@ -88,150 +105,213 @@ class SessionsDatabaseRepository(
 
 
     /**
-     * Updates or inserts sessions based on the given [contentValuesBySessionId].
+     * Updates or inserts the given [toBeUpdatedSessions]. Rows are matched by their session ID.
      * Removes all sessions identified by their [session IDs][toBeDeletedSessionIds].
+     * All changes are written in a single transaction.
      */
     fun updateSessions(
-            contentValuesBySessionId: List<Pair</* sessionId */ String, ContentValues>>,
+            toBeUpdatedSessions: List<Session>,
             toBeDeletedSessionIds: List</* sessionId */ String>
     ) = with(sqLiteOpenHelper) {
         writableDatabase.transaction {
-            contentValuesBySessionId.forEach { (sessionId, contentValues) ->
-                upsertSession(sessionId, contentValues)
-            }
-            toBeDeletedSessionIds.forEach { toBeDeletedSessionId ->
-                deleteSession(toBeDeletedSessionId)
-            }
+            upsertSessions(toBeUpdatedSessions)
+            deleteRows(
+                    tableName = SessionsTable.NAME,
+                    columnName = SESSION_ID,
+                    columnValues = toBeDeletedSessionIds
+            )
         }
     }
 
     /**
-     * Updates a session with the given [contentValues]. A row is matched by its [sessionId].
-     * If no row was affected by the update operation then an insert operation is performed
-     * assuming that the session does not exist in the table.
-     *
-     * This function must be called in the context of a [transaction] block.
+     * Replaces all rows of the [ScheduleColumnsTable] with the given [scheduleColumns].
+     * Joins the transaction of the caller if there is one.
      */
-    private fun SQLiteDatabase.upsertSession(sessionId: String, contentValues: ContentValues) {
-        val affectedRowsCount = updateRow(
-                tableName = SessionsTable.NAME,
-                contentValues = contentValues,
-                columnName = SESSION_ID,
-                columnValue = sessionId
-        )
-        if (affectedRowsCount == 0) {
-            insert(
-                    tableName = SessionsTable.NAME,
-                    values = contentValues
-            )
+    fun updateScheduleColumns(scheduleColumns: List<ScheduleColumn>) = with(sqLiteOpenHelper) {
+        writableDatabase.transaction {
+            delete(ScheduleColumnsTable.NAME)
+            scheduleColumns.forEach { insert(ScheduleColumnsTable.NAME, it.toContentValues()) }
         }
     }
 
     /**
-     * Delete the session identified by the given [sessionId] from the table.
+     * Inserts the given [sessions] or replaces the existing rows with the same session ID.
+     * A single compiled statement is reused for all sessions.
+     *
+     * This function must be called in the context of a [transaction] block.
      */
-    private fun SQLiteDatabase.deleteSession(sessionId: String) = delete(
-            tableName = SessionsTable.NAME,
-            columnName = SESSION_ID,
-            columnValue = sessionId
-    )
+    private fun SQLiteDatabase.upsertSessions(sessions: List<Session>) {
+        if (sessions.isEmpty()) {
+            return
+        }
+        compileStatement(INSERT_OR_REPLACE_SESSION_SQL).use { statement ->
+            sessions.forEach { session ->
+                statement.bindSession(session)
+                statement.executeInsert()
+            }
+        }
+    }
 
     fun querySessionBySessionId(sessionId: String): Session {
         return try {
-            query {
-                read(SessionsTable.NAME,
-                        selection = "$SESSION_ID=?",
-                        selectionArgs = arrayOf(sessionId))
-            }.first()
+            queryWithHighlightsAndAlarms(
+                    selection = "s.$SESSION_ID=?",
+                    selectionArgs = arrayOf(sessionId)
+            ).first()
         } catch (e: NoSuchElementException) {
             logging.report(javaClass.simpleName, "Sessions table does not contain a session with ID '$sessionId'. ${e.message}")
             throw e
         }
     }
 
-    fun querySessionsForDayIndexOrderedByDateUtc(dayIndex: Int) = query {
-        read(SessionsTable.NAME,
-                selection = "$DAY=?",
-                selectionArgs = arrayOf(String.format("%d", dayIndex)),
-                orderBy = DATE_UTC)
-    }
+    fun querySessionsForDayIndexOrderedByDateUtc(
+            dayIndex: Int,
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS
+    ) = queryWithHighlightsAndAlarms(
+            rowMapper = rowMapper,
+            selection = "s.$DAY=?",
+            selectionArgs = arrayOf(String.format("%d", dayIndex))
+    )
 
-    fun querySessionsOrderedByDateUtc() = query {
-        read(SessionsTable.NAME, orderBy = DATE_UTC)
-    }
+    /**
+     * Returns the uncanceled sessions of the given [day][dayIndex] ordered by the column of
+     * their room and by their start time within each room. Rooms follow each other as stored
+     * by [updateScheduleColumns]. The list is empty if no columns are stored for the day.
+     */
+    fun queryScheduleSessionsForDayIndex(
+            dayIndex: Int,
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS
+    ) = queryWithHighlightsAndAlarms(
+            rowMapper = rowMapper,
+            join = SCHEDULE_COLUMNS_JOIN,
+            selection = SCHEDULE_SESSIONS_SELECTION,
+            selectionArgs = arrayOf(String.format("%d", dayIndex), "0"),
+            orderBy = SCHEDULE_SESSIONS_ORDER_BY
+    )
+
+    fun querySessionsOrderedByDateUtc(
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS
+    ) = queryWithHighlightsAndAlarms(rowMapper = rowMapper)
 
-    fun querySessionsWithoutRoom(roomName: String) = query {
+    fun querySessionsWithoutRoom(
+            roomName: String,
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS
+    ) = queryWithHighlightsAndAlarms(
+            rowMapper = rowMapper,
+            selection = "s.$ROOM!=?",
+            selectionArgs = arrayOf(roomName)
+    )
+
+    /**
+     * Returns all sessions which have been changed, canceled or added with the latest
+     * schedule update. The sessions are filtered by SQLite and ordered by their start time.
+     */
+    fun queryChangedSessions(
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS
+    ) = queryWithHighlightsAndAlarms(
+            rowMapper = rowMapper,
+            selection = CHANGED_SESSIONS_SELECTION
+    )
+
+    /**
+     * Returns all sessions which have been highlighted and have not been canceled.
+     * The sessions are filtered by SQLite and ordered by their start time.
+     */
+    fun queryStarredSessions(
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS
+    ) = queryWithHighlightsAndAlarms(
+            rowMapper = rowMapper,
+            selection = "h.$HIGHLIGHT=? AND s.$CHANGED_IS_CANCELED=?",
+            selectionArgs = arrayOf("$HIGHLIGHT_STATE_ON", "0")
+    )
+
+    fun querySessionsWithinRoom(
+            roomName: String,
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS
+    ) = query(rowMapper) { projection ->
         read(SessionsTable.NAME,
-                selection = "$ROOM!=?",
+                columns = projection,
+                selection = "$ROOM=?",
                 selectionArgs = arrayOf(roomName),
                 orderBy = DATE_UTC
         )
     }
 
-    fun querySessionsWithinRoom(roomName: String) = query {
-        read(SessionsTable.NAME,
-                selection = "$ROOM=?",
-                selectionArgs = arrayOf(roomName),
-                orderBy = DATE_UTC
+    /**
+     * Returns the query plans of the frequent session queries.
+     * See [QueryPlan.usesIndex] to find out whether they are served by an index.
+     */
+    fun queryPlans(): List<QueryPlan> = with(sqLiteOpenHelper.readableDatabase) {
+        listOf(
+                explainRawQuery(sessionsWithHighlightsAndAlarmsSql(null, "s.$SESSION_ID=?"), arrayOf("0")),
+                explainRawQuery(sessionsWithHighlightsAndAlarmsSql(null, "s.$DAY=?"), arrayOf("1")),
+                explainRawQuery(sessionsWithHighlightsAndAlarmsSql(null, null)),
+                explainRawQuery(sessionsWithHighlightsAndAlarmsSql(null, "s.$ROOM!=?"), arrayOf("")),
+                explainRawQuery(sessionsWithHighlightsAndAlarmsSql(null, SCHEDULE_SESSIONS_SELECTION,
+                        SCHEDULE_COLUMNS_JOIN, SCHEDULE_SESSIONS_ORDER_BY), arrayOf("1", "0")),
+                explainRead(SessionsTable.NAME,
+                        selection = "$ROOM=?",
+                        selectionArgs = arrayOf(""),
+                        orderBy = DATE_UTC)
         )
     }
 
-    private fun query(query: SQLiteDatabase.() -> Cursor): List<Session> = with(sqLiteOpenHelper.readableDatabase) {
+    /**
+     * Runs the sessions query for the given [selection] and maps the rows via the given [rowMapper].
+     * The highlight and the alarm state of each session are joined in the same query.
+     * Sessions are ordered by their start time unless another [orderBy] clause is given.
+     */
+    private fun queryWithHighlightsAndAlarms(
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS,
+            join: String? = null,
+            selection: String? = null,
+            selectionArgs: Array<String>? = null,
+            orderBy: String = "s.$DATE_UTC"
+    ) = query(rowMapper) { projection ->
+        rawQuery(sessionsWithHighlightsAndAlarmsSql(projection, selection, join, orderBy), selectionArgs)
+    }
+
+    /**
+     * Returns the sessions query which joins the highlight state and the alarm presence.
+     * Columns of the sessions table must be prefixed with `s.`, of the highlights table with `h.`
+     * in the given [selection]. Further tables can be added via the [join] clause.
+     */
+    private fun sessionsWithHighlightsAndAlarmsSql(
+            projection: Array<String>?,
+            selection: String?,
+            join: String? = null,
+            orderBy: String = "s.$DATE_UTC"
+    ): String {
+        val columns = projection?.joinToString(", ") { "s.$it" } ?: "s.*"
+        val joins = if (join == null) "" else " $join"
+        val where = if (selection == null) "" else " WHERE $selection"
+        return "SELECT $columns, " +
+                "IFNULL(h.$HIGHLIGHT, $HIGHLIGHT_STATE_OFF) AS $IS_HIGHLIGHT, " +
+                "EXISTS (SELECT 1 FROM ${AlarmsTable.NAME} a " +
+                "WHERE a.${AlarmsTable.Columns.SESSION_ID}=s.$SESSION_ID) AS $HAS_ALARM " +
+                "FROM ${SessionsTable.NAME} s" +
+                joins +
+                " LEFT JOIN ${HighlightsTable.NAME} h " +
+                "ON h.${HighlightsTable.Columns.SESSION_ID}=s.$SESSION_ID" +
+                where +
+                " ORDER BY $orderBy"
+    }
+
+    /**
+     * Runs the given [query] and maps the rows via the given [rowMapper].
+     * The query is expected to select the [projection][SessionRowMapper.projection] of the mapper.
+     */
+    private fun query(
+            rowMapper: SessionRowMapper = SessionRowMapper.ALL_COLUMNS,
+            query: SQLiteDatabase.(projection: Array<String>?) -> Cursor
+    ): List<Session> = with(sqLiteOpenHelper.readableDatabase) {
         val cursor = try {
-            query()
+            query(rowMapper.projection)
         } catch (e: SQLiteException) {
             e.printStackTrace()
             return emptyList()
         }
-
-        return cursor.map {
-            val recordingOptOut =
-                    if (cursor.getInt(REC_OPTOUT) == REC_OPT_OUT_OFF)
-                        Session.RECORDING_OPT_OUT_OFF
-                    else
-                        Session.RECORDING_OPT_OUT_ON
-
-            Session(
-                    sessionId = cursor.getString(SESSION_ID),
-                    abstractt = cursor.getString(ABSTRACT),
-                    date = cursor.getString(DATE),
-                    dateUTC = cursor.getLong(DATE_UTC),
-                    dayIndex = cursor.getInt(DAY),
-                    description = cursor.getString(DESCR),
-                    duration = cursor.getInt(DURATION),
-                    language = cursor.getString(LANG),
-                    links = cursor.getString(LINKS),
-                    recordingLicense = cursor.getString(REC_LICENSE),
-                    relativeStartTime = cursor.getInt(REL_START),
-                    room = cursor.getString(ROOM),
-                    roomIndex = cursor.getInt(ROOM_IDX),
-                    slug = cursor.getString(SLUG),
-                    speakers = cursor.getString(SPEAKERS),
-                    subtitle = cursor.getString(SUBTITLE),
-                    startTime = cursor.getInt(START),
-                    timeZoneOffset = cursor.getIntOrNull(TIME_ZONE_OFFSET),
-                    title = cursor.getString(TITLE),
-                    track = cursor.getString(TRACK),
-                    type = cursor.getString(TYPE),
-                    url = cursor.getString(URL),
-                    recordingOptOut = recordingOptOut,
-                    changedDay = cursor.getInt(CHANGED_DAY).isChanged,
-                    changedDuration = cursor.getInt(CHANGED_DURATION).isChanged,
-                    changedIsCanceled = cursor.getInt(CHANGED_IS_CANCELED).isChanged,
-                    changedIsNew = cursor.getInt(CHANGED_IS_NEW).isChanged,
-                    changedLanguage = cursor.getInt(CHANGED_LANGUAGE).isChanged,
-                    changedRecordingOptOut = cursor.getInt(CHANGED_RECORDING_OPTOUT).isChanged,
-                    changedRoom = cursor.getInt(CHANGED_ROOM).isChanged,
-                    changedSpeakers = cursor.getInt(CHANGED_SPEAKERS).isChanged,
-                    changedSubtitle = cursor.getInt(CHANGED_SUBTITLE).isChanged,
-                    changedTime = cursor.getInt(CHANGED_TIME).isChanged,
-                    changedTitle = cursor.getInt(CHANGED_TITLE).isChanged,
-                    changedTrack = cursor.getInt(CHANGED_TRACK).isChanged
-            )
-        }
+        return cursor.mapRows(rowMapper)
     }
 
-    private val Int.isChanged
-        get() = this != 0
-
 }
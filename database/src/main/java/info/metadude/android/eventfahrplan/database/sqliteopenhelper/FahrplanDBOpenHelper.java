@@ -0,0 +1,443 @@
+package info.metadude.android.eventfahrplan.database.sqliteopenhelper;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.provider.BaseColumns;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.AlarmsTable;
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.HighlightsTable;
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.MetasTable;
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.ScheduleColumnsTable;
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionByNotificationIdTable;
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable;
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Columns;
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Defaults;
+import info.metadude.android.eventfahrplan.database.contract.FahrplanContract.SessionsTable.Values;
+
+/**
+ * Opens the single database which holds all tables of the app.
+ * Write-ahead logging is enabled so that readers are not blocked while a schedule is written.
+ *
+ * Up to version 13 the database only contained the sessions tables. The highlights, alarms and
+ * meta tables used to live in separate database files. Their rows are imported when upgrading
+ * to version 14, the legacy files are deleted once the upgrade has been committed. Files which
+ * cannot be imported are kept and reported.
+ *
+ * Since version 15 the column layout of each day is stored in the schedule columns table.
+ * It is filled with the next schedule update.
+ */
+public class FahrplanDBOpenHelper extends SQLiteOpenHelper {
+
+    private static final int DATABASE_VERSION = 18;
+
+    private static final String DATABASE_NAME = "lectures"; // Keep database name to avoid database migration.
+
+    private static final String LOG_TAG = "FahrplanDBOpenHelper";
+
+    private static final LegacyDatabase[] LEGACY_DATABASES = {
+            new LegacyDatabase("highlight", HighlightsTable.NAME, 3),
+            new LegacyDatabase("alarms", AlarmsTable.NAME, 4),
+            new LegacyDatabase("meta", MetasTable.NAME, 5)
+    };
+
+    private static FahrplanDBOpenHelper instance;
+
+    private static final String SESSIONS_TABLE_CREATE =
+            "CREATE TABLE " + SessionsTable.NAME + " (" +
+                    Columns.SESSION_ID + " TEXT, " +
+                    Columns.TITLE + " TEXT, " +
+                    Columns.SUBTITLE + " TEXT, " +
+                    Columns.DAY + " INTEGER, " +
+                    Columns.ROOM + " STRING, " +
+                    Columns.SLUG + " TEXT, " +
+                    Columns.START + " INTEGER, " +
+                    Columns.DURATION + " INTEGER, " +
+                    Columns.SPEAKERS + " STRING, " +
+                    Columns.TRACK + " STRING, " +
+                    Columns.TYPE + " STRING, " +
+                    Columns.LANG + " STRING, " +
+                    Columns.ABSTRACT + " STRING, " +
+                    Columns.DESCR + " STRING, " +
+                    Columns.REL_START + " INTEGER, " +
+                    Columns.DATE + " STRING, " +
+                    Columns.LINKS + " STRING, " +
+                    Columns.DATE_UTC + " INTEGER, " +
+                    Columns.TIME_ZONE_OFFSET + " INTEGER DEFAULT NULL, " +
+                    Columns.ROOM_IDX + " INTEGER, " +
+                    Columns.REC_LICENSE + " STRING, " +
+                    Columns.REC_OPTOUT + " INTEGER," +
+                    Columns.URL + " TEXT," +
+                    Columns.CONTENT_HASH + " INTEGER DEFAULT " + Defaults.CONTENT_HASH_DEFAULT + "," +
+                    Columns.CHANGED_TITLE + " INTEGER," +
+                    Columns.CHANGED_SUBTITLE + " INTEGER," +
+                    Columns.CHANGED_ROOM + " INTEGER," +
+                    Columns.CHANGED_DAY + " INTEGER," +
+                    Columns.CHANGED_SPEAKERS + " INTEGER," +
+                    Columns.CHANGED_RECORDING_OPTOUT + " INTEGER," +
+                    Columns.CHANGED_LANGUAGE + " INTEGER," +
+                    Columns.CHANGED_TRACK + " INTEGER," +
+                    Columns.CHANGED_IS_NEW + " INTEGER," +
+                    Columns.CHANGED_TIME + " INTEGER," +
+                    Columns.CHANGED_DURATION + " INTEGER," +
+                    Columns.CHANGED_IS_CANCELED + " INTEGER)";
+
+    /**
+     * Ensures there is only one row per session ID. Sessions are inserted or replaced based on it.
+     */
+    private static final String SESSION_ID_INDEX_CREATE =
+            "CREATE UNIQUE INDEX IF NOT EXISTS " + SessionsTable.NAME + "_" + Columns.SESSION_ID + "_index" +
+                    " ON " + SessionsTable.NAME + " (" + Columns.SESSION_ID + ")";
+
+    /**
+     * Serves loading the sessions of a day ordered by their start time.
+     */
+    private static final String DAY_DATE_UTC_INDEX_CREATE =
+            "CREATE INDEX IF NOT EXISTS " + SessionsTable.NAME + "_" + Columns.DAY + "_" + Columns.DATE_UTC + "_index" +
+                    " ON " + SessionsTable.NAME + " (" + Columns.DAY + ", " + Columns.DATE_UTC + ")";
+
+    /**
+     * Serves loading the sessions of a room, e.g. the Engelsystem shifts, ordered by their start time.
+     */
+    private static final String ROOM_DATE_UTC_INDEX_CREATE =
+            "CREATE INDEX IF NOT EXISTS " + SessionsTable.NAME + "_" + Columns.ROOM + "_" + Columns.DATE_UTC + "_index" +
+                    " ON " + SessionsTable.NAME + " (" + Columns.ROOM + ", " + Columns.DATE_UTC + ")";
+
+    /**
+     * Serves loading all sessions or those outside of a room ordered by their start time
+     * without sorting them in a temporary table.
+     */
+    private static final String DATE_UTC_INDEX_CREATE =
+            "CREATE INDEX IF NOT EXISTS " + SessionsTable.NAME + "_" + Columns.DATE_UTC + "_index" +
+                    " ON " + SessionsTable.NAME + " (" + Columns.DATE_UTC + ")";
+
+    /**
+     * Serves loading the sessions of a day room by room ordered by their start time.
+     */
+    private static final String DAY_ROOM_DATE_UTC_INDEX_CREATE =
+            "CREATE INDEX IF NOT EXISTS " + SessionsTable.NAME + "_" + Columns.DAY + "_" + Columns.ROOM + "_" + Columns.DATE_UTC + "_index" +
+                    " ON " + SessionsTable.NAME + " (" + Columns.DAY + ", " + Columns.ROOM + ", " + Columns.DATE_UTC + ")";
+
+    /**
+     * Rows are read day by day in the order of their columns.
+     */
+    private static final String SCHEDULE_COLUMNS_TABLE_CREATE =
+            "CREATE TABLE " + ScheduleColumnsTable.NAME + " (" +
+                    ScheduleColumnsTable.Columns.DAY + " INTEGER, " +
+                    ScheduleColumnsTable.Columns.ROOM + " TEXT, " +
+                    ScheduleColumnsTable.Columns.COLUMN_INDEX + " INTEGER, " +
+                    "PRIMARY KEY (" + ScheduleColumnsTable.Columns.DAY + ", " + ScheduleColumnsTable.Columns.COLUMN_INDEX + "))";
+
+    private static final String HIGHLIGHT_TABLE_CREATE =
+            "CREATE TABLE " + HighlightsTable.NAME + " (" +
+                    HighlightsTable.Columns.ID + " INTEGER PRIMARY KEY, " +
+                    HighlightsTable.Columns.SESSION_ID + " INTEGER," +
+                    HighlightsTable.Columns.HIGHLIGHT + " INTEGER);";
+
+    private static final String HIGHLIGHT_SESSION_ID_INDEX_CREATE =
+            "CREATE INDEX IF NOT EXISTS " + HighlightsTable.NAME + "_" + HighlightsTable.Columns.SESSION_ID + "_index" +
+                    " ON " + HighlightsTable.NAME + " (" + HighlightsTable.Columns.SESSION_ID + ")";
+
+    private static final String ALARMS_TABLE_CREATE =
+            "CREATE TABLE " + AlarmsTable.NAME + " (" +
+                    AlarmsTable.Columns.ID + " INTEGER PRIMARY KEY, " +
+                    AlarmsTable.Columns.SESSION_TITLE + " TEXT, " +
+                    AlarmsTable.Columns.ALARM_TIME_IN_MIN + " INTEGER DEFAULT " +
+                    AlarmsTable.Defaults.ALARM_TIME_IN_MIN_DEFAULT + ", " +
+                    AlarmsTable.Columns.TIME + " INTEGER, " +
+                    AlarmsTable.Columns.TIME_TEXT + " STRING," +
+                    AlarmsTable.Columns.SESSION_ID + " INTEGER," +
+                    AlarmsTable.Columns.DISPLAY_TIME + " INTEGER," +
+                    AlarmsTable.Columns.DAY + " INTEGER);";
+
+    private static final String ALARMS_SESSION_ID_INDEX_CREATE =
+            "CREATE INDEX IF NOT EXISTS " + AlarmsTable.NAME + "_" + AlarmsTable.Columns.SESSION_ID + "_index" +
+                    " ON " + AlarmsTable.NAME + " (" + AlarmsTable.Columns.SESSION_ID + ")";
+
+    private static final String META_TABLE_CREATE =
+            "CREATE TABLE " + MetasTable.NAME + " (" +
+                    MetasTable.Columns.NUM_DAYS + " INTEGER, " +
+                    MetasTable.Columns.VERSION + " TEXT, " +
+                    MetasTable.Columns.TITLE + " TEXT, " +
+                    MetasTable.Columns.SUBTITLE + " TEXT, " +
+                    MetasTable.Columns.ETAG + " TEXT, " +
+                    MetasTable.Columns.TIME_ZONE_NAME + " TEXT);";
+
+    private static final String META_LAST_MODIFIED_COLUMN_ADD =
+            "ALTER TABLE " + MetasTable.NAME + " ADD COLUMN " + MetasTable.Columns.LAST_MODIFIED +
+                    " TEXT DEFAULT " + MetasTable.Defaults.LAST_MODIFIED_DEFAULT;
+
+    private static final String META_DOWNLOAD_URL_COLUMN_ADD =
+            "ALTER TABLE " + MetasTable.NAME + " ADD COLUMN " + MetasTable.Columns.DOWNLOAD_URL +
+                    " TEXT DEFAULT " + MetasTable.Defaults.DOWNLOAD_URL_DEFAULT;
+
+    /**
+     * Create statement for a mapping table (notification ID, session ID). Each insert automatically
+     * increments the primary key and therefore generates a new notification ID.
+     */
+    private static final String SESSION_BY_NOTIFICATION_ID_TABLE_CREATE = "" +
+            "CREATE TABLE " + SessionByNotificationIdTable.NAME + " (" +
+            BaseColumns._ID + " INTEGER PRIMARY KEY AUTOINCREMENT," +
+            SessionByNotificationIdTable.Columns.SESSION_ID + " TEXT)";
+
+    private final Context context;
+
+    /**
+     * Names of the legacy database files whose rows have been imported by the pending upgrade.
+     */
+    private final Set<String> importedLegacyDatabases = new HashSet<>();
+
+    /**
+     * Returns the process-wide instance. All repositories share it so that
+     * they use the same connection pool and can join each other's transactions.
+     */
+    @NonNull
+    public static synchronized FahrplanDBOpenHelper getInstance(@NonNull Context context) {
+        if (instance == null) {
+            instance = new FahrplanDBOpenHelper(context);
+        }
+        return instance;
+    }
+
+    private FahrplanDBOpenHelper(@NonNull Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+        this.context = context.getApplicationContext();
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        createSessionsTables(db);
+        createHighlightsAlarmsAndMetaTables(db);
+        importLegacyDatabases(db);
+        createScheduleColumnsTable(db);
+        db.execSQL(META_LAST_MODIFIED_COLUMN_ADD);
+        db.execSQL(META_DOWNLOAD_URL_COLUMN_ADD);
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        deleteLegacyDatabases();
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2 && newVersion >= 2) {
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME +
+                    " ADD COLUMN " + Columns.DATE_UTC + " INTEGER DEFAULT " +
+                    Defaults.DATE_UTC_DEFAULT);
+        }
+        if (oldVersion < 3 && newVersion >= 3) {
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME +
+                    " ADD COLUMN " + Columns.ROOM_IDX + " INTEGER DEFAULT " +
+                    Defaults.ROOM_IDX_DEFAULT);
+        }
+        if (oldVersion < 4 && newVersion >= 4) {
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME +
+                    " ADD COLUMN " + Columns.REC_LICENSE + " STRING DEFAULT ''");
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME +
+                    " ADD COLUMN " + Columns.REC_OPTOUT + " INTEGER DEFAULT " +
+                    Values.REC_OPT_OUT_OFF);
+        }
+        if (oldVersion < 5 && newVersion >= 5) {
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_TITLE + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_SUBTITLE + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_ROOM + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_DAY + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_SPEAKERS + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_RECORDING_OPTOUT + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_LANGUAGE + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_TRACK + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_IS_NEW + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_TIME + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_DURATION + " INTEGER DEFAULT " + 0);
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CHANGED_IS_CANCELED + " INTEGER DEFAULT " + 0);
+        }
+        if (oldVersion < 6 && newVersion >= 6) {
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.SLUG + " TEXT DEFAULT ''");
+        }
+        if (oldVersion < 7 && newVersion >= 7) {
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.URL + " TEXT DEFAULT ''");
+        }
+        if (oldVersion < 8) {
+            // Clear database from 34C3.
+            db.execSQL("DROP TABLE IF EXISTS " + SessionsTable.NAME);
+            createSessionsTables(db);
+        }
+        if (oldVersion < 9) {
+            // Clear database from 35C3.
+            db.execSQL("DROP TABLE IF EXISTS " + SessionsTable.NAME);
+            createSessionsTables(db);
+        }
+        if (oldVersion < 10 && newVersion >= 10) {
+            db.execSQL(SESSION_BY_NOTIFICATION_ID_TABLE_CREATE);
+        }
+        if (oldVersion < 11 && newVersion >= 11) {
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.TIME_ZONE_OFFSET + " INTEGER DEFAULT NULL");
+        }
+        if (oldVersion < 12 && newVersion >= 12) {
+            // Drop duplicated sessions which would violate the unique index. Keep the latest row.
+            db.execSQL("DELETE FROM " + SessionsTable.NAME + " WHERE rowid NOT IN (" +
+                    "SELECT MAX(rowid) FROM " + SessionsTable.NAME + " GROUP BY " + Columns.SESSION_ID + ")");
+            db.execSQL(SESSION_ID_INDEX_CREATE);
+        }
+        if (oldVersion < 13 && newVersion >= 13) {
+            createIndices(db);
+        }
+        if (oldVersion < 14 && newVersion >= 14) {
+            createHighlightsAlarmsAndMetaTables(db);
+            importLegacyDatabases(db);
+        }
+        if (oldVersion < 15 && newVersion >= 15) {
+            createScheduleColumnsTable(db);
+        }
+        if (oldVersion < 16 && newVersion >= 16) {
+            db.execSQL(META_LAST_MODIFIED_COLUMN_ADD);
+        }
+        // The sessions table has been recreated including the column if it was older than version 9.
+        if (oldVersion >= 9 && oldVersion < 17 && newVersion >= 17) {
+            db.execSQL("ALTER TABLE " + SessionsTable.NAME + " ADD COLUMN " + Columns.CONTENT_HASH + " INTEGER DEFAULT " +
+                    Defaults.CONTENT_HASH_DEFAULT);
+        }
+        if (oldVersion < 18 && newVersion >= 18) {
+            db.execSQL(META_DOWNLOAD_URL_COLUMN_ADD);
+        }
+    }
+
+    private static void createSessionsTables(@NonNull SQLiteDatabase db) {
+        db.beginTransaction();
+        db.execSQL(SESSIONS_TABLE_CREATE);
+        createIndices(db);
+        db.execSQL(SESSION_BY_NOTIFICATION_ID_TABLE_CREATE);
+        db.setTransactionSuccessful();
+        db.endTransaction();
+    }
+
+    private static void createHighlightsAlarmsAndMetaTables(@NonNull SQLiteDatabase db) {
+        db.execSQL(HIGHLIGHT_TABLE_CREATE);
+        db.execSQL(HIGHLIGHT_SESSION_ID_INDEX_CREATE);
+        db.execSQL(ALARMS_TABLE_CREATE);
+        db.execSQL(ALARMS_SESSION_ID_INDEX_CREATE);
+        db.execSQL(META_TABLE_CREATE);
+    }
+
+    private static void createScheduleColumnsTable(@NonNull SQLiteDatabase db) {
+        db.execSQL(SCHEDULE_COLUMNS_TABLE_CREATE);
+        db.execSQL(DAY_ROOM_DATE_UTC_INDEX_CREATE);
+    }
+
+    /**
+     * Copies the rows of the legacy database files into the tables of the given database.
+     * Files of outdated versions are skipped because their rows would have been cleared.
+     * The rows of a file are only inserted if all of them could be read.
+     */
+    private void importLegacyDatabases(@NonNull SQLiteDatabase db) {
+        for (LegacyDatabase legacyDatabase : LEGACY_DATABASES) {
+            File file = context.getDatabasePath(legacyDatabase.name);
+            if (file.exists()) {
+                if (importLegacyTable(db, file, legacyDatabase.tableName, legacyDatabase.minVersion)) {
+                    importedLegacyDatabases.add(legacyDatabase.name);
+                } else {
+                    Log.e(LOG_TAG, "Keeping legacy database \"" + legacyDatabase.name + "\" which failed to import.");
+                }
+            }
+        }
+    }
+
+    private static boolean importLegacyTable(@NonNull SQLiteDatabase db, @NonNull File file, @NonNull String tableName, int minVersion) {
+        List<ContentValues> rows = readLegacyTable(file, tableName, minVersion);
+        if (rows == null) {
+            return false;
+        }
+        boolean isSuccess = true;
+        for (ContentValues values : rows) {
+            isSuccess &= db.insert(tableName, null, values) != -1;
+        }
+        return isSuccess;
+    }
+
+    /**
+     * Returns the rows of the given table of the legacy database {@code file}, no rows if the
+     * file is outdated or {@code null} if the file cannot be read.
+     */
+    @Nullable
+    private static List<ContentValues> readLegacyTable(@NonNull File file, @NonNull String tableName, int minVersion) {
+        List<ContentValues> rows = new ArrayList<>();
+        SQLiteDatabase legacyDb = null;
+        Cursor cursor = null;
+        try {
+            legacyDb = SQLiteDatabase.openDatabase(file.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+            if (legacyDb.getVersion() < minVersion) {
+                return rows;
+            }
+            cursor = legacyDb.query(tableName, null, null, null, null, null, null);
+            while (cursor.moveToNext()) {
+                ContentValues values = new ContentValues();
+                DatabaseUtils.cursorRowToContentValues(cursor, values);
+                rows.add(values);
+            }
+            return rows;
+        } catch (SQLiteException e) {
+            Log.e(LOG_TAG, "Error while reading legacy database \"" + file.getName() + "\": " + e);
+            return null;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            if (legacyDb != null) {
+                legacyDb.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes the legacy database files which have been imported by the committed upgrade.
+     */
+    private void deleteLegacyDatabases() {
+        for (String name : importedLegacyDatabases) {
+            context.deleteDatabase(name);
+        }
+        importedLegacyDatabases.clear();
+    }
+
+    private static void createIndices(@NonNull SQLiteDatabase db) {
+        db.execSQL(SESSION_ID_INDEX_CREATE);
+        db.execSQL(DAY_DATE_UTC_INDEX_CREATE);
+        db.execSQL(ROOM_DATE_UTC_INDEX_CREATE);
+        db.execSQL(DATE_UTC_INDEX_CREATE);
+    }
+
+    /**
+     * Database file which used to hold a single table. The {@code minVersion} is the lowest
+     * version whose rows have not been cleared by the migrations of that file.
+     */
+    private static final class LegacyDatabase {
+
+        final String name;
+        final String tableName;
+        final int minVersion;
+
+        LegacyDatabase(@NonNull String name, @NonNull String tableName, int minVersion) {
+            this.name = name;
+            this.tableName = tableName;
+            this.minVersion = minVersion;
+        }
+
+    }
+
+}
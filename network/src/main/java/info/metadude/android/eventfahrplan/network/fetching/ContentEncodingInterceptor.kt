@@ -0,0 +1,63 @@
+package info.metadude.android.eventfahrplan.network.fetching
+
+import okhttp3.Interceptor
+import okhttp3.Interceptor.Chain
+import okhttp3.Response
+import okhttp3.ResponseBody
+import okio.GzipSource
+import okio.Okio
+import org.brotli.dec.BrotliInputStream
+import java.io.IOException
+
+/**
+ * Requests brotli or gzip compressed responses and decompresses them while they are read.
+ * OkHttp itself only negotiates gzip. Requests which already carry an `Accept-Encoding`
+ * header are passed through untouched.
+ *
+ * Must be added as an application interceptor so that network interceptors such as the
+ * logging interceptor still see the compressed response.
+ */
+class ContentEncodingInterceptor : Interceptor {
+
+    private companion object {
+        const val ACCEPT_ENCODING = "Accept-Encoding"
+        const val CONTENT_ENCODING = "Content-Encoding"
+        const val CONTENT_LENGTH = "Content-Length"
+        const val SUPPORTED_ENCODINGS = "br, gzip"
+    }
+
+    @Throws(IOException::class)
+    override fun intercept(chain: Chain): Response {
+        val originalRequest = chain.request()
+        if (originalRequest.header(ACCEPT_ENCODING) != null) {
+            return chain.proceed(originalRequest)
+        }
+        val compressingRequest = originalRequest.newBuilder()
+                .header(ACCEPT_ENCODING, SUPPORTED_ENCODINGS)
+                .build()
+        return decompress(chain.proceed(compressingRequest))
+    }
+
+    /**
+     * Returns the given [response] with a body which is decompressed according to its
+     * `Content-Encoding` header. Responses without a body are returned as they are.
+     */
+    @Throws(IOException::class)
+    internal fun decompress(response: Response): Response {
+        val body = response.body()
+        if (body == null || response.request().method() == "HEAD" || response.code() == 204 || response.code() == 304) {
+            return response
+        }
+        val source = when (response.header(CONTENT_ENCODING)?.lowercase()) {
+            "br" -> Okio.buffer(Okio.source(BrotliInputStream(body.byteStream())))
+            "gzip" -> Okio.buffer(GzipSource(body.source()))
+            else -> return response
+        }
+        return response.newBuilder()
+                .removeHeader(CONTENT_ENCODING)
+                .removeHeader(CONTENT_LENGTH)
+                .body(ResponseBody.create(body.contentType(), -1L, source))
+                .build()
+    }
+
+}
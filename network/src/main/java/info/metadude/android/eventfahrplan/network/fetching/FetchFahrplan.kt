@@ -0,0 +1,184 @@
+package info.metadude.android.eventfahrplan.network.fetching
+
+import android.net.Uri
+import info.metadude.android.eventfahrplan.commons.logging.Logging
+import info.metadude.android.eventfahrplan.network.serialization.FahrplanParser
+import okhttp3.Call
+import okhttp3.HttpUrl
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.ResponseBody
+import okio.ByteString
+import org.brotli.dec.BrotliInputStream
+import java.io.IOException
+import java.io.InputStream
+import java.net.SocketTimeoutException
+import java.net.UnknownHostException
+import java.net.UnknownServiceException
+import java.util.zip.GZIPInputStream
+import javax.net.ssl.SSLException
+
+/**
+ * Fetches the schedule XML. All functions are blocking and must be invoked from a background thread.
+ */
+internal class FetchFahrplan(
+
+        private val logging: Logging = Logging.get()
+
+) {
+
+    private companion object {
+        const val LOG_TAG = "FetchFahrplan"
+        val GZIP_MAGIC: ByteString = ByteString.decodeHex("1f8b")
+        val PRE_COMPRESSED_FILE_EXTENSIONS = listOf(".br", ".gz")
+    }
+
+    /**
+     * Returns the host name of the given [url]. Throws an exception if it cannot be determined.
+     */
+    fun parseHost(url: String) = requireNotNull(Uri.parse(url).host) {
+        "Host is null for url = '$url'"
+    }
+
+    /**
+     * Returns the URLs to request the schedule from in the given order. Pre-compressed
+     * alternates of a static XML file such as `schedule.xml.br` come first, the given [url]
+     * itself comes last. The next URL is only requested if the previous one is not found.
+     * If the given [downloadUrl] which answered the last time is the [url] itself or one of
+     * its alternates then requesting alternates which are known to be missing is skipped.
+     */
+    fun downloadUrls(url: String, downloadUrl: String): List<String> {
+        val alternateUrls = alternateUrls(url)
+        return when (downloadUrl) {
+            url -> listOf(url)
+            in alternateUrls -> listOf(downloadUrl, url)
+            else -> alternateUrls + url
+        }
+    }
+
+    private fun alternateUrls(url: String): List<String> {
+        val httpUrl = HttpUrl.parse(url) ?: return emptyList()
+        val isStaticXmlFile = httpUrl.encodedPath().endsWith(".xml") &&
+                httpUrl.encodedQuery() == null && httpUrl.encodedFragment() == null
+        return if (isStaticXmlFile) PRE_COMPRESSED_FILE_EXTENSIONS.map { url + it } else emptyList()
+    }
+
+    /**
+     * Creates a call for the given [url]. The `If-None-Match` header is
+     * sent if the given [eTag] is not empty. The `If-Modified-Since` header is
+     * sent if the given [lastModified] date is not empty. Servers which only
+     * support one of both validators can answer with HTTP 304 (Not Modified) then.
+     *
+     * No `Accept-Encoding` header is set here on purpose: the [ContentEncodingInterceptor]
+     * of the client or otherwise OkHttp itself negotiates a compressed transfer then.
+     */
+    fun newCall(okHttpClient: OkHttpClient, url: String, eTag: String, lastModified: String): Call {
+        logging.d(LOG_TAG, url)
+        logging.d(LOG_TAG, "ETag: $eTag")
+        logging.d(LOG_TAG, "Last-Modified: $lastModified")
+        val requestBuilder = Request.Builder().url(url)
+        if (eTag.isNotEmpty()) {
+            requestBuilder.addHeader("If-None-Match", eTag)
+        }
+        if (lastModified.isNotEmpty()) {
+            requestBuilder.addHeader("If-Modified-Since", lastModified)
+        }
+        return okHttpClient.newCall(requestBuilder.build())
+    }
+
+    /**
+     * Maps the given [response] to a [FetchScheduleResult]. The response body is not consumed.
+     */
+    fun toFetchScheduleResult(response: Response, host: String): FetchScheduleResult {
+        val httpStatus = when (val statusCode = response.code()) {
+            200 -> HttpStatus.HTTP_OK
+            304 -> HttpStatus.HTTP_NOT_MODIFIED
+            else -> {
+                logging.e(LOG_TAG, "Error $statusCode while retrieving XML data")
+                when (statusCode) {
+                    401 -> HttpStatus.HTTP_WRONG_HTTP_CREDENTIALS
+                    404 -> HttpStatus.HTTP_NOT_FOUND
+                    else -> HttpStatus.HTTP_COULD_NOT_CONNECT
+                }
+            }
+        }
+        if (httpStatus != HttpStatus.HTTP_OK) {
+            return FetchScheduleResult(httpStatus = httpStatus, hostName = host)
+        }
+        val eTag = response.header("ETag").orEmpty()
+        if (eTag.isEmpty()) {
+            logging.d(LOG_TAG, "ETag missing?")
+        } else {
+            logging.d(LOG_TAG, "ETag: $eTag")
+        }
+        val lastModified = response.header("Last-Modified").orEmpty()
+        logging.d(LOG_TAG, "Last-Modified: $lastModified")
+        return FetchScheduleResult(httpStatus = httpStatus, eTag = eTag, lastModified = lastModified, hostName = host)
+    }
+
+    /**
+     * Maps the given [exception] which occurred while executing the call to a [FetchScheduleResult].
+     */
+    fun toFetchScheduleResult(exception: IOException, host: String): FetchScheduleResult {
+        logging.e(LOG_TAG, "Fetching failed: $exception")
+        val httpStatus = when (exception) {
+            is SSLException -> HttpStatus.HTTP_LOGIN_FAIL_UNTRUSTED_CERTIFICATE
+            is SocketTimeoutException -> HttpStatus.HTTP_CONNECT_TIMEOUT
+            is UnknownHostException -> HttpStatus.HTTP_DNS_FAILURE
+            is UnknownServiceException -> HttpStatus.HTTP_CLEARTEXT_NOT_PERMITTED
+            else -> HttpStatus.HTTP_COULD_NOT_CONNECT
+        }
+        val exceptionMessage = if (exception is SSLException) exception.rootCauseMessage else ""
+        return FetchScheduleResult(httpStatus = httpStatus, hostName = host, exceptionMessage = exceptionMessage)
+    }
+
+    /**
+     * Returns `true` if the given [response] is a pre-compressed brotli file such as
+     * `schedule.xml.br` which is served without a `Content-Encoding` header.
+     * Unlike gzip files brotli files cannot be told apart by their first bytes.
+     */
+    fun isBrotliFile(response: Response) = response.request().url().encodedPath().endsWith(".br") &&
+            (response.networkResponse() ?: response).header("Content-Encoding") == null
+
+    /**
+     * Hands the given response [body] over to the given [parser] as a byte stream.
+     * The character encoding is taken from the response header if present.
+     * Otherwise the parser detects it from the XML declaration.
+     */
+    @Throws(IOException::class)
+    fun streamSchedule(body: ResponseBody, parser: FahrplanParser, eTag: String, isBrotliFile: Boolean): Boolean {
+        val encoding = body.contentType()?.charset()?.name()
+        return parser.parse(decompressedByteStream(body, isBrotliFile), encoding, eTag)
+    }
+
+    /**
+     * Returns the byte stream of the given response [body]. A body which is still compressed
+     * is decompressed while it is being read. This is the case for pre-compressed files such
+     * as `schedule.xml.gz` or a [brotli file][isBrotliFile] which are served without a
+     * `Content-Encoding` header.
+     */
+    @Throws(IOException::class)
+    fun decompressedByteStream(body: ResponseBody, isBrotliFile: Boolean = false): InputStream {
+        val source = body.source()
+        return when {
+            isBrotliFile -> {
+                logging.d(LOG_TAG, "Decompressing brotli file.")
+                BrotliInputStream(source.inputStream())
+            }
+            source.rangeEquals(0, GZIP_MAGIC) -> {
+                logging.d(LOG_TAG, "Decompressing gzip file.")
+                GZIPInputStream(source.inputStream())
+            }
+            else -> source.inputStream()
+        }
+    }
+
+    /**
+     * Returns the message of the cause of the cause, of the cause or of the exception itself
+     * whichever is found first. Certificate errors are wrapped twice.
+     */
+    private val SSLException.rootCauseMessage: String
+        get() = (cause?.cause?.message ?: cause?.message ?: message).orEmpty()
+
+}
@@ -3,8 +3,8 @@ package info.metadude.android.eventfahrplan.network.fetching
 data class FetchScheduleResult(
 
         val httpStatus: HttpStatus,
-        val scheduleXml: String = "",
         val eTag: String = "",
+        val lastModified: String = "",
         val hostName: String,
         val exceptionMessage: String = ""
 
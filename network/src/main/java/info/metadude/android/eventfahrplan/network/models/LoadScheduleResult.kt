@@ -0,0 +1,21 @@
+package info.metadude.android.eventfahrplan.network.models
+
+import info.metadude.android.eventfahrplan.network.fetching.FetchScheduleResult
+
+/**
+ * Stages of loading the schedule in the order they are emitted.
+ * [Parsed] is only emitted if [Fetched] reports a successful response.
+ */
+sealed class LoadScheduleResult {
+
+    data class Fetched(val fetchScheduleResult: FetchScheduleResult) : LoadScheduleResult()
+
+    data class Parsed(
+
+            val isSuccess: Boolean,
+            val sessions: List<Session>,
+            val meta: Meta
+
+    ) : LoadScheduleResult()
+
+}
@@ -2,7 +2,9 @@ package info.metadude.android.eventfahrplan.network.models
 
 data class Meta(
 
+        var downloadUrl: String = "",
         var eTag: String = "",
+        var lastModified: String = "",
         var numDays: Int = 0,
         var subtitle: String = "",
         var title: String = "",
@@ -33,6 +33,7 @@ data class Session(
         var track: String = "",
         var type: String = "",
         var url: String = "",
+        var contentHash: Long = 0,
 
         var changedDayIndex: Boolean = false,
         var changedDuration: Boolean = false,
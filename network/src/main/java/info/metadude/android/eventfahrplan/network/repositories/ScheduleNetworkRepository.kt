@@ -1,36 +1,136 @@
 package info.metadude.android.eventfahrplan.network.repositories
 
+import info.metadude.android.eventfahrplan.commons.logging.Logging
 import info.metadude.android.eventfahrplan.network.fetching.FetchFahrplan
-import info.metadude.android.eventfahrplan.network.fetching.FetchScheduleResult
+import info.metadude.android.eventfahrplan.network.fetching.HttpStatus
+import info.metadude.android.eventfahrplan.network.models.LoadScheduleResult
 import info.metadude.android.eventfahrplan.network.models.Meta
-import info.metadude.android.eventfahrplan.network.models.Session
 import info.metadude.android.eventfahrplan.network.serialization.FahrplanParser
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.awaitCancellation
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.FlowCollector
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runInterruptible
+import okhttp3.Call
 import okhttp3.OkHttpClient
+import java.io.IOException
 
-class ScheduleNetworkRepository {
+class ScheduleNetworkRepository(
 
-    private val fetcher = FetchFahrplan()
-    private val parser = FahrplanParser()
+        private val logging: Logging = Logging.get()
 
-    fun fetchSchedule(okHttpClient: OkHttpClient,
-                      url: String,
-                      eTag: String,
-                      onFetchScheduleFinished: (fetchScheduleResult: FetchScheduleResult) -> Unit) {
-        fetcher.setListener(onFetchScheduleFinished::invoke)
-        fetcher.fetch(okHttpClient, url, eTag)
+) {
+
+    private companion object {
+        const val LOG_TAG = "ScheduleNetworkRepository"
+        const val HTTP_NOT_FOUND = 404
+    }
+
+    private val fetcher = FetchFahrplan(logging)
+
+    /**
+     * Returns a cold flow which fetches the schedule from the given [url] and parses it
+     * while it is being downloaded. See [LoadScheduleResult] for the emitted values.
+     * Pre-compressed alternates of the [url] are requested first, see [FetchFahrplan.downloadUrls].
+     * The given [downloadUrl] which answered the last time is stored in the parsed [Meta].
+     * The given [eTag] and [lastModified] values of its response turn the request to the
+     * [downloadUrl] into a conditional request.
+     *
+     * Collecting is blocking and must happen on a background dispatcher. Cancelling the
+     * collecting coroutine cancels the HTTP call which aborts a pending connection or
+     * download right away. Parsing stops at the next element.
+     */
+    fun loadSchedule(okHttpClient: OkHttpClient,
+                     url: String,
+                     downloadUrl: String,
+                     eTag: String,
+                     lastModified: String): Flow<LoadScheduleResult> = flow {
+        val host = fetcher.parseHost(url)
+        val validatedUrl = downloadUrl.ifEmpty { url }
+        val downloadUrls = fetcher.downloadUrls(url, downloadUrl)
+        for (candidateUrl in downloadUrls) {
+            val isValidated = candidateUrl == validatedUrl
+            val call = fetcher.newCall(okHttpClient, candidateUrl,
+                    if (isValidated) eTag else "",
+                    if (isValidated) lastModified else "")
+            val isNotFound = call.cancelOnCancellation {
+                loadSchedule(call, host, candidateUrl, candidateUrl != downloadUrls.last())
+            }
+            if (!isNotFound) {
+                return@flow
+            }
+            logging.d(LOG_TAG, "Not found: $candidateUrl")
+        }
+    }
+
+    /**
+     * Executes the given [call] to the given [downloadUrl] and emits its results.
+     * Returns `true` without emitting anything if the [downloadUrl] is not found and
+     * [isFallbackAvailable] tells that another URL can be requested instead.
+     */
+    private suspend fun FlowCollector<LoadScheduleResult>.loadSchedule(
+            call: Call,
+            host: String,
+            downloadUrl: String,
+            isFallbackAvailable: Boolean
+    ): Boolean {
+        val response = try {
+            runInterruptible { call.execute() }
+        } catch (e: IOException) {
+            emit(LoadScheduleResult.Fetched(fetcher.toFetchScheduleResult(e, host)))
+            return false
+        }
+        response.use {
+            if (it.code() == HTTP_NOT_FOUND && isFallbackAvailable) {
+                return true
+            }
+            val fetchScheduleResult = fetcher.toFetchScheduleResult(it, host)
+            emit(LoadScheduleResult.Fetched(fetchScheduleResult))
+            if (fetchScheduleResult.httpStatus != HttpStatus.HTTP_OK) {
+                return false
+            }
+            val coroutineContext = currentCoroutineContext()
+            val parser = FahrplanParser { !coroutineContext.isActive }
+            val isSuccess = try {
+                val body = checkNotNull(it.body()) { "Response body is null." }
+                val isBrotliFile = fetcher.isBrotliFile(it)
+                runInterruptible { fetcher.streamSchedule(body, parser, fetchScheduleResult.eTag, isBrotliFile) }
+            } catch (e: IOException) {
+                logging.e(LOG_TAG, "Error while streaming the schedule from $host: $e")
+                false
+            }
+            val meta = parser.meta.apply {
+                this.downloadUrl = downloadUrl
+                this.lastModified = fetchScheduleResult.lastModified
+            }
+            emit(LoadScheduleResult.Parsed(isSuccess, parser.sessions, meta))
+            return false
+        }
     }
 
-    fun parseSchedule(scheduleXml: String,
-                      eTag: String,
-                      onUpdateSessions: (sessions: List<Session>) -> Unit,
-                      onUpdateMeta: (meta: Meta) -> Unit,
-                      onParsingDone: (result: Boolean, version: String) -> Unit) {
-        parser.setListener(object : FahrplanParser.OnParseCompleteListener {
-            override fun onUpdateSessions(sessions: List<Session>) = onUpdateSessions.invoke(sessions)
-            override fun onUpdateMeta(meta: Meta) = onUpdateMeta.invoke(meta)
-            override fun onParseDone(result: Boolean, version: String) = onParsingDone.invoke(result, version)
-        })
-        parser.parse(scheduleXml, eTag)
+    /**
+     * Runs the given [block] and cancels this call as soon as the calling coroutine is cancelled.
+     * Blocking socket reads of OkHttp do not react to thread interrupts, only to [Call.cancel].
+     */
+    private suspend fun <T> Call.cancelOnCancellation(block: suspend () -> T) = coroutineScope {
+        val call = this@cancelOnCancellation
+        val watcher = launch(start = CoroutineStart.UNDISPATCHED) {
+            try {
+                awaitCancellation()
+            } finally {
+                call.cancel()
+            }
+        }
+        try {
+            block()
+        } finally {
+            watcher.cancel()
+        }
     }
 
 }
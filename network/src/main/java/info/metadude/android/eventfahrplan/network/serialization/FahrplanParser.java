@@ -2,93 +2,139 @@ package info.metadude.android.eventfahrplan.network.serialization;
 
 import static info.metadude.android.eventfahrplan.commons.temporal.Moment.MINUTES_OF_ONE_DAY;
 
-import android.os.AsyncTask;
 import android.util.Xml;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
 
-import java.io.StringReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 import info.metadude.android.eventfahrplan.commons.logging.Logging;
+import info.metadude.android.eventfahrplan.commons.text.StringPool;
 import info.metadude.android.eventfahrplan.network.models.Meta;
 import info.metadude.android.eventfahrplan.network.models.Session;
 import info.metadude.android.eventfahrplan.network.serialization.exceptions.MissingXmlAttributeException;
 import info.metadude.android.eventfahrplan.network.temporal.DateParser;
 import info.metadude.android.eventfahrplan.network.validation.DateFieldValidation;
 
+/**
+ * Synchronous schedule XML parser. It does not spawn any thread by itself,
+ * callers are expected to invoke it from a background thread.
+ *
+ * The parser pulls its input element by element. When it is fed with a network
+ * {@link InputStream} the document is never held in memory as a whole
+ * and parsing overlaps with the download.
+ */
 public class FahrplanParser {
 
-    public interface OnParseCompleteListener {
+    public interface Cancellation {
 
-        void onUpdateSessions(@NonNull List<Session> sessions);
+        boolean isCancelled();
+    }
 
-        void onUpdateMeta(@NonNull Meta meta);
+    /**
+     * Creates the {@link XmlPullParser} instances used for parsing.
+     * The default implementation uses {@link Xml#newPullParser()}.
+     */
+    public interface PullParserFactory {
 
-        void onParseDone(Boolean result, String version);
+        @NonNull
+        XmlPullParser newPullParser();
     }
 
-    private ParserTask task;
+    private static final Cancellation NEVER_CANCELLED = () -> false;
+
+    @NonNull
+    private final Cancellation cancellation;
+
+    @NonNull
+    private final PullParserFactory pullParserFactory;
+
+    @NonNull
+    private final Logging logging;
 
-    private OnParseCompleteListener listener;
+    @NonNull
+    private List<Session> sessions = new ArrayList<>();
+
+    @NonNull
+    private Meta meta = new Meta();
 
     public FahrplanParser() {
-        task = null;
+        this(NEVER_CANCELLED);
     }
 
-    public void parse(String fahrplan, String eTag) {
-        task = new ParserTask(listener);
-        task.execute(fahrplan, eTag);
+    public FahrplanParser(@NonNull Cancellation cancellation) {
+        this(cancellation, Xml::newPullParser, Logging.get());
     }
 
-    public void cancel() {
-        if (task != null) {
-            task.cancel(false);
-        }
+    public FahrplanParser(
+            @NonNull Cancellation cancellation,
+            @NonNull PullParserFactory pullParserFactory,
+            @NonNull Logging logging
+    ) {
+        this.cancellation = cancellation;
+        this.pullParserFactory = pullParserFactory;
+        this.logging = logging;
     }
 
-    public void setListener(OnParseCompleteListener listener) {
-        this.listener = listener;
-        if (task != null) {
-            task.setListener(listener);
-        }
+    @NonNull
+    public List<Session> getSessions() {
+        return sessions;
     }
-}
 
-class ParserTask extends AsyncTask<String, Void, Boolean> {
-
-    private List<Session> sessions;
-
-    private Meta meta;
-
-    private FahrplanParser.OnParseCompleteListener listener;
-
-    private boolean completed;
-
-    private boolean result;
-
-    ParserTask(FahrplanParser.OnParseCompleteListener listener) {
-        this.listener = listener;
-        this.completed = false;
+    @NonNull
+    public Meta getMeta() {
+        return meta;
     }
 
-    public void setListener(FahrplanParser.OnParseCompleteListener listener) {
-        this.listener = listener;
+    /**
+     * Parses the schedule provided by the given {@code reader}.
+     * Returns {@code true} if parsing succeeded.
+     *
+     * @throws IOException if reading from the given {@code reader} fails.
+     */
+    public boolean parse(@NonNull Reader reader, String eTag) throws IOException {
+        XmlPullParser parser = pullParserFactory.newPullParser();
+        try {
+            parser.setInput(reader);
+        } catch (XmlPullParserException e) {
+            e.printStackTrace();
+            return false;
+        }
+        return parseAndValidate(parser, eTag);
+    }
 
-        if (completed && listener != null) {
-            notifyActivity();
+    /**
+     * Parses the schedule provided by the given {@code inputStream}.
+     * Returns {@code true} if parsing succeeded.
+     *
+     * @param encoding the character encoding of the stream or {@code null}
+     *                 to detect it from the XML declaration.
+     * @throws IOException if reading from the given {@code inputStream} fails.
+     */
+    public boolean parse(@NonNull InputStream inputStream, @Nullable String encoding, String eTag) throws IOException {
+        XmlPullParser parser = pullParserFactory.newPullParser();
+        try {
+            parser.setInput(inputStream, encoding);
+        } catch (XmlPullParserException e) {
+            e.printStackTrace();
+            return false;
         }
+        return parseAndValidate(parser, eTag);
     }
 
-    @Override
-    protected Boolean doInBackground(String... args) {
-        boolean parsingSuccessful = parseFahrplan(args[0], args[1]);
+    private boolean parseAndValidate(@NonNull XmlPullParser parser, String eTag) throws IOException {
+        boolean parsingSuccessful = parse(parser, eTag);
         if (parsingSuccessful) {
-            DateFieldValidation dateFieldValidation = new DateFieldValidation(Logging.get());
+            DateFieldValidation dateFieldValidation = new DateFieldValidation(logging);
             dateFieldValidation.validate(sessions);
             dateFieldValidation.printValidationErrors();
             // TODO Clear database on validation failure.
@@ -96,28 +142,10 @@ class ParserTask extends AsyncTask<String, Void, Boolean> {
         return parsingSuccessful;
     }
 
-    private void notifyActivity() {
-        if (result) {
-            listener.onUpdateSessions(sessions);
-            listener.onUpdateMeta(meta);
-        }
-        listener.onParseDone(result, meta.getVersion());
-        completed = false;
-    }
-
-    protected void onPostExecute(Boolean result) {
-        completed = true;
-        this.result = result;
-
-        if (listener != null) {
-            notifyActivity();
-        }
-    }
-
-    private Boolean parseFahrplan(String fahrplan, String eTag) {
-        XmlPullParser parser = Xml.newPullParser();
+    private boolean parse(@NonNull XmlPullParser parser, String eTag) throws IOException {
+        sessions = new ArrayList<>();
+        meta = new Meta();
         try {
-            parser.setInput(new StringReader(fahrplan));
             int eventType = parser.getEventType();
             boolean done = false;
             int numdays = 0;
@@ -128,14 +156,13 @@ class ParserTask extends AsyncTask<String, Void, Boolean> {
             int roomIndex = 0;
             int roomMapIndex = 0;
             boolean scheduleComplete = false;
+            // Rooms are numbered in the order of their first appearance. A missing room name is a key of its own.
             HashMap<String, Integer> roomsMap = new HashMap<>();
-            while (eventType != XmlPullParser.END_DOCUMENT && !done && !isCancelled()) {
+            // Values which repeat throughout the schedule are kept once.
+            StringPool strings = new StringPool();
+            while (eventType != XmlPullParser.END_DOCUMENT && !done && !cancellation.isCancelled()) {
                 String name;
                 switch (eventType) {
-                    case XmlPullParser.START_DOCUMENT:
-                        sessions = new ArrayList<>();
-                        meta = new Meta();
-                        break;
                     case XmlPullParser.END_TAG:
                         name = parser.getName();
                         if (name.equals("schedule")) {
@@ -151,7 +178,7 @@ class ParserTask extends AsyncTask<String, Void, Boolean> {
                         if (name.equals("day")) {
                             String index = parser.getAttributeValue(null, "index");
                             day = Integer.parseInt(index);
-                            date = parser.getAttributeValue(null, "date");
+                            date = strings.internOrNull(parser.getAttributeValue(null, "date"));
                             String end = parser.getAttributeValue(null, "end");
                             if (end == null) {
                                 throw new MissingXmlAttributeException("day", "end");
@@ -162,7 +189,7 @@ class ParserTask extends AsyncTask<String, Void, Boolean> {
                             }
                         }
                         if (name.equals("room")) {
-                            room = parser.getAttributeValue(null, "name");
+                            room = strings.internOrNull(parser.getAttributeValue(null, "name"));
                             if (!roomsMap.containsKey(room)) {
                                 roomsMap.put(room, roomIndex);
                                 roomMapIndex = roomIndex;
@@ -182,11 +209,12 @@ class ParserTask extends AsyncTask<String, Void, Boolean> {
                             eventType = parser.next();
                             boolean isSessionDone = false;
                             while (eventType != XmlPullParser.END_DOCUMENT
-                                    && !isSessionDone && !isCancelled()) {
+                                    && !isSessionDone && !cancellation.isCancelled()) {
                                 switch (eventType) {
                                     case XmlPullParser.END_TAG:
                                         name = parser.getName();
                                         if (name.equals("event")) {
+                                            session.setContentHash(SessionContentHashing.computeContentHash(session));
                                             sessions.add(session);
                                             isSessionDone = true;
                                         }
@@ -208,13 +236,13 @@ class ParserTask extends AsyncTask<String, Void, Boolean> {
                                             session.setUrl(XmlPullParsers.getSanitizedText(parser));
                                         } else if (name.equals("track")) {
                                             parser.next();
-                                            session.setTrack(XmlPullParsers.getSanitizedText(parser));
+                                            session.setTrack(strings.intern(XmlPullParsers.getSanitizedText(parser)));
                                         } else if (name.equals("type")) {
                                             parser.next();
-                                            session.setType(XmlPullParsers.getSanitizedText(parser));
+                                            session.setType(strings.intern(XmlPullParsers.getSanitizedText(parser)));
                                         } else if (name.equals("language")) {
                                             parser.next();
-                                            session.setLanguage(XmlPullParsers.getSanitizedText(parser));
+                                            session.setLanguage(strings.intern(XmlPullParsers.getSanitizedText(parser)));
                                         } else if (name.equals("abstract")) {
                                             parser.next();
                                             session.setAbstractt(XmlPullParsers.getSanitizedText(parser));
@@ -262,7 +290,7 @@ class ParserTask extends AsyncTask<String, Void, Boolean> {
                                             eventType = parser.next();
                                             boolean recordingDone = false;
                                             while (eventType != XmlPullParser.END_DOCUMENT
-                                                    && !recordingDone && !isCancelled()) {
+                                                    && !recordingDone && !cancellation.isCancelled()) {
                                                 switch (eventType) {
                                                     case XmlPullParser.END_TAG:
                                                         name = parser.getName();
@@ -343,12 +371,14 @@ class ParserTask extends AsyncTask<String, Void, Boolean> {
             if (!scheduleComplete) {
                 return false;
             }
-            if (isCancelled()) {
+            if (cancellation.isCancelled()) {
                 return false;
             }
             meta.setNumDays(numdays);
             meta.setETag(eTag);
             return true;
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return false;
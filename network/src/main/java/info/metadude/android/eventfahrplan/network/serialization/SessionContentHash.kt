@@ -0,0 +1,30 @@
+@file:JvmName("SessionContentHashing")
+
+package info.metadude.android.eventfahrplan.network.serialization
+
+import info.metadude.android.eventfahrplan.commons.text.ContentHash
+import info.metadude.android.eventfahrplan.network.models.Session
+
+/**
+ * Returns the hash of the fields which are compared to detect schedule changes.
+ * The [type][Session.type] is included since the track might be derived from it.
+ * Sessions with equal hashes are considered unchanged.
+ *
+ * The hash is computed from the values as they are parsed, before the app sanitizes them.
+ * Equal raw values yield equal sanitized values, so equal hashes are a safe shortcut.
+ * Values which only become equal when sanitized, e.g. a language in different case, yield
+ * different hashes. Such sessions are compared field by field and are not flagged as changed.
+ */
+internal fun Session.computeContentHash() = ContentHash()
+        .add(title)
+        .add(subtitle)
+        .add(speakers)
+        .add(language)
+        .add(room)
+        .add(track)
+        .add(type)
+        .add(recordingOptOut)
+        .add(dayIndex)
+        .add(startTime)
+        .add(duration)
+        .value
@@ -1,6 +1,7 @@
 package info.metadude.android.eventfahrplan.network.temporal
 
 import info.metadude.android.eventfahrplan.commons.temporal.DateParser
+import info.metadude.android.eventfahrplan.commons.temporal.FixedFormatDateParser
 import info.metadude.android.eventfahrplan.commons.temporal.Moment
 import info.metadude.android.eventfahrplan.commons.temporal.Moment.Companion.MILLISECONDS_OF_ONE_SECOND
 import org.threeten.bp.LocalDate
@@ -12,6 +13,11 @@ class DateParser {
 
     companion object {
 
+        /**
+         * Reference parser for the texts which are not handled by the [FixedFormatDateParser].
+         */
+        private val MINUTES_FORMATTER = DateTimeFormatter.ofPattern("H:mm[:ss]")
+
         /**
          * Parses given [text] and returns its date value represented in milliseconds.
          *
@@ -24,9 +30,14 @@ class DateParser {
         fun getDateTime(text: String) = if (text.length > 10) {
             DateParser.parseDateTime(text)
         } else {
-            val parsed = LocalDate.parse(text)
-            val atUTCOffset = parsed.atTime(0, 0).atOffset(ZoneOffset.UTC)
-            atUTCOffset.toEpochSecond() * MILLISECONDS_OF_ONE_SECOND
+            val milliseconds = FixedFormatDateParser.parseDate(text)
+            if (milliseconds != FixedFormatDateParser.INVALID_MILLISECONDS) {
+                milliseconds
+            } else {
+                val parsed = LocalDate.parse(text)
+                val atUTCOffset = parsed.atTime(0, 0).atOffset(ZoneOffset.UTC)
+                atUTCOffset.toEpochSecond() * MILLISECONDS_OF_ONE_SECOND
+            }
         }
 
         /**
@@ -51,7 +62,11 @@ class DateParser {
          */
         @JvmStatic
         fun getMinutes(hoursMinutes: String): Int {
-            return DateTimeFormatter.ofPattern("H:mm[:ss]").parse(hoursMinutes).get(ChronoField.MINUTE_OF_DAY)
+            val minutes = FixedFormatDateParser.parseMinuteOfDay(hoursMinutes)
+            if (minutes != FixedFormatDateParser.INVALID_MINUTES) {
+                return minutes
+            }
+            return MINUTES_FORMATTER.parse(hoursMinutes).get(ChronoField.MINUTE_OF_DAY)
         }
 
     }
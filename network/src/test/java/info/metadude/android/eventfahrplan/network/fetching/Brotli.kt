@@ -0,0 +1,12 @@
+package info.metadude.android.eventfahrplan.network.fetching
+
+/**
+ * Returns the given [bytes] as a brotli stream made of one uncompressed meta-block
+ * and an empty last meta-block, see RFC 7932. Up to 65536 bytes are supported.
+ */
+fun brotliCompress(bytes: ByteArray): ByteArray {
+    // Bits from the lowest: WBITS = 16 (0), ISLAST (0), MNIBBLES = 4 (00), MLEN - 1 (16 bits), ISUNCOMPRESSED (1)
+    val header = ((bytes.size - 1) shl 4) or (1 shl 20)
+    val lastMetaBlock: Byte = 0b11 // ISLAST (1), ISLASTEMPTY (1)
+    return byteArrayOf(header.toByte(), (header shr 8).toByte(), (header shr 16).toByte()) + bytes + lastMetaBlock
+}
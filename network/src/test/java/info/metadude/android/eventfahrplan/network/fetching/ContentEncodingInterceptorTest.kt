@@ -0,0 +1,71 @@
+package info.metadude.android.eventfahrplan.network.fetching
+
+import okhttp3.MediaType
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.ResponseBody
+import okio.Buffer
+import okio.GzipSink
+import okio.Okio
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class ContentEncodingInterceptorTest {
+
+    private val interceptor = ContentEncodingInterceptor()
+
+    @Test
+    fun `decompress decodes a brotli encoded body`() {
+        val response = interceptor.decompress(createResponse("br", brotliCompress(JSON.toByteArray())))
+        assertThat(response.body()!!.string()).isEqualTo(JSON)
+        assertThat(response.header("Content-Encoding")).isNull()
+        assertThat(response.header("Content-Length")).isNull()
+    }
+
+    @Test
+    fun `decompress decodes a gzip encoded body`() {
+        val compressed = Buffer()
+        Okio.buffer(GzipSink(compressed)).use { it.writeUtf8(JSON) }
+        val response = interceptor.decompress(createResponse("gzip", compressed.readByteArray()))
+        assertThat(response.body()!!.string()).isEqualTo(JSON)
+        assertThat(response.header("Content-Encoding")).isNull()
+    }
+
+    @Test
+    fun `decompress keeps the content type`() {
+        val response = interceptor.decompress(createResponse("br", brotliCompress(JSON.toByteArray())))
+        assertThat(response.body()!!.contentType()).isEqualTo(MediaType.parse("application/json"))
+    }
+
+    @Test
+    fun `decompress returns an unencoded response as is`() {
+        val response = createResponse(null, JSON.toByteArray())
+        assertThat(interceptor.decompress(response)).isSameAs(response)
+    }
+
+    @Test
+    fun `decompress returns a response without body content as is`() {
+        val response = createResponse("br", ByteArray(0)).newBuilder().code(304).build()
+        assertThat(interceptor.decompress(response)).isSameAs(response)
+    }
+
+    private fun createResponse(contentEncoding: String?, body: ByteArray): Response {
+        val builder = Response.Builder()
+                .request(Request.Builder().url("https://example.com/shifts.json").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("")
+                .header("Content-Length", "${body.size}")
+                .body(ResponseBody.create(MediaType.parse("application/json"), body))
+        if (contentEncoding != null) {
+            builder.header("Content-Encoding", contentEncoding)
+        }
+        return builder.build()
+    }
+
+    private companion object {
+        const val JSON = "[{\"Name\":\"Angel\"}]"
+    }
+
+}
@@ -0,0 +1,198 @@
+package info.metadude.android.eventfahrplan.network.fetching
+
+import info.metadude.android.eventfahrplan.commons.logging.Logging
+import okhttp3.MediaType
+import okhttp3.OkHttpClient
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.ResponseBody
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.net.SocketTimeoutException
+import java.net.UnknownHostException
+import java.net.UnknownServiceException
+import java.security.cert.CertificateException
+import java.util.zip.GZIPOutputStream
+import javax.net.ssl.SSLException
+
+class FetchFahrplanTest {
+
+    private val fetcher = FetchFahrplan(TestLogger)
+
+    @Test
+    fun `toFetchScheduleResult returns HTTP_OK and the ETag for status code 200`() {
+        val response = createResponse(200).newBuilder().header("ETag", "abc123").build()
+        val result = fetcher.toFetchScheduleResult(response, "example.com")
+        assertThat(result).isEqualTo(FetchScheduleResult(
+                httpStatus = HttpStatus.HTTP_OK,
+                eTag = "abc123",
+                hostName = "example.com"
+        ))
+    }
+
+    @Test
+    fun `toFetchScheduleResult returns the Last-Modified date for status code 200`() {
+        val response = createResponse(200).newBuilder()
+                .header("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT")
+                .build()
+        val result = fetcher.toFetchScheduleResult(response, "example.com")
+        assertThat(result.lastModified).isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT")
+    }
+
+    @Test
+    fun `newCall sends the If-None-Match and If-Modified-Since headers`() {
+        val request = fetcher.newCall(OkHttpClient(), URL, "abc123", "Wed, 21 Oct 2015 07:28:00 GMT").request()
+        assertThat(request.header("If-None-Match")).isEqualTo("abc123")
+        assertThat(request.header("If-Modified-Since")).isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT")
+    }
+
+    @Test
+    fun `newCall omits the conditional headers for empty values`() {
+        val request = fetcher.newCall(OkHttpClient(), URL, "", "").request()
+        assertThat(request.header("If-None-Match")).isNull()
+        assertThat(request.header("If-Modified-Since")).isNull()
+    }
+
+    @Test
+    fun `toFetchScheduleResult returns HTTP_NOT_MODIFIED for status code 304`() {
+        assertHttpStatus(304, HttpStatus.HTTP_NOT_MODIFIED)
+    }
+
+    @Test
+    fun `toFetchScheduleResult returns HTTP_WRONG_HTTP_CREDENTIALS for status code 401`() {
+        assertHttpStatus(401, HttpStatus.HTTP_WRONG_HTTP_CREDENTIALS)
+    }
+
+    @Test
+    fun `toFetchScheduleResult returns HTTP_NOT_FOUND for status code 404`() {
+        assertHttpStatus(404, HttpStatus.HTTP_NOT_FOUND)
+    }
+
+    @Test
+    fun `toFetchScheduleResult returns HTTP_COULD_NOT_CONNECT for status code 500`() {
+        assertHttpStatus(500, HttpStatus.HTTP_COULD_NOT_CONNECT)
+    }
+
+    @Test
+    fun `toFetchScheduleResult returns HTTP_LOGIN_FAIL_UNTRUSTED_CERTIFICATE and the root cause message for SSLException`() {
+        val cause = CertificateException("Trust anchor not found", IOException("Certificate expired"))
+        val result = fetcher.toFetchScheduleResult(SSLException(cause), "example.com")
+        assertThat(result.httpStatus).isEqualTo(HttpStatus.HTTP_LOGIN_FAIL_UNTRUSTED_CERTIFICATE)
+        assertThat(result.exceptionMessage).isEqualTo("Certificate expired")
+    }
+
+    @Test
+    fun `toFetchScheduleResult maps network exceptions`() {
+        assertThat(fetcher.toFetchScheduleResult(SocketTimeoutException(), "example.com").httpStatus)
+                .isEqualTo(HttpStatus.HTTP_CONNECT_TIMEOUT)
+        assertThat(fetcher.toFetchScheduleResult(UnknownHostException(), "example.com").httpStatus)
+                .isEqualTo(HttpStatus.HTTP_DNS_FAILURE)
+        assertThat(fetcher.toFetchScheduleResult(UnknownServiceException(), "example.com").httpStatus)
+                .isEqualTo(HttpStatus.HTTP_CLEARTEXT_NOT_PERMITTED)
+        assertThat(fetcher.toFetchScheduleResult(IOException(), "example.com").httpStatus)
+                .isEqualTo(HttpStatus.HTTP_COULD_NOT_CONNECT)
+    }
+
+    @Test
+    fun `decompressedByteStream decompresses a gzip compressed body`() {
+        val compressed = ByteArrayOutputStream().apply {
+            GZIPOutputStream(this).use { it.write(SCHEDULE_XML.toByteArray()) }
+        }.toByteArray()
+        val body = ResponseBody.create(MediaType.parse("application/gzip"), compressed)
+        val text = fetcher.decompressedByteStream(body).use { String(it.readBytes()) }
+        assertThat(text).isEqualTo(SCHEDULE_XML)
+    }
+
+    @Test
+    fun `decompressedByteStream decompresses a brotli file`() {
+        val body = ResponseBody.create(MediaType.parse("application/octet-stream"), brotliCompress(SCHEDULE_XML.toByteArray()))
+        val text = fetcher.decompressedByteStream(body, isBrotliFile = true).use { String(it.readBytes()) }
+        assertThat(text).isEqualTo(SCHEDULE_XML)
+    }
+
+    @Test
+    fun `isBrotliFile returns true for a br file without Content-Encoding header`() {
+        assertThat(fetcher.isBrotliFile(createResponse(200, "$URL.br"))).isTrue()
+    }
+
+    @Test
+    fun `isBrotliFile returns false for a br file with Content-Encoding header`() {
+        val response = createResponse(200, "$URL.br").newBuilder().header("Content-Encoding", "br").build()
+        assertThat(fetcher.isBrotliFile(response)).isFalse()
+    }
+
+    @Test
+    fun `isBrotliFile returns false for an XML file`() {
+        assertThat(fetcher.isBrotliFile(createResponse(200))).isFalse()
+    }
+
+    @Test
+    fun `downloadUrls returns the pre-compressed alternates before the XML file`() {
+        assertThat(fetcher.downloadUrls(URL, "")).isEqualTo(listOf("$URL.br", "$URL.gz", URL))
+    }
+
+    @Test
+    fun `downloadUrls returns the alternate which answered last time before the XML file`() {
+        assertThat(fetcher.downloadUrls(URL, "$URL.gz")).isEqualTo(listOf("$URL.gz", URL))
+    }
+
+    @Test
+    fun `downloadUrls returns only the XML file if it answered last time`() {
+        assertThat(fetcher.downloadUrls(URL, URL)).isEqualTo(listOf(URL))
+    }
+
+    @Test
+    fun `downloadUrls ignores a download URL of another schedule`() {
+        assertThat(fetcher.downloadUrls(URL, "https://example.org/schedule.xml.br"))
+                .isEqualTo(listOf("$URL.br", "$URL.gz", URL))
+    }
+
+    @Test
+    fun `downloadUrls returns only the URL if it is not a static XML file`() {
+        val url = "https://example.com/schedule/export?format=xml"
+        assertThat(fetcher.downloadUrls(url, "")).isEqualTo(listOf(url))
+        assertThat(fetcher.downloadUrls("https://example.com/schedule.json", "")).isEqualTo(listOf("https://example.com/schedule.json"))
+    }
+
+    @Test
+    fun `decompressedByteStream returns an uncompressed body as is`() {
+        val body = ResponseBody.create(MediaType.parse("application/xml"), SCHEDULE_XML)
+        val text = fetcher.decompressedByteStream(body).use { String(it.readBytes()) }
+        assertThat(text).isEqualTo(SCHEDULE_XML)
+    }
+
+    @Test
+    fun `decompressedByteStream returns an empty body as is`() {
+        val body = ResponseBody.create(null, "")
+        assertThat(fetcher.decompressedByteStream(body).use { it.read() }).isEqualTo(-1)
+    }
+
+    private fun assertHttpStatus(statusCode: Int, expected: HttpStatus) {
+        val result = fetcher.toFetchScheduleResult(createResponse(statusCode), "example.com")
+        assertThat(result).isEqualTo(FetchScheduleResult(httpStatus = expected, hostName = "example.com"))
+    }
+
+    private fun createResponse(statusCode: Int, url: String = URL) = Response.Builder()
+            .request(Request.Builder().url(url).build())
+            .protocol(Protocol.HTTP_1_1)
+            .code(statusCode)
+            .message("")
+            .build()
+
+    private companion object {
+        const val URL = "https://example.com/schedule.xml"
+        const val SCHEDULE_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><schedule></schedule>"
+    }
+
+    object TestLogger : Logging {
+        override fun d(tag: String, message: String) = println("$tag $message")
+
+        override fun e(tag: String, message: String) = println("$tag $message")
+
+        override fun report(tag: String, message: String) = println("$tag $message")
+    }
+
+}